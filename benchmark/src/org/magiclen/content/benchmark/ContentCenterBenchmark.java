@@ -0,0 +1,271 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.benchmark;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.magiclen.content.center.ContentCenter;
+import org.magiclen.content.center.listener.ContentCenterListener;
+import org.magiclen.content.database.ColumnType;
+import org.magiclen.content.database.Condition;
+import org.magiclen.content.database.ConditionType;
+import org.magiclen.content.database.TableMetadata;
+import org.magiclen.json.JSONArray;
+import org.magiclen.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ContentCenter主要操作的JMH效能測試。每組參數都會在新的JVM中使用新的暫存SQLite檔案。
+ *
+ * @author Magic Len
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentCenterBenchmark {
+
+    // -----類別常數-----
+    /**
+     * 測試用的表單名稱。
+     */
+    private static final String TABLE = "bench";
+
+    /**
+     * 測試用的Key欄位名稱。
+     */
+    private static final String COLUMN_ID = "id";
+
+    /**
+     * 測試用的文字欄位名稱。
+     */
+    private static final String COLUMN_TEXT = "text";
+
+    /**
+     * 測試用的數值欄位名稱。
+     */
+    private static final String COLUMN_VALUE = "value";
+
+    // -----物件變數-----
+    /**
+     * 表單一開始的資料筆數，也是multiInsert每次插入的筆數和query每次讀取的筆數。
+     */
+    @Param({"100", "1000"})
+    public int rows;
+
+    /**
+     * 文字欄位的長度。
+     */
+    @Param({"16", "256"})
+    public int textLength;
+
+    /**
+     * 文字欄位是否為隱藏欄位。
+     */
+    @Param({"false", "true"})
+    public boolean hidden;
+
+    /**
+     * 是否使用AutoCommit，若為false，每次測試迭代結束時才commit。
+     */
+    @Param({"true", "false"})
+    public boolean autoCommit;
+
+    private File dbFile;
+    private String text;
+    private JSONObject row;
+    private JSONObject columnsReference;
+    private JSONArray batch;
+    private Condition keyCondition;
+    private Condition rangeCondition;
+    private long nextKey;
+
+    // -----物件方法-----
+    /**
+     * 建立暫存資料庫和表單，並插入一開始的資料。
+     *
+     * @throws Exception 拋出例外
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ContentCenter.printStatement = false;
+        ContentCenter.recordMetrics = false;
+        dbFile = File.createTempFile("magiclen_cc_bench", ".db");
+        dbFile.delete();
+        final ContentCenterListener listener = new ContentCenterListener() {
+            @Override
+            public boolean onActionPerforming(final ContentCenterListener.EVENT event, final ContentCenterListener.NOTIFY notify, final JSONObject information) throws Exception {
+                return true;
+            }
+        };
+        if (!ContentCenter.initialContentCenter(dbFile, listener, "bench key")) {
+            throw new Exception("cannot initial ContentCenter");
+        }
+        final TableMetadata metadata = new TableMetadata();
+        metadata.addNewColumn(COLUMN_ID, ColumnType.INTEGER, false);
+        metadata.setPrimaryKey(COLUMN_ID);
+        metadata.addNewColumn(COLUMN_TEXT, ColumnType.TEXT, hidden, false);
+        metadata.addNewColumn(COLUMN_VALUE, ColumnType.REAL, true);
+        if (!ContentCenter.createTable(TABLE, metadata)) {
+            throw new Exception("cannot create table");
+        }
+
+        final StringBuilder sb = new StringBuilder(textLength);
+        for (int i = 0; i < textLength; ++i) {
+            sb.append((char) ('a' + i % 26));
+        }
+        text = sb.toString();
+
+        row = new JSONObject();
+        row.put(COLUMN_TEXT, text);
+        row.put(COLUMN_VALUE, 1.5);
+
+        columnsReference = new JSONObject();
+        columnsReference.put(COLUMN_TEXT, 0);
+        columnsReference.put(COLUMN_VALUE, 0);
+        batch = new JSONArray();
+        for (int i = 0; i < rows; ++i) {
+            final JSONObject r = new JSONObject();
+            r.put(COLUMN_TEXT, text);
+            r.put(COLUMN_VALUE, (double) i);
+            batch.put(r);
+        }
+        if (!ContentCenter.multiInsert(TABLE, columnsReference, batch)) {
+            throw new Exception("cannot insert initial rows");
+        }
+
+        keyCondition = new Condition();
+        keyCondition.setCondition(COLUMN_ID, 1L, ConditionType.EQUAL);
+        rangeCondition = new Condition();
+        rangeCondition.setCondition(COLUMN_ID, (long) rows, ConditionType.EQUAL_OR_SMALLER_THAN);
+        nextKey = 1;
+
+        if (!autoCommit && !ContentCenter.setAutoCommit(false)) {
+            throw new Exception("transaction mode is not supported by the current driver");
+        }
+    }
+
+    /**
+     * 在交易模式下，每次測試迭代結束時commit。
+     */
+    @TearDown(Level.Iteration)
+    public void commitIteration() {
+        if (!autoCommit) {
+            ContentCenter.commit();
+        }
+    }
+
+    /**
+     * 關閉ContentCenter並刪除暫存資料庫。
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ContentCenter.closeContentCenter();
+        dbFile.delete();
+        new File(dbFile.getAbsolutePath().concat("-journal")).delete();
+        new File(dbFile.getAbsolutePath().concat("-wal")).delete();
+        new File(dbFile.getAbsolutePath().concat("-shm")).delete();
+    }
+
+    /**
+     * 插入一筆資料。
+     *
+     * @return 傳回是否插入成功
+     */
+    @Benchmark
+    public boolean insert() {
+        return ContentCenter.insert(TABLE, row);
+    }
+
+    /**
+     * 一次插入rows筆資料。
+     *
+     * @return 傳回是否插入成功
+     */
+    @Benchmark
+    public boolean multiInsert() {
+        return ContentCenter.multiInsert(TABLE, columnsReference, batch);
+    }
+
+    /**
+     * 用Key查詢一筆資料。
+     *
+     * @return 傳回查詢結果
+     */
+    @Benchmark
+    public JSONArray queryByKey() {
+        keyCondition.setCondition(COLUMN_ID, nextKey(), ConditionType.EQUAL);
+        return ContentCenter.query(TABLE, keyCondition);
+    }
+
+    /**
+     * 查詢rows筆資料，隱藏欄位會被還原。
+     *
+     * @return 傳回查詢結果
+     */
+    @Benchmark
+    public JSONArray queryRange() {
+        return ContentCenter.query(TABLE, rangeCondition);
+    }
+
+    /**
+     * 用Key更新一筆資料。
+     *
+     * @return 傳回是否更新成功
+     */
+    @Benchmark
+    public boolean updateByKey() {
+        keyCondition.setCondition(COLUMN_ID, nextKey(), ConditionType.EQUAL);
+        return ContentCenter.update(TABLE, row, keyCondition);
+    }
+
+    /**
+     * 計算rows筆資料的數量。
+     *
+     * @return 傳回資料數量
+     */
+    @Benchmark
+    public long count() {
+        return ContentCenter.count(TABLE, rangeCondition);
+    }
+
+    /**
+     * 取得下一個存在的Key，在一開始插入的資料間循環。
+     *
+     * @return 傳回Key
+     */
+    private long nextKey() {
+        final long key = nextKey;
+        nextKey = nextKey % rows + 1;
+        return key;
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.magiclen.content.database.Placeholder;
+
+/**
+ * 盲索引(Blind Index)，用HMAC-SHA256計算隱藏欄位內容的金鑰雜湊值。相同的內容會得到相同的雜湊值，可以建立索引做相等比較，但無法從雜湊值得知內容。
+ *
+ * @author Magic Len
+ */
+final class BlindIndex {
+
+    // -----類別常數-----
+    /**
+     * 金鑰雜湊使用的演算法。
+     */
+    private static final String ALGORITHM = "HmacSHA256";
+
+    /**
+     * 產生金鑰時加在隱藏金鑰前面的字串，讓盲索引的金鑰和隱藏欄位的密鑰不同。
+     */
+    private static final String KEY_CONTEXT = "magiclen_cc_blind_index:";
+
+    /**
+     * 字串使用的編碼。
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * 十六進制的字元。
+     */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // -----類別類別-----
+    /**
+     * 要比較盲索引欄位的Placeholder。查詢樣板執行時，會先計算傳入的值的雜湊值再比較。
+     */
+    static final class DigestPlaceholder {
+
+        private final Placeholder placeholder;
+        private final String tableName;
+        private final String columnName;
+
+        /**
+         * 建構要比較盲索引欄位的Placeholder。
+         *
+         * @param placeholder 傳入原本的Placeholder
+         * @param tableName 傳入表單名稱
+         * @param columnName 傳入隱藏欄位的名稱
+         */
+        DigestPlaceholder(final Placeholder placeholder, final String tableName, final String columnName) {
+            this.placeholder = placeholder;
+            this.tableName = tableName;
+            this.columnName = columnName;
+        }
+
+        /**
+         * 取得原本的Placeholder。
+         *
+         * @return 傳回原本的Placeholder
+         */
+        Placeholder getPlaceholder() {
+            return placeholder;
+        }
+
+        /**
+         * 取得表單名稱。
+         *
+         * @return 傳回表單名稱
+         */
+        String getTableName() {
+            return tableName;
+        }
+
+        /**
+         * 取得隱藏欄位的名稱。
+         *
+         * @return 傳回隱藏欄位的名稱
+         */
+        String getColumnName() {
+            return columnName;
+        }
+
+        /**
+         * 取得字串。
+         *
+         * @return 傳回字串。
+         */
+        @Override
+        public String toString() {
+            return placeholder.toString();
+        }
+    }
+
+    // -----物件常數-----
+    private final SecretKeySpec key;
+
+    // -----建構子-----
+    /**
+     * 建構盲索引。
+     *
+     * @param hideKey 傳入隱藏欄位時用的密鑰
+     * @throws Exception 拋出例外
+     */
+    BlindIndex(final String hideKey) throws Exception {
+        final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+        this.key = new SecretKeySpec(messageDigest.digest(KEY_CONTEXT.concat(hideKey).getBytes(UTF8)), ALGORITHM);
+    }
+
+    // -----物件方法-----
+    /**
+     * 計算欄位內容的金鑰雜湊值。表單名稱和欄位名稱也會被計算在內，因此不同欄位中相同的內容會得到不同的雜湊值。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnName 傳入欄位名稱
+     * @param value 傳入欄位內容
+     * @return 傳回十六進制的雜湊值
+     * @throws Exception 拋出例外
+     */
+    String digest(final String tableName, final String columnName, final String value) throws Exception {
+        final Mac mac = Mac.getInstance(ALGORITHM);
+        mac.init(key);
+        mac.update(tableName.getBytes(UTF8));
+        mac.update((byte) 0);
+        mac.update(columnName.getBytes(UTF8));
+        mac.update((byte) 0);
+        final byte[] hash = mac.doFinal(value.getBytes(UTF8));
+        final char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; ++i) {
+            chars[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.Arrays;
+import org.magiclen.content.database.ColumnType;
+
+/**
+ * 以欄為單位儲存的查詢結果。每個欄位都是一個陣列，INTEGER欄位為long[]，REAL欄位為double[]，TEXT欄位為String[]，並用位元圖(Bitmap)記錄哪些值是null。
+ *
+ * @author Magic Len
+ * @see ContentCenter#queryColumnar(java.lang.String, java.lang.String[], org.magiclen.content.database.ConditionInterface, int, int, org.magiclen.content.database.Order...)
+ */
+public class ColumnarResult {
+
+    // -----類別常數-----
+    /**
+     * 預設的初始容量。
+     */
+    private static final int DEFAULT_CAPACITY = 64;
+
+    // -----類別類別-----
+    /**
+     * 單一欄位的資料。
+     */
+    private static final class Column {
+
+        private ColumnType type;
+        private long[] longs;
+        private double[] doubles;
+        private String[] strings;
+        private long[] nulls;
+
+        /**
+         * 建構欄位。
+         *
+         * @param type 傳入欄位型態，null表示還不確定
+         * @param capacity 傳入初始容量
+         */
+        private Column(final ColumnType type, final int capacity) {
+            this.type = type;
+            nulls = new long[(capacity + 63) >>> 6];
+            if (type != null) {
+                allocate(capacity);
+            }
+        }
+
+        /**
+         * 配置目前型態的陣列。
+         *
+         * @param capacity 傳入容量
+         */
+        private void allocate(final int capacity) {
+            switch (type) {
+                case INTEGER:
+                    longs = new long[capacity];
+                    break;
+                case REAL:
+                    doubles = new double[capacity];
+                    break;
+                default:
+                    strings = new String[capacity];
+                    break;
+            }
+        }
+
+        /**
+         * 改變陣列的容量。
+         *
+         * @param capacity 傳入容量
+         */
+        private void resize(final int capacity) {
+            if (longs != null) {
+                longs = Arrays.copyOf(longs, capacity);
+            }
+            if (doubles != null) {
+                doubles = Arrays.copyOf(doubles, capacity);
+            }
+            if (strings != null) {
+                strings = Arrays.copyOf(strings, capacity);
+            }
+            nulls = Arrays.copyOf(nulls, (capacity + 63) >>> 6);
+        }
+
+        /**
+         * 將欄位改成新的型態，已經讀取的值會被轉換。
+         *
+         * @param newType 傳入新的型態
+         * @param size 傳入已經讀取的筆數
+         * @param capacity 傳入容量
+         */
+        private void convert(final ColumnType newType, final int size, final int capacity) {
+            final ColumnType oldType = type;
+            type = newType;
+            if (oldType == null) {
+                allocate(capacity);
+                return;
+            }
+            allocate(capacity);
+            for (int i = 0; i < size; ++i) {
+                if (isNull(i)) {
+                    continue;
+                }
+                if (newType == ColumnType.REAL) {
+                    doubles[i] = longs[i];
+                } else {
+                    strings[i] = oldType == ColumnType.INTEGER ? String.valueOf(longs[i]) : String.valueOf(doubles[i]);
+                }
+            }
+            if (oldType == ColumnType.INTEGER) {
+                longs = null;
+            } else {
+                doubles = null;
+            }
+        }
+
+        /**
+         * 判斷值是否為null。
+         *
+         * @param row 傳入第幾筆
+         * @return 傳回值是否為null
+         */
+        private boolean isNull(final int row) {
+            return (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        /**
+         * 將值設為null。
+         *
+         * @param row 傳入第幾筆
+         */
+        private void setNull(final int row) {
+            nulls[row >>> 6] |= 1L << row;
+        }
+    }
+
+    // -----物件常數-----
+    private final String[] columnNames;
+    private final Column[] columns;
+    private final int rowCount;
+
+    // -----類別方法-----
+    /**
+     * 將ResultSet的資料讀取成以欄為單位的查詢結果。
+     *
+     * @param result 傳入ResultSet
+     * @param tableName 傳入表單名稱
+     * @param capacity 傳入預估的筆數，小於等於零使用預設值，容量不足時會加倍
+     * @return 傳回查詢結果
+     * @throws Exception 拋出例外
+     */
+    static ColumnarResult read(final ResultSet result, final String tableName, final int capacity) throws Exception {
+        final ResultSetMetaData rsmd = result.getMetaData();
+        //盲索引欄位不會被讀取
+        final int columnCount = rsmd.getColumnCount();
+        final int[] positions = new int[columnCount];
+        int l = 0;
+        for (int i = 1; i <= columnCount; ++i) {
+            if (!ContentCenter.isBlindIndexColumn(tableName, rsmd.getColumnName(i))) {
+                positions[l++] = i;
+            }
+        }
+        int size = capacity > 0 ? capacity : DEFAULT_CAPACITY;
+        final String[] columnNames = new String[l];
+        final boolean[] hides = new boolean[l];
+        final boolean[] inferred = new boolean[l];
+        final Column[] columns = new Column[l];
+        for (int i = 0; i < l; ++i) {
+            columnNames[i] = rsmd.getColumnName(positions[i]);
+            hides[i] = ContentCenter.isHideColumn(tableName, columnNames[i]);
+            final ColumnType type;
+            if (hides[i]) {
+                type = ColumnType.TEXT;
+            } else {
+                switch (rsmd.getColumnType(positions[i])) {
+                    case Types.INTEGER:
+                    case Types.BIGINT:
+                    case Types.SMALLINT:
+                    case Types.TINYINT:
+                        type = ColumnType.INTEGER;
+                        break;
+                    case Types.FLOAT:
+                    case Types.REAL:
+                    case Types.DOUBLE:
+                    case Types.NUMERIC:
+                    case Types.DECIMAL:
+                        type = ColumnType.REAL;
+                        break;
+                    case Types.VARCHAR:
+                    case Types.CHAR:
+                    case Types.LONGVARCHAR:
+                        type = ColumnType.TEXT;
+                        break;
+                    default: //實作不完整的SQL程式可能會無法判定type，由第一個非null的值決定
+                        type = null;
+                        inferred[i] = true;
+                        break;
+                }
+            }
+            columns[i] = new Column(type, size);
+        }
+        int row = 0;
+        while (result.next()) {
+            if (row == size) {
+                size <<= 1;
+                for (final Column column : columns) {
+                    column.resize(size);
+                }
+            }
+            for (int i = 0; i < l; ++i) {
+                final Column column = columns[i];
+                final int index = positions[i];
+                if (column.type == null) {
+                    final Object o = result.getObject(index);
+                    if (o == null) {
+                        column.setNull(row);
+                        continue;
+                    }
+                    column.convert(o instanceof Long || o instanceof Integer ? ColumnType.INTEGER : (o instanceof Number ? ColumnType.REAL : ColumnType.TEXT), row, size);
+                }
+                switch (column.type) {
+                    case INTEGER: {
+                        if (!inferred[i]) {
+                            final long v = result.getLong(index);
+                            if (result.wasNull()) {
+                                column.setNull(row);
+                            } else {
+                                column.longs[row] = v;
+                            }
+                            break;
+                        }
+                        //無法判定type的欄位，之後的值仍可能是浮點數或字串
+                        final Object o = result.getObject(index);
+                        if (o == null) {
+                            column.setNull(row);
+                        } else if (o instanceof Long || o instanceof Integer) {
+                            column.longs[row] = ((Number) o).longValue();
+                        } else {
+                            column.convert(o instanceof Number ? ColumnType.REAL : ColumnType.TEXT, row, size);
+                            if (column.type == ColumnType.REAL) {
+                                column.doubles[row] = ((Number) o).doubleValue();
+                            } else {
+                                column.strings[row] = o.toString();
+                            }
+                        }
+                        break;
+                    }
+                    case REAL: {
+                        if (inferred[i]) {
+                            //無法判定type的欄位，之後的值仍可能是字串
+                            final Object o = result.getObject(index);
+                            if (o == null) {
+                                column.setNull(row);
+                            } else if (o instanceof Number) {
+                                column.doubles[row] = ((Number) o).doubleValue();
+                            } else {
+                                column.convert(ColumnType.TEXT, row, size);
+                                column.strings[row] = o.toString();
+                            }
+                            break;
+                        }
+                        final double v = result.getDouble(index);
+                        if (result.wasNull()) {
+                            column.setNull(row);
+                        } else {
+                            column.doubles[row] = v;
+                        }
+                        break;
+                    }
+                    default: {
+                        String s = result.getString(index);
+                        if (s == null) {
+                            column.setNull(row);
+                        } else {
+                            if (hides[i]) {
+                                s = ContentCenter.recoverHideString(s);
+                            }
+                            column.strings[row] = s;
+                        }
+                        break;
+                    }
+                }
+            }
+            ++row;
+        }
+        for (final Column column : columns) {
+            if (column.type == null) {
+                column.convert(ColumnType.TEXT, row, size);
+            }
+            column.resize(row);
+        }
+        return new ColumnarResult(columnNames, columns, row);
+    }
+
+    // -----建構子-----
+    /**
+     * 建構以欄為單位的查詢結果。
+     *
+     * @param columnNames 傳入欄位名稱
+     * @param columns 傳入欄位資料
+     * @param rowCount 傳入筆數
+     */
+    private ColumnarResult(final String[] columnNames, final Column[] columns, final int rowCount) {
+        this.columnNames = columnNames;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得筆數。
+     *
+     * @return 傳回筆數
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 取得欄位數量。
+     *
+     * @return 傳回欄位數量
+     */
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    /**
+     * 取得欄位名稱。
+     *
+     * @param columnIndex 傳入欄位位置，從0開始
+     * @return 傳回欄位名稱
+     */
+    public String getColumnName(final int columnIndex) {
+        return columnNames[columnIndex];
+    }
+
+    /**
+     * 取得欄位位置。
+     *
+     * @param columnName 傳入欄位名稱
+     * @return 傳回欄位位置，若為-1，表示沒有這個欄位
+     */
+    public int getColumnIndex(final String columnName) {
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (columnNames[i].equals(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 取得欄位型態。
+     *
+     * @param columnIndex 傳入欄位位置，從0開始
+     * @return 傳回欄位型態
+     */
+    public ColumnType getColumnType(final int columnIndex) {
+        return columns[columnIndex].type;
+    }
+
+    /**
+     * 取得INTEGER欄位的值，null值會是0。
+     *
+     * @param columnIndex 傳入欄位位置，從0開始
+     * @return 傳回欄位的值，若為null，表示欄位不是INTEGER型態
+     */
+    public long[] getLongs(final int columnIndex) {
+        return columns[columnIndex].longs;
+    }
+
+    /**
+     * 取得REAL欄位的值，null值會是0。
+     *
+     * @param columnIndex 傳入欄位位置，從0開始
+     * @return 傳回欄位的值，若為null，表示欄位不是REAL型態
+     */
+    public double[] getDoubles(final int columnIndex) {
+        return columns[columnIndex].doubles;
+    }
+
+    /**
+     * 取得TEXT欄位的值。
+     *
+     * @param columnIndex 傳入欄位位置，從0開始
+     * @return 傳回欄位的值，若為null，表示欄位不是TEXT型態
+     */
+    public String[] getStrings(final int columnIndex) {
+        return columns[columnIndex].strings;
+    }
+
+    /**
+     * 判斷值是否為null。
+     *
+     * @param columnIndex 傳入欄位位置，從0開始
+     * @param row 傳入第幾筆，從0開始
+     * @return 傳回值是否為null
+     */
+    public boolean isNull(final int columnIndex, final int row) {
+        return columns[columnIndex].isNull(row);
+    }
+}
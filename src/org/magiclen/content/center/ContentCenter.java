@@ -17,32 +17,59 @@
  */
 package org.magiclen.content.center;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.magiclen.content.center.listener.ContentCenterListener;
 import org.magiclen.content.center.listener.ContentCenterListener.EVENT;
 import org.magiclen.content.center.listener.ContentCenterListener.NOTIFY;
+import org.magiclen.content.center.listener.ProgressListener;
+import org.magiclen.content.database.Aggregate;
+import org.magiclen.content.database.AggregateType;
 import org.magiclen.content.database.ColumnMetadata;
 import org.magiclen.content.database.ColumnType;
 import org.magiclen.content.database.Condition;
 import org.magiclen.content.database.ConditionInterface;
 import org.magiclen.content.database.ConditionType;
+import org.magiclen.content.database.Conditions;
 import org.magiclen.content.database.ConflictType;
 import org.magiclen.content.database.ConstraintMetadata;
 import org.magiclen.content.database.ConstraintType;
+import org.magiclen.content.database.IndexMetadata;
+import org.magiclen.content.database.LogicType;
 import org.magiclen.content.database.Order;
 import org.magiclen.content.database.OrderType;
+import org.magiclen.content.database.Placeholder;
 import org.magiclen.content.database.TableMetadata;
 import org.magiclen.content.observer.Observer;
 import org.magiclen.content.sync.Sync;
@@ -73,11 +100,26 @@ public class ContentCenter {
      */
     public static boolean printStatement = false;
 
+    /**
+     * 是否要記錄ContentCenter各項操作的統計資料。
+     */
+    public static boolean recordMetrics = true;
+
+    /**
+     * 查詢結果很多時，是否要用多個執行緒平行還原隱藏欄位。
+     */
+    public static boolean parallelDecoding = true;
+
     // -----類別常數-----
     /**
-     * 作業系統。需要在編譯前更改這個常數的值。
+     * searchFullText方法的結果中，存放相關性分數(bm25)的欄位名稱。分數越小表示越相關。
+     */
+    public static final String FULL_TEXT_RANK = "fts_rank";
+
+    /**
+     * searchFullText方法的結果中，存放符合內容片段的欄位名稱。
      */
-    private static final OperatingSystems OS = OperatingSystems.ANDROID;
+    public static final String FULL_TEXT_SNIPPET = "fts_snippet";
 
     /**
      * 資料庫的預設編碼。
@@ -94,6 +136,11 @@ public class ContentCenter {
      */
     private static final String DB_DRIVER_PC = "org.sqlite.JDBC";
 
+    /**
+     * PC上使用的JDBC驅動中，線上備份進度監聽者的類別路徑。
+     */
+    private static final String DB_DRIVER_PC_PROGRESS_OBSERVER = "org.sqlite.core.DB$ProgressObserver";
+
     /**
      * Android上，資料庫檔案URL的前綴。
      */
@@ -119,6 +166,101 @@ public class ContentCenter {
      */
     private static final String DB_HIDE_COLUMN_COLUMN = "c_name";
 
+    /**
+     * 主資料庫的名稱，用來記錄不屬於特定表單的操作。
+     */
+    private static final String DB_MAIN_SCHEMA = "main";
+
+    /**
+     * 備份時來源資料庫的名稱。
+     */
+    private static final String DB_BACKUP_SOURCE = "magiclen_cc_backup_source";
+
+    /**
+     * 無法使用線上備份和VACUUM INTO時，備份每段複製的資料筆數。
+     */
+    private static final int DEFAULT_BACKUP_ROWS_PER_STEP = 1000;
+
+    /**
+     * 線上備份時預設每段複製的頁數。
+     */
+    private static final int DEFAULT_BACKUP_PAGES_PER_STEP = 100;
+
+    /**
+     * 線上備份時，來源資料庫被鎖定後等待的毫秒數。
+     */
+    private static final int BACKUP_BUSY_SLEEP_MILLIS = 100;
+
+    /**
+     * 線上備份時，來源資料庫被鎖定後最多重試的次數。
+     */
+    private static final int BACKUP_BUSY_RETRIES = 100;
+
+    /**
+     * 虛擬表單的影子表單(Shadow Table)名稱的後綴。
+     */
+    private static final String[] DB_SHADOW_TABLE_SUFFIXES = {"data", "idx", "content", "docsize", "config", "segments", "segdir", "stat", "node", "rowid", "parent"};
+
+    /**
+     * 匯入時預設每一批的資料筆數。
+     */
+    private static final int DEFAULT_IMPORT_ROWS_PER_BATCH = 1000;
+
+    /**
+     * 匯出時每隔多少筆資料通知一次進度。
+     */
+    private static final int DEFAULT_EXPORT_PROGRESS_ROWS = 1000;
+
+    /**
+     * 全文檢索表單名稱的後綴，全文檢索表單的名稱為表單名稱加上這個後綴。
+     */
+    private static final String DB_FULL_TEXT_SUFFIX = "_magiclen_fts";
+
+    /**
+     * 維護全文檢索表單的觸發器(Trigger)名稱前綴。
+     */
+    private static final String DB_FULL_TEXT_TRIGGER_PREFIX = "magiclen_cc_fts_";
+
+    /**
+     * 全文檢索結果中，內容片段預設的最大詞數。
+     */
+    private static final int DEFAULT_SNIPPET_TOKENS = 16;
+
+    /**
+     * 盲索引欄位的索引名稱前綴。
+     */
+    private static final String DB_BLIND_INDEX_PREFIX = "magiclen_cc_bi_";
+
+    /**
+     * 初始化階段：載入JDBC驅動。
+     */
+    private static final String STARTUP_PHASE_DRIVER = "driver";
+
+    /**
+     * 初始化階段：開啟資料庫連結。
+     */
+    private static final String STARTUP_PHASE_CONNECTION = "connection";
+
+    /**
+     * 初始化階段：執行PRAGMA和套用資料庫設定。
+     */
+    private static final String STARTUP_PHASE_PRAGMA = "pragma";
+
+    /**
+     * 初始化階段：建立或檢查必要表單。
+     */
+    private static final String STARTUP_PHASE_SCHEMA = "schema";
+
+    /**
+     * 初始化階段：通知AVAILABLE事件。
+     */
+    private static final String STARTUP_PHASE_AVAILABLE = "available";
+
+    /**
+     * 初始化花費的總時間。
+     */
+    private static final String STARTUP_PHASE_TOTAL = "total";
+
     /**
      * 同步的表單名稱。
      */
@@ -149,16 +291,116 @@ public class ContentCenter {
      */
     private static final String DB_SETTING_VALUE = "v";
 
+    /**
+     * 暫存鍵值表單的名稱前綴。
+     */
+    private static final String DB_TEMPORARY_KEYS_PREFIX = "magiclen_cc_keys_";
+
+    /**
+     * 暫存鍵值表單的欄位名稱。
+     */
+    private static final String DB_TEMPORARY_KEYS_COLUMN = "k";
+
+    /**
+     * IN和NOT IN條件的值超過這個數量時，會改用暫存表單來比較。
+     */
+    private static final int IN_SPILL_THRESHOLD = 500;
+
+    /**
+     * 用來產生暫存鍵值表單名稱的計數器。
+     */
+    private static final AtomicInteger temporaryTableCounter = new AtomicInteger();
+
+    /**
+     * 儲存點(Savepoint)名稱的前綴。
+     */
+    private static final String DB_SAVEPOINT_PREFIX = "magiclen_cc_sp_";
+
+    /**
+     * 用來產生儲存點名稱的計數器。
+     */
+    private static final AtomicInteger savepointCounter = new AtomicInteger();
+
+    /**
+     * 支援UPSERT(INSERT ... ON CONFLICT DO UPDATE)的最低SQLite版本。
+     */
+    private static final int[] UPSERT_MIN_VERSION = {3, 24, 0};
+
+    /**
+     * 支援列值(Row Value)比較的最低SQLite版本。
+     */
+    private static final int[] ROW_VALUE_MIN_VERSION = {3, 15, 0};
+
+    /**
+     * 支援VACUUM INTO的最低SQLite版本。
+     */
+    private static final int[] VACUUM_INTO_MIN_VERSION = {3, 27, 0};
+
+    /**
+     * 鍵集分頁時，存放資料列rowid的欄位別名。
+     */
+    private static final String DB_PAGE_ROWID_COLUMN = "magiclen_cc_rowid";
+
+    /**
+     * 資料庫使用的SQLite版本。
+     */
+    private static String sqliteVersion = null;
+
+    /**
+     * 資料庫是否支援UPSERT。
+     */
+    private static boolean upsertSupported = false;
+
+    /**
+     * 資料庫是否支援列值(Row Value)比較。
+     */
+    private static boolean rowValueSupported = false;
+
+    /**
+     * 資料庫實際生效的設定。
+     */
+    private static DatabaseConfiguration effectiveConfiguration = null;
+
+    /**
+     * 是否啟用背景的漸進式資料庫空間整理。
+     */
+    private static volatile boolean incrementalVacuum = true;
+
+    /**
+     * 背景整理資料庫空間時，空頁數量的門檻。
+     */
+    private static volatile long incrementalVacuumThreshold = 256;
+
+    /**
+     * 背景整理資料庫空間時，每次最多整理的頁數。
+     */
+    private static volatile int incrementalVacuumPages = 64;
+
     /**
      * 儲存需要隱藏資料的欄位。
      */
-    private static final HashSet<String> hsHideColumn = new HashSet<>();
+    private static final Set<String> hsHideColumn = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * 儲存已經讀取過隱藏欄位的表單。
+     */
+    private static final Set<String> hsHideColumnLoadedTable = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
 
     /**
      * 預設的計時器間隔時間。
      */
     private static final long DEFAULT_PERIOD = 600;
 
+    /**
+     * 資料庫閒置多久之後(毫秒)，才會執行背景維護工作。
+     */
+    private static final long IDLE_TIME = 5000;
+
+    /**
+     * 自動建立索引時，查詢形狀最少要出現的次數。
+     */
+    private static final long DEFAULT_ADVICE_OCCURRENCES = 100;
+
     /**
      * 自動同步的專用執行緒。
      */
@@ -200,7 +442,10 @@ public class ContentCenter {
                                             event = EVENT.DELETE;
                                             break;
                                     }
-                                    if (callBack(event, NOTIFY.SYNC, jsonSync)) { //同步成功
+                                    final long syncStartTime = System.nanoTime();
+                                    final boolean synced = callBack(event, NOTIFY.SYNC, jsonSync);
+                                    MetricsCenter.record(OperationType.SYNC, jsonSync.optString(JSONStringInterface.JSON_TABLE_NAME, DB_SYNC), 1, syncStartTime, synced);
+                                    if (synced) { //同步成功
                                         final long id = jsonSyncTuple.getLong(DB_SYNC_DB_ID);
                                         final Condition c = new Condition();
                                         c.setCondition(DB_SYNC_DB_ID, id, ConditionType.EQUAL);
@@ -213,15 +458,24 @@ public class ContentCenter {
                         }
 
                         //Server端資料同步到Client
-                        callBack(EVENT.REMOTESYNC, NOTIFY.SYNC, null);
+                        final long remoteSyncStartTime = System.nanoTime();
+                        final boolean remoteSynced = callBack(EVENT.REMOTESYNC, NOTIFY.SYNC, null);
+                        MetricsCenter.record(OperationType.SYNC, DB_SYNC, 0, remoteSyncStartTime, remoteSynced);
+                    }
+
+                    //閒置時的背景維護工作
+                    if (autoCommit && MetricsCenter.isIdle(IDLE_TIME)) {
+                        runIdleTasks();
                     }
                 } catch (final JSONException ex) {
-                    Printer.err("syncThread: periodic sync ran exception, ".concat(ex.getMessage()));
+                    Printer.err("syncThread: periodic sync ran exception, ", ex.getMessage());
                 }
                 try {
                     Thread.sleep(DEFAULT_PERIOD); //睡覺
                 } catch (final InterruptedException ex) {
-                    Printer.err("syncThread: periodic sync cannot sleep for delay, ".concat(ex.getMessage()));
+                    if (available) {
+                        Printer.err("syncThread: periodic sync cannot sleep for delay, ", ex.getMessage());
+                    }
                 }
             }
         }
@@ -289,6 +543,16 @@ public class ContentCenter {
          * UPDATE CONDITION欄位為更新的條件。
          */
         public static final String JSON_UPDATE_CONDITION = "condition";
+
+        /**
+         * UPDATE KEY COLUMN欄位為批次更新時用來找出資料的Key欄位。
+         */
+        public static final String JSON_UPDATE_KEY_COLUMN = "key_column";
+
+        /**
+         * UPDATE ROWS欄位為批次更新的每筆資料內容，內容型態為JSONArray。
+         */
+        public static final String JSON_UPDATE_ROWS = "rows";
     }
 
     /**
@@ -300,11 +564,172 @@ public class ContentCenter {
          * DELETE CONDITION欄位為刪除的條件。
          */
         public static final String JSON_DELETE_CONDITION = "condition";
+
+        /**
+         * DELETE KEY COLUMN欄位為批次刪除時用來找出資料的Key欄位。
+         */
+        public static final String JSON_DELETE_KEY_COLUMN = "key_column";
+
+        /**
+         * DELETE KEYS欄位為批次刪除的Key值，內容型態為JSONArray。
+         */
+        public static final String JSON_DELETE_KEYS = "keys";
+    }
+
+    // -----類別類別-----
+    /**
+     * 使用暫存表單中的值做IN或NOT IN比較的條件。
+     */
+    private static final class TemporaryKeysCondition implements ConditionInterface {
+
+        private final String columnName;
+        private final boolean not;
+        private final String temporaryTable;
+
+        /**
+         * 建構條件。
+         *
+         * @param columnName 傳入要檢查的欄位名稱
+         * @param not 傳入是否為NOT IN
+         * @param temporaryTable 傳入存放值的暫存表單名稱
+         */
+        private TemporaryKeysCondition(final String columnName, final boolean not, final String temporaryTable) {
+            this.columnName = columnName;
+            this.not = not;
+            this.temporaryTable = temporaryTable;
+        }
+
+        /**
+         * 取得條件式。
+         *
+         * @param rightValues 暫存右邊的值使用的LinkedList
+         * @return 傳回條件式字串
+         */
+        @Override
+        public String toConditionString(final LinkedList<Object> rightValues) {
+            final StringBuilder sb = new StringBuilder("`");
+            sb.append(columnName).append("`");
+            if (not) {
+                sb.append(" NOT");
+            }
+            sb.append(" IN (SELECT `").append(DB_TEMPORARY_KEYS_COLUMN).append("` FROM temp.`").append(temporaryTable).append("`)");
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 計算寫出的位元組數量的串流。
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        /**
+         * 建構計算寫出位元組數量的串流。
+         *
+         * @param out 傳入要計算的串流
+         */
+        private CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            ++count;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * 使用列值(Row Value)比較多個欄位的條件，例如(`a`,`b`) &gt; (?,?)，SQLite可以直接用索引找到開始的位置。
+     */
+    private static final class RowValueCondition implements ConditionInterface {
+
+        private final String[] columnNames;
+        private final Object[] values;
+        private final boolean smaller;
+
+        /**
+         * 建構條件。
+         *
+         * @param columnNames 傳入要比較的欄位名稱
+         * @param values 傳入要比較的值
+         * @param smaller 傳入是否為小於，否則為大於
+         */
+        private RowValueCondition(final String[] columnNames, final Object[] values, final boolean smaller) {
+            this.columnNames = columnNames;
+            this.values = values;
+            this.smaller = smaller;
+        }
+
+        /**
+         * 取得條件式。
+         *
+         * @param rightValues 暫存右邊的值使用的LinkedList
+         * @return 傳回條件式字串
+         */
+        @Override
+        public String toConditionString(final LinkedList<Object> rightValues) {
+            final StringBuilder sb = new StringBuilder("(");
+            final StringBuilder sbValues = new StringBuilder("(");
+            for (int i = 0; i < columnNames.length; ++i) {
+                if (i != 0) {
+                    sb.append(",");
+                    sbValues.append(",");
+                }
+                sb.append("`").append(columnNames[i]).append("`");
+                sbValues.append("?");
+                rightValues.add(values[i]);
+            }
+            sb.append(smaller ? ") < " : ") > ").append(sbValues).append(")");
+            return sb.toString();
+        }
+    }
+
+    /**
+     * 使用全文檢索表單做MATCH比較的條件。
+     */
+    private static final class FullTextCondition implements ConditionInterface {
+
+        private final String fullTextTable;
+        private final String columnName;
+        private final Object query;
+
+        /**
+         * 建構條件。
+         *
+         * @param fullTextTable 傳入全文檢索表單名稱
+         * @param columnName 傳入要檢索的欄位名稱，若為全文檢索表單名稱，則檢索所有欄位
+         * @param query 傳入FTS5的查詢字串
+         */
+        private FullTextCondition(final String fullTextTable, final String columnName, final Object query) {
+            this.fullTextTable = fullTextTable;
+            this.columnName = columnName;
+            this.query = query;
+        }
+
+        /**
+         * 取得條件式。
+         *
+         * @param rightValues 暫存右邊的值使用的LinkedList
+         * @return 傳回條件式字串
+         */
+        @Override
+        public String toConditionString(final LinkedList<Object> rightValues) {
+            rightValues.add(query);
+            return "rowid IN (SELECT rowid FROM `" + fullTextTable + "` WHERE `" + columnName + "` MATCH ?)";
+        }
     }
 
     // -----類別列舉-----
     /**
-     * 作業系統，分為PC和ANDROID，PC可以享用ContentCenter的所有功能，ANDROID只能使用AutoCommit來操作資料庫並無法過濾掉無效的更新。
+     * 作業系統，分為PC和ANDROID，在初始化時依照可用的JDBC驅動決定。PC可以享用ContentCenter的所有功能，ANDROID只能使用AutoCommit來操作資料庫並無法過濾掉無效的更新。
      */
     private static enum OperatingSystems {
 
@@ -312,6 +737,11 @@ public class ContentCenter {
     }
 
     // -----類別變數-----
+    /**
+     * 作業系統。在初始化ContentCenter時，依照執行環境和可用的JDBC驅動偵測。
+     */
+    private static OperatingSystems OS = null;
+
     /**
      * 儲存ContentCenter是否可用。
      */
@@ -332,6 +762,11 @@ public class ContentCenter {
      */
     private static String hideKey = "";
 
+    /**
+     * 計算盲索引的物件，由隱藏欄位的密鑰產生。
+     */
+    private static BlindIndex blindIndex;
+
     /**
      * 是否使用autoCommit。
      */
@@ -362,6 +797,26 @@ public class ContentCenter {
      */
     private static boolean run = false;
 
+    /**
+     * 是否在閒置時自動建立建議的索引。
+     */
+    private static volatile boolean autoIndexing = false;
+
+    /**
+     * 是否已經讀取所有表單的隱藏欄位。
+     */
+    private static volatile boolean hideColumnLoaded = false;
+
+    /**
+     * 自動同步和背景維護工作的執行緒。
+     */
+    private static Thread backgroundThread;
+
+    /**
+     * 上一次初始化時，各個階段花費的時間。
+     */
+    private static JSONObject startupProfile;
+
     // -----類別方法-----
     /**
      * 設定Printer。
@@ -524,7 +979,7 @@ public class ContentCenter {
         try {
             return SyncCenter.notifySyncToServer(syncID, json);
         } catch (final Exception ex) {
-            Printer.err("notifySyncToServer: exception, ".concat(ex.getMessage()));
+            Printer.err("notifySyncToServer: exception, ", ex.getMessage());
             return false;
         }
     }
@@ -570,68 +1025,265 @@ public class ContentCenter {
         try {
             return ObserverCenter.notifyObserver(observerID);
         } catch (final Exception ex) {
-            Printer.err("notifyObserver: exception, ".concat(ex.getMessage()));
+            Printer.err("notifyObserver: exception, ", ex.getMessage());
             return false;
         }
     }
 
     /**
-     * 檢查ContentCenter是否使用AutoCommit。
+     * 取得所有表單各項操作的統計資料快照。
      *
-     * @return 傳回ContentCenter是否使用AutoCommit。
+     * @return 傳回統計資料快照
      */
-    public static boolean isAutoCommit() {
-        return autoCommit;
+    public static OperationMetrics[] getMetrics() {
+        return MetricsCenter.snapshot();
     }
 
     /**
-     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
+     * 取得指定表單各項操作的統計資料快照。
      *
-     * @param dbFile 傳入DB檔案路徑
-     * @param listener 傳入ContentCenter監聽物件
-     * @param hideKey 傳入隱藏欄位時用的密鑰
-     * @return 傳回ContentCenter使否初始化成功。
+     * @param tableName 傳入表單名稱
+     * @return 傳回統計資料快照
      */
-    public static boolean initialContentCenter(final String dbFile, final ContentCenterListener listener, final String hideKey) {
-        return initialContentCenter(new File(dbFile), listener, hideKey);
+    public static OperationMetrics[] getMetrics(final String tableName) {
+        return MetricsCenter.snapshot(tableName);
     }
 
     /**
-     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
-     *
-     * @param dbFile 傳入DB檔案路徑
-     * @param listener 傳入ContentCenter監聽物件
-     * @return 傳回ContentCenter使否初始化成功。
+     * 清除所有的統計資料。
      */
-    public static boolean initialContentCenter(final String dbFile, final ContentCenterListener listener) {
-        return initialContentCenter(dbFile, listener, hideKey);
+    public static void resetMetrics() {
+        MetricsCenter.reset();
     }
 
     /**
-     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
+     * 設定慢查詢的門檻，執行時間超過門檻的查詢、計數、更新和刪除操作會連同查詢計畫一起被記錄下來。
      *
-     * @param dbFile 傳入DB檔案
-     * @param listener 傳入ContentCenter監聽物件
-     * @return 傳回ContentCenter使否初始化成功。
+     * @param threshold 傳入門檻(毫秒)，小於等於0表示不記錄
      */
-    public static boolean initialContentCenter(final File dbFile, final ContentCenterListener listener) {
-        return initialContentCenter(dbFile, listener, hideKey);
+    public static void setSlowQueryThreshold(final long threshold) {
+        SlowQueryCenter.setThresholdNanos(threshold > 0 ? threshold * 1000000 : 0);
     }
 
     /**
-     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
+     * 取得慢查詢的門檻。
      *
-     * @param dbFile 傳入DB檔案
-     * @param listener 傳入ContentCenter監聽物件
-     * @param hideKey 傳入隱藏欄位時用的密鑰
-     * @return 傳回ContentCenter使否初始化成功。
+     * @return 傳回門檻(毫秒)，0表示不記錄
      */
-    public static boolean initialContentCenter(final File dbFile, final ContentCenterListener listener, final String hideKey) {
+    public static long getSlowQueryThreshold() {
+        return SlowQueryCenter.getThresholdNanos() / 1000000;
+    }
+
+    /**
+     * 設定最多可以保留幾筆慢查詢紀錄，會清除目前的紀錄。
+     *
+     * @param capacity 傳入紀錄數量，必須要大於等於1
+     * @return 傳回是否設定成功
+     */
+    public static boolean setSlowQueryCapacity(final int capacity) {
+        if (!SlowQueryCenter.setCapacity(capacity)) {
+            Printer.err("setSlowQueryCapacity: capacity cannot be less than 1");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 取得最近的慢查詢紀錄。
+     *
+     * @return 傳回慢查詢紀錄，由舊到新排列
+     */
+    public static SlowQuery[] getSlowQueries() {
+        return SlowQueryCenter.getSlowQueries();
+    }
+
+    /**
+     * 清除所有的慢查詢紀錄。
+     */
+    public static void clearSlowQueries() {
+        SlowQueryCenter.clear();
+    }
+
+    /**
+     * 根據實際執行過的查詢，取得可以將全表掃描變成索引查找的索引建議。
+     *
+     * @return 傳回索引建議，依照可節省的執行時間由多到少排列；若為null，表示無法取得
+     */
+    public static IndexAdvice[] adviseIndexes() {
+        return adviseIndexes(DEFAULT_ADVICE_OCCURRENCES);
+    }
+
+    /**
+     * 根據實際執行過的查詢，取得可以將全表掃描變成索引查找的索引建議。已經有索引以相同欄位開頭的建議會被排除。
+     *
+     * @param minOccurrences 傳入查詢形狀最少要出現的次數
+     * @return 傳回索引建議，依照可節省的執行時間由多到少排列；若為null，表示無法取得
+     */
+    public static IndexAdvice[] adviseIndexes(final long minOccurrences) {
+        if (!available) {
+            Printer.err("adviseIndexes: not available");
+            return null;
+        }
+        try {
+            final ArrayList<IndexAdvice> candidates = IndexAdvisorCenter.getCandidates(minOccurrences);
+            final ArrayList<IndexAdvice> advices = new ArrayList<>();
+            final HashMap<String, Set<String>> hmIndexed = new HashMap<>();
+            for (final IndexAdvice candidate : candidates) {
+                final String tableName = candidate.getTableName();
+                Set<String> indexed = hmIndexed.get(tableName);
+                if (indexed == null) {
+                    indexed = getIndexedColumns(tableName);
+                    hmIndexed.put(tableName, indexed);
+                }
+                if (indexed.isEmpty() && !hasTable(tableName)) {
+                    continue;
+                }
+                final ArrayList<String> columnNames = new ArrayList<>();
+                for (final String columnName : candidate.getColumnNames()) {
+                    if (isHideColumn(tableName, columnName)) {
+                        break;
+                    }
+                    columnNames.add(columnName);
+                }
+                if (columnNames.isEmpty() || indexed.contains(columnNames.get(0))) {
+                    continue;
+                }
+                advices.add(new IndexAdvice(tableName, columnNames.toArray(new String[columnNames.size()]), candidate.getOccurrences(), candidate.getTotalNanos()));
+            }
+            return advices.toArray(new IndexAdvice[advices.size()]);
+        } catch (final Exception ex) {
+            Printer.err("adviseIndexes: cannot advise, ", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 依照索引建議建立索引。
+     *
+     * @param advice 傳入索引建議
+     * @return 傳回索引是否建立成功
+     */
+    public static boolean applyIndexAdvice(final IndexAdvice advice) {
+        if (advice == null) {
+            Printer.err("applyIndexAdvice: advice is null");
+            return false;
+        }
+        final boolean created = createIndex(advice.getTableName(), advice.getIndexName(), advice.getColumnNames());
+        IndexAdvisorCenter.remove(advice.getTableName(), advice.getColumnNames());
+        return created;
+    }
+
+    /**
+     * 設定是否在資料庫閒置時，自動依照索引建議建立索引。
+     *
+     * @param autoIndexing 傳入是否自動建立索引
+     */
+    public static void setAutoIndexing(final boolean autoIndexing) {
+        ContentCenter.autoIndexing = autoIndexing;
+    }
+
+    /**
+     * 檢查是否在資料庫閒置時，自動依照索引建議建立索引。
+     *
+     * @return 傳回是否自動建立索引
+     */
+    public static boolean isAutoIndexing() {
+        return autoIndexing;
+    }
+
+    /**
+     * 清除索引建議使用的查詢紀錄。
+     */
+    public static void resetIndexAdvisor() {
+        IndexAdvisorCenter.reset();
+    }
+
+    /**
+     * 檢查ContentCenter是否使用AutoCommit。
+     *
+     * @return 傳回ContentCenter是否使用AutoCommit。
+     */
+    public static boolean isAutoCommit() {
+        return autoCommit;
+    }
+
+    /**
+     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
+     *
+     * @param dbFile 傳入DB檔案路徑
+     * @param listener 傳入ContentCenter監聽物件
+     * @param hideKey 傳入隱藏欄位時用的密鑰
+     * @return 傳回ContentCenter使否初始化成功。
+     */
+    public static boolean initialContentCenter(final String dbFile, final ContentCenterListener listener, final String hideKey) {
+        return initialContentCenter(new File(dbFile), listener, hideKey);
+    }
+
+    /**
+     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
+     *
+     * @param dbFile 傳入DB檔案路徑
+     * @param listener 傳入ContentCenter監聽物件
+     * @return 傳回ContentCenter使否初始化成功。
+     */
+    public static boolean initialContentCenter(final String dbFile, final ContentCenterListener listener) {
+        return initialContentCenter(dbFile, listener, hideKey);
+    }
+
+    /**
+     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
+     *
+     * @param dbFile 傳入DB檔案
+     * @param listener 傳入ContentCenter監聽物件
+     * @return 傳回ContentCenter使否初始化成功。
+     */
+    public static boolean initialContentCenter(final File dbFile, final ContentCenterListener listener) {
+        return initialContentCenter(dbFile, listener, hideKey);
+    }
+
+    /**
+     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
+     *
+     * @param dbFile 傳入DB檔案
+     * @param listener 傳入ContentCenter監聽物件
+     * @param hideKey 傳入隱藏欄位時用的密鑰
+     * @return 傳回ContentCenter使否初始化成功。
+     */
+    public static boolean initialContentCenter(final File dbFile, final ContentCenterListener listener, final String hideKey) {
+        return initialContentCenter(dbFile, listener, hideKey, null);
+    }
+
+    /**
+     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。
+     *
+     * @param dbFile 傳入DB檔案路徑
+     * @param listener 傳入ContentCenter監聽物件
+     * @param hideKey 傳入隱藏欄位時用的密鑰
+     * @param configuration 傳入資料庫設定，null表示使用SQLite的預設值
+     * @return 傳回ContentCenter使否初始化成功。
+     */
+    public static boolean initialContentCenter(final String dbFile, final ContentCenterListener listener, final String hideKey, final DatabaseConfiguration configuration) {
+        return initialContentCenter(new File(dbFile), listener, hideKey, configuration);
+    }
+
+    /**
+     * 初始化ContentCenter，在監聽物件的INITIAL事件中可以建立資料庫一開始的表單，AVAILABLE事件中可以檢查資料庫的狀態是否正確。資料庫設定會在建立表單前套用，實際生效的設定可以用getDatabaseConfiguration方法取得。
+     *
+     * @param dbFile 傳入DB檔案
+     * @param listener 傳入ContentCenter監聽物件
+     * @param hideKey 傳入隱藏欄位時用的密鑰
+     * @param configuration 傳入資料庫設定，null表示使用SQLite的預設值
+     * @return 傳回ContentCenter使否初始化成功。
+     */
+    public static boolean initialContentCenter(final File dbFile, final ContentCenterListener listener, final String hideKey, final DatabaseConfiguration configuration) {
         if (available) {
             Printer.err("initialContentCenter: already available");
             return false;
         }
         available = true;
+        final long startTime = System.nanoTime();
+        final JSONObject profile = new JSONObject();
+        long phaseTime = startTime;
         boolean newTable = false;
         if (dbFile == null || listener == null || hideKey == null) {
             available = false;
@@ -643,7 +1295,7 @@ public class ContentCenter {
                 newTable = true;
             } catch (final IOException ex) {
                 available = false;
-                Printer.err("initialContentCenter: can't create new database file, ".concat(ex.getMessage()));
+                Printer.err("initialContentCenter: can't create new database file, ", ex.getMessage());
                 return false;
             }
         } else if (!dbFile.canWrite()) {
@@ -657,19 +1309,45 @@ public class ContentCenter {
         ContentCenter.hideKey = hideKey;
         // 建立或是開啟資料庫
         try {
+            blindIndex = new BlindIndex(hideKey);
+            OS = detectOperatingSystem();
+            if (OS == null) {
+                available = false;
+                Printer.err("initialContentCenter: can't find any SQLite JDBC driver");
+                return false;
+            }
             final String db = getDBURL(dbFile);
             final String driver = getDBDriver();
             Class.forName(driver);
+            Printer.print("driver: ", driver);
+            phaseTime = markStartupPhase(profile, STARTUP_PHASE_DRIVER, phaseTime);
             conn = DriverManager.getConnection(db);
             conn.setAutoCommit(OS == OperatingSystems.ANDROID || autoCommit);
+            phaseTime = markStartupPhase(profile, STARTUP_PHASE_CONNECTION, phaseTime);
             try (PreparedStatement stat = conn.prepareStatement("PRAGMA encoding =\"" + DB_DEFAULT_ENCODING + "\"")) {
                 stat.execute();
             }
-            if (callBack(EVENT.INITIAL_PRAGMA, null, new JSONObject("{\"auto_vacuum\":1}"))) {
-                try (PreparedStatement stat = conn.prepareStatement("PRAGMA auto_vacuum = 1")) {
-                    stat.execute();
+            try (PreparedStatement stat = conn.prepareStatement("SELECT sqlite_version()")) {
+                try (ResultSet result = stat.executeQuery()) {
+                    sqliteVersion = result.next() ? result.getString(1) : null;
                 }
             }
+            upsertSupported = isVersionAtLeast(sqliteVersion, UPSERT_MIN_VERSION);
+            rowValueSupported = isVersionAtLeast(sqliteVersion, ROW_VALUE_MIN_VERSION);
+            if (configuration != null && configuration.getPageSize() != null) {
+                executePragma("page_size", configuration.getPageSize().toString());
+            }
+            final DatabaseConfiguration.AutoVacuum autoVacuum = configuration == null || configuration.getAutoVacuum() == null ? DatabaseConfiguration.AutoVacuum.INCREMENTAL : configuration.getAutoVacuum();
+            if (callBack(EVENT.INITIAL_PRAGMA, null, new JSONObject("{\"auto_vacuum\":" + autoVacuum.ordinal() + "}"))) {
+                executePragma("auto_vacuum", String.valueOf(autoVacuum.ordinal()));
+            }
+            effectiveConfiguration = applyConfiguration(configuration);
+            phaseTime = markStartupPhase(profile, STARTUP_PHASE_PRAGMA, phaseTime);
+            //隱藏欄位在每個表單第一次使用時才讀取，新的資料庫沒有任何隱藏欄位
+            hsHideColumn.clear();
+            hsHideColumnLoadedTable.clear();
+            SchemaCenter.reset();
+            hideColumnLoaded = newTable;
             //檢查資料庫檔案順便插入必要表單
             if (newTable) {
                 final TableMetadata table_hide = new TableMetadata();
@@ -693,20 +1371,14 @@ public class ContentCenter {
                 if (!callBack(EVENT.INITIAL, null, null)) {
                     throw new Exception("listener got a false return when initial");
                 }
-            } else {
-                final JSONArray array = query(DB_HIDE_COLUMN);
-                if (array == null) {
-                    throw new Exception("db is crash");
-                }
-                final int l = array.length();
-                for (int i = 0; i < l; ++i) {
-                    final JSONObject json = array.getJSONObject(i);
-                    hsHideColumn.add(getAbsolutePath(json.getString(DB_HIDE_COLUMN_TABLE), json.getString(DB_HIDE_COLUMN_COLUMN)));
-                }
+            } else if (!hasTable(DB_HIDE_COLUMN)) {
+                throw new Exception("db is crash");
             }
+            phaseTime = markStartupPhase(profile, STARTUP_PHASE_SCHEMA, phaseTime);
             if (!callBack(EVENT.AVAILABLE, null, null)) {
                 throw new Exception("listener got a false return when available");
             }
+            phaseTime = markStartupPhase(profile, STARTUP_PHASE_AVAILABLE, phaseTime);
         } catch (final Exception ex) {
             available = false;
             try {
@@ -714,23 +1386,166 @@ public class ContentCenter {
             } catch (final Exception exx) {
 
             }
-            Printer.err("initialContentCenter: can't create database, ".concat(ex.getMessage()));
+            Printer.err("initialContentCenter: can't create database, ", ex.getMessage());
             try {
                 final JSONObject exceptionObject = new JSONObject();
                 exceptionObject.put("message", ex.getMessage());
                 if (!callBack(EVENT.INITIAL_FAIL, null, exceptionObject)) {
                     dbFile.delete();
                     ContentCenter.dbFileJournal.delete();
+                    //使用WAL模式時，還會有-wal和-shm檔案
+                    new File(dbFile.getAbsolutePath().concat("-wal")).delete();
+                    new File(dbFile.getAbsolutePath().concat("-shm")).delete();
                 }
             } catch (final Exception exxx) {
 
             }
             return false;
         }
-        new Thread(syncThread).start();
+        //背景執行緒的維護工作會在閒置一段時間後才開始，不會和第一個請求搶用資料庫
+        MetricsCenter.markActivity();
+        backgroundThread = new Thread(syncThread);
+        backgroundThread.start();
+        markStartupPhase(profile, STARTUP_PHASE_TOTAL, startTime);
+        startupProfile = profile;
+        Printer.print("startup: ", profile.toString());
         return true;
     }
 
+    /**
+     * 取得ContentCenter上一次初始化時，各個階段花費的時間(奈秒)。包含driver、connection、pragma、schema、available和total。
+     *
+     * @return 傳回各個階段花費的時間，若為null，表示ContentCenter還沒有初始化成功過
+     */
+    public static JSONObject getStartupProfile() {
+        return startupProfile == null ? null : new JSONObject(startupProfile.toString());
+    }
+
+    /**
+     * 記錄初始化時一個階段花費的時間。
+     *
+     * @param profile 傳入儲存時間的JSON物件
+     * @param phase 傳入階段名稱
+     * @param phaseStartTime 傳入階段開始時，System.nanoTime()的值
+     * @return 傳回階段結束時，System.nanoTime()的值
+     */
+    private static long markStartupPhase(final JSONObject profile, final String phase, final long phaseStartTime) {
+        final long now = System.nanoTime();
+        profile.put(phase, now - phaseStartTime);
+        return now;
+    }
+
+    /**
+     * 取得資料庫實際生效的設定。
+     *
+     * @return 傳回資料庫實際生效的設定，若為null，表示ContentCenter尚未初始化
+     */
+    public static DatabaseConfiguration getDatabaseConfiguration() {
+        return effectiveConfiguration;
+    }
+
+    /**
+     * 套用資料庫設定，並讀取實際生效的設定。要求的設定若沒有生效，會輸出錯誤訊息。
+     *
+     * @param configuration 傳入資料庫設定，null表示只讀取目前的設定
+     * @return 傳回實際生效的設定
+     * @throws Exception 拋出例外
+     */
+    private static DatabaseConfiguration applyConfiguration(final DatabaseConfiguration configuration) throws Exception {
+        final DatabaseConfiguration requested = configuration == null ? new DatabaseConfiguration() : configuration;
+        final DatabaseConfiguration effective = new DatabaseConfiguration();
+
+        final DatabaseConfiguration.JournalMode journalMode = requested.getJournalMode();
+        final String journalModeValue = executePragma("journal_mode", journalMode == null ? null : journalMode.toString());
+        if (journalModeValue != null) {
+            effective.setJournalMode(DatabaseConfiguration.JournalMode.valueOf(journalModeValue.toUpperCase(Locale.ENGLISH)));
+        }
+
+        final DatabaseConfiguration.Synchronous synchronous = requested.getSynchronous();
+        final String synchronousValue = executePragma("synchronous", synchronous == null ? null : String.valueOf(synchronous.ordinal()));
+        if (synchronousValue != null) {
+            effective.setSynchronous(DatabaseConfiguration.Synchronous.values()[Integer.parseInt(synchronousValue)]);
+        }
+
+        final String autoVacuumValue = executePragma("auto_vacuum", null);
+        if (autoVacuumValue != null) {
+            effective.setAutoVacuum(DatabaseConfiguration.AutoVacuum.values()[Integer.parseInt(autoVacuumValue)]);
+        }
+
+        final DatabaseConfiguration.TempStore tempStore = requested.getTempStore();
+        final String tempStoreValue = executePragma("temp_store", tempStore == null ? null : String.valueOf(tempStore.ordinal()));
+        if (tempStoreValue != null) {
+            effective.setTempStore(DatabaseConfiguration.TempStore.values()[Integer.parseInt(tempStoreValue)]);
+        }
+
+        final Integer cacheSize = requested.getCacheSize();
+        final String cacheSizeValue = executePragma("cache_size", cacheSize == null ? null : cacheSize.toString());
+        if (cacheSizeValue != null) {
+            effective.setCacheSize(Integer.parseInt(cacheSizeValue));
+        }
+
+        final Long mmapSize = requested.getMmapSize();
+        final String mmapSizeValue = executePragma("mmap_size", mmapSize == null ? null : mmapSize.toString());
+        if (mmapSizeValue != null) {
+            effective.setMmapSize(Long.parseLong(mmapSizeValue));
+        }
+
+        final String pageSizeValue = executePragma("page_size", null);
+        if (pageSizeValue != null) {
+            effective.setPageSize(Integer.parseInt(pageSizeValue));
+        }
+
+        final Integer busyTimeout = requested.getBusyTimeout();
+        final String busyTimeoutValue = executePragma("busy_timeout", busyTimeout == null ? null : busyTimeout.toString());
+        if (busyTimeoutValue != null) {
+            effective.setBusyTimeout(Integer.parseInt(busyTimeoutValue));
+        }
+
+        checkConfiguration("journal_mode", requested.getJournalMode(), effective.getJournalMode());
+        checkConfiguration("synchronous", requested.getSynchronous(), effective.getSynchronous());
+        checkConfiguration("auto_vacuum", requested.getAutoVacuum(), effective.getAutoVacuum());
+        checkConfiguration("temp_store", requested.getTempStore(), effective.getTempStore());
+        checkConfiguration("cache_size", requested.getCacheSize(), effective.getCacheSize());
+        checkConfiguration("mmap_size", requested.getMmapSize(), effective.getMmapSize());
+        checkConfiguration("page_size", requested.getPageSize(), effective.getPageSize());
+        checkConfiguration("busy_timeout", requested.getBusyTimeout(), effective.getBusyTimeout());
+        return effective;
+    }
+
+    /**
+     * 檢查要求的設定是否生效，若沒有生效，輸出錯誤訊息。
+     *
+     * @param pragma 傳入設定名稱
+     * @param requested 傳入要求的值，null表示沒有要求
+     * @param effective 傳入實際生效的值
+     */
+    private static void checkConfiguration(final String pragma, final Object requested, final Object effective) {
+        if (requested != null && !requested.equals(effective)) {
+            Printer.err("initialContentCenter: ", pragma + " is " + effective + ", not " + requested);
+        }
+    }
+
+    /**
+     * 執行PRAGMA，並讀取執行後的值。
+     *
+     * @param pragma 傳入PRAGMA名稱
+     * @param value 傳入要設定的值，null表示只讀取
+     * @return 傳回PRAGMA目前的值，若為null，表示沒有值
+     * @throws Exception 拋出例外
+     */
+    private static String executePragma(final String pragma, final String value) throws Exception {
+        if (value != null) {
+            try (PreparedStatement stat = conn.prepareStatement("PRAGMA " + pragma + " = " + value)) {
+                stat.execute();
+            }
+        }
+        try (PreparedStatement stat = conn.prepareStatement("PRAGMA " + pragma)) {
+            try (ResultSet result = stat.executeQuery()) {
+                return result.next() ? result.getString(1) : null;
+            }
+        }
+    }
+
     /**
      * 將新的欄位插入現有的表單，新的欄位無法設為Key，且必定canNull，此方法為進階用法，不建議直接使用。
      *
@@ -761,18 +1576,22 @@ public class ContentCenter {
                 sb.append("ALTER TABLE `").append(tableName).append("` ADD `").append(columnName).append("` ").append(cm.getColumnType().toString()).append(";");
             }
             final String statement = sb.toString();
-            Printer.print("alterTableAddColumn: ".concat(statement));
+            Printer.print("alterTableAddColumn: ", statement);
             final PreparedStatement stat = conn.prepareStatement(statement);
-            executeUpdate(stat);
+            try {
+                executeUpdate(stat);
+            } finally {
+                SchemaCenter.remove(tableName);
+            }
             return true;
         } catch (final Exception ex) {
-            Printer.err("alterTableAddColumn: cannot alter table, ".concat(ex.getMessage()));
+            Printer.err("alterTableAddColumn: cannot alter table, ", ex.getMessage());
             return false;
         }
     }
 
     /**
-     * 建立新的資料庫表單。
+     * 建立新的資料庫表單。表單、索引、盲索引和全文檢索表單會在同一個交易(Transaction)中建立，任何一個失敗都不會留下建立到一半的表單。
      *
      * @param tableName 傳入表單名稱
      * @param metadata 傳入表單的描述資料(Metadata, Schema)
@@ -793,6 +1612,13 @@ public class ContentCenter {
             Printer.err("createTable: tableName has illegal character");
             return false;
         }
+        //表單、索引和全文檢索表單要一起建立成功，否則全部復原
+        final String savepoint = beginSavepoint();
+        if (savepoint == null) {
+            Printer.err("createTable: cannot begin transaction");
+            return false;
+        }
+        final ArrayList<String> hideColumns = new ArrayList<>();
         try {
             final StringBuilder sb = new StringBuilder("CREATE TABLE `");
             sb.append(tableName).append("` (");
@@ -814,6 +1640,9 @@ public class ContentCenter {
                         }
                     }
                 }
+                if (column.hasBlindIndex()) {
+                    sb.append(",`").append(SchemaCenter.getBlindIndexColumnName(columnName)).append("` TEXT");
+                }
                 if (i != l) {
                     sb.append(",");
                 }
@@ -824,7 +1653,10 @@ public class ContentCenter {
                     json.put(DB_HIDE_COLUMN_TABLE, tableName);
                     json.put(DB_HIDE_COLUMN_COLUMN, columnName);
                     insert(DB_HIDE_COLUMN, json);
-                    hsHideColumn.add(getAbsolutePath(tableName, columnName));
+                    final String hideColumn = getAbsolutePath(tableName, columnName);
+                    if (hsHideColumn.add(hideColumn)) {
+                        hideColumns.add(hideColumn);
+                    }
                 }
             }
 
@@ -845,1116 +1677,4092 @@ public class ContentCenter {
             }
             sb.append(")");
             final String statement = sb.toString();
-            Printer.print("createTable: ".concat(statement));
+            Printer.print("createTable: ", statement);
             final PreparedStatement stat = conn.prepareStatement(statement);
             executeUpdate(stat);
+
+            SchemaCenter.put(tableName, SchemaCenter.create(metadata));
+
+            //索引
+            for (final IndexMetadata index : metadata.getIndexes()) {
+                final String indexStatement = getIndexStatement(tableName, index.getIndexName(), index.isUnique(), index.getWhere(), index.getOrders());
+                Printer.print("createTable: ", indexStatement);
+                executeUpdate(conn.prepareStatement(indexStatement));
+            }
+            for (final String columnName : columnNames) {
+                if (metadata.getColumnMetadata(columnName).hasBlindIndex()) {
+                    final String indexStatement = getBlindIndexStatement(tableName, columnName);
+                    Printer.print("createTable: ", indexStatement);
+                    executeUpdate(conn.prepareStatement(indexStatement));
+                }
+            }
+
+            //全文檢索
+            final String[] fullTextColumns = metadata.getFullTextColumns();
+            if (fullTextColumns.length > 0) {
+                createFullTextTable("createTable", tableName, fullTextColumns);
+            }
+            if (!endSavepoint(savepoint, true)) {
+                throw new Exception("cannot commit");
+            }
             return true;
         } catch (final Exception ex) {
-            Printer.err("createTable: cannot create table, ".concat(ex.getMessage()));
+            endSavepoint(savepoint, false);
+            SchemaCenter.remove(tableName);
+            hsHideColumn.removeAll(hideColumns);
+            Printer.err("createTable: cannot create table, ", ex.getMessage());
             return false;
         }
     }
 
     /**
-     * 重組資料庫，建議在AVAILABLE事件時使用。
+     * 在現有的表單上建立索引，若索引已存在則不會重複建立。
      *
-     * @return 傳回資料庫是否重組成功
+     * @param tableName 傳入表單名稱
+     * @param indexName 傳入索引名稱
+     * @param columnNames 傳入欄位名稱
+     * @return 傳回索引是否建立成功
      */
-    public static boolean vacuum() {
-        if (!available) {
-            Printer.err("vacuum: not available");
+    public static boolean createIndex(final String tableName, final String indexName, final String... columnNames) {
+        if (columnNames == null || columnNames.length == 0) {
+            Printer.err("createIndex: columnNames is empty");
             return false;
         }
-        try {
-            try (PreparedStatement stat = conn.prepareStatement("vacuum")) {
-                stat.execute();
-                return true;
+        final Order[] orders = new Order[columnNames.length];
+        for (int i = 0; i < columnNames.length; ++i) {
+            final Order order = new Order();
+            if (!order.setOrder(columnNames[i])) {
+                Printer.err("createIndex: columnName is illegal");
+                return false;
             }
-        } catch (final Exception ex) {
-            Printer.err("vacuum: cannot vacuum, ".concat(ex.getMessage()));
+            orders[i] = order;
         }
-        return false;
+        return createIndex(tableName, indexName, false, null, orders);
     }
 
     /**
-     * 將資料庫回到上一個狀態。
+     * 在現有的表單上建立索引，若索引已存在則不會重複建立。欄位可以使用Order來指定遞減(DESC)或是忽略大小寫，並且可以加上條件，使其成為部分索引(Partial Index)。
      *
-     * @return 傳回是否恢復成功
+     * @param tableName 傳入表單名稱
+     * @param indexName 傳入索引名稱
+     * @param unique 傳入索引的值是否唯一
+     * @param where 傳入部分索引的條件，null表示索引整個表單
+     * @param orders 傳入欄位和欄位的排序方式
+     * @return 傳回索引是否建立成功
      */
-    public static boolean rollBack() {
+    public static boolean createIndex(final String tableName, final String indexName, final boolean unique, final ConditionInterface where, final Order... orders) {
         if (!available) {
-            Printer.err("rollBack: not available");
+            Printer.err("createIndex: not available");
             return false;
         }
-        if (autoCommit) {
-            Printer.err("rollBack: in the auto commit mode");
+        if (tableName == null || tableName.trim().length() == 0 || indexName == null || indexName.trim().length() == 0) {
+            Printer.err("createIndex: tableName or indexName is empty");
+            return false;
+        } else if (orders == null || orders.length == 0) {
+            Printer.err("createIndex: orders is empty");
+            return false;
+        } else if (tableName.contains("`") || indexName.contains("`")) {
+            Printer.err("createIndex: tableName or indexName has illegal character");
             return false;
         }
         try {
-            conn.rollback();
-            Printer.print("rollBack");
+            for (final Order order : orders) {
+                if (order == null || order.getColumnName() == null) {
+                    throw new Exception("order null");
+                } else if (isHideColumn(tableName, order.getColumnName())) {
+                    throw new Exception("hidden column cannot be indexed");
+                }
+            }
+            final String statement = getIndexStatement(tableName, indexName, unique, where, orders);
+            Printer.print("createIndex: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            executeUpdate(stat);
             return true;
-        } catch (final SQLException ex) {
-            Printer.err("rollBack: cannot commit, ".concat(ex.getMessage()));
+        } catch (final Exception ex) {
+            Printer.err("createIndex: cannot create index, ", ex.getMessage());
             return false;
         }
     }
 
     /**
-     * 設定ContentCenter是否使用AutoCommit。
+     * 替現有的表單建立全文檢索表單，並索引現有的資料。之後插入、更新和刪除資料時會自動維護，可以用MATCH條件和searchFullText方法檢索。表單必須有INTEGER型態的主要的關鍵欄位。
      *
-     * @param autoCommit 傳入ContentCenter是否使用AutoCommit
-     * @return 傳回是否設定成功
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入全文檢索欄位的名稱，必須是沒有隱藏的欄位
+     * @return 傳回全文檢索表單是否建立成功
      */
-    public static boolean setAutoCommit(final boolean autoCommit) {
+    public static boolean createFullTextIndex(final String tableName, final String... columnNames) {
         if (!available) {
-            Printer.err("setAutoCommit: not available");
+            Printer.err("createFullTextIndex: not available");
             return false;
         }
-        if (OS == OperatingSystems.ANDROID) {
-            Printer.err("setAutoCommit: not support for android");
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("createFullTextIndex: tableName is empty");
+            return false;
+        } else if (columnNames == null || columnNames.length == 0) {
+            Printer.err("createFullTextIndex: columnNames is empty");
+            return false;
+        } else if (tableName.contains("`") || tableName.contains("'")) {
+            Printer.err("createFullTextIndex: tableName has illegal character");
             return false;
         }
-        try {
-            conn.setAutoCommit(autoCommit);
-            ContentCenter.autoCommit = autoCommit;
-            return true;
-        } catch (final SQLException ex) {
-            Printer.err("setAutoCommit: cannot set commit mode at this time");
-            return false;
-        }
-    }
-
-    /**
-     * 手動儲存資料庫目前的狀態(ANDROID作業系統將無效果)。
-     *
-     * @return 傳回是否儲存成功
-     */
-    public static boolean commit() {
-        if (!available) {
-            Printer.err("commit: not available");
-            return false;
-        }
-        if (autoCommit) {
-            Printer.err("commit: in the auto commit mode");
+        final String savepoint = beginSavepoint();
+        if (savepoint == null) {
+            Printer.err("createFullTextIndex: cannot begin transaction");
             return false;
         }
         try {
-            conn.commit();
-            Printer.print("commit");
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            if (schema == null) {
+                throw new Exception("no such table: ".concat(tableName));
+            }
+            for (final String columnName : columnNames) {
+                if (columnName == null || schema.getColumnIndex(columnName) < 0) {
+                    throw new Exception("no such column: ".concat(String.valueOf(columnName)));
+                } else if (isHideColumn(tableName, columnName)) {
+                    throw new Exception("hidden column cannot be full-text indexed");
+                }
+            }
+            createFullTextTable("createFullTextIndex", tableName, columnNames);
+            final String fullTextTable = tableName.concat(DB_FULL_TEXT_SUFFIX);
+            final String rebuildStatement = "INSERT INTO `" + fullTextTable + "` (`" + fullTextTable + "`) VALUES ('rebuild')";
+            Printer.print("createFullTextIndex: ", rebuildStatement);
+            executeUpdate(conn.prepareStatement(rebuildStatement));
+            if (!endSavepoint(savepoint, true)) {
+                throw new Exception("cannot commit");
+            }
             return true;
-        } catch (final SQLException ex) {
-            Printer.err("commit: cannot commit, ".concat(ex.getMessage()));
+        } catch (final Exception ex) {
+            endSavepoint(savepoint, false);
+            Printer.err("createFullTextIndex: cannot create full-text index, ", ex.getMessage());
             return false;
         }
     }
 
     /**
-     * 清空表單的資料。
+     * 建立使用FTS5的外部內容(External Content)全文檢索表單，以及在插入、更新和刪除資料時維護它的觸發器。
      *
+     * @param methodName 傳入呼叫的方法名稱
      * @param tableName 傳入表單名稱
-     * @return 傳回表單是否清除成功
+     * @param columnNames 傳入全文檢索欄位的名稱
+     * @throws Exception 拋出例外
      */
-    public static boolean deleteTable(final String tableName) {
-        return deleteTable(tableName, false, false);
+    private static void createFullTextTable(final String methodName, final String tableName, final String[] columnNames) throws Exception {
+        //外部內容表單只能用rowid對應，隱含的rowid在VACUUM之後可能會被重新編號，因此要使用INTEGER PRIMARY KEY作為rowid的別名
+        final String keyColumn = getIntegerPrimaryKey(tableName);
+        if (keyColumn == null) {
+            throw new Exception("full-text table needs an INTEGER primary key");
+        } else if (keyColumn.contains("`") || keyColumn.contains("'")) {
+            throw new Exception("primary key has illegal character");
+        }
+        final String fullTextTable = tableName.concat(DB_FULL_TEXT_SUFFIX);
+        final StringBuilder columns = new StringBuilder();
+        final StringBuilder newValues = new StringBuilder();
+        final StringBuilder oldValues = new StringBuilder();
+        for (final String columnName : columnNames) {
+            if (columnName.contains("`")) {
+                throw new Exception("columnName has illegal character");
+            }
+            columns.append(", `").append(columnName).append("`");
+            newValues.append(", new.`").append(columnName).append("`");
+            oldValues.append(", old.`").append(columnName).append("`");
+        }
+        final String insertNew = "INSERT INTO `" + fullTextTable + "` (rowid" + columns + ") VALUES (new.`" + keyColumn + "`" + newValues + ");";
+        final String deleteOld = "INSERT INTO `" + fullTextTable + "` (`" + fullTextTable + "`, rowid" + columns + ") VALUES ('delete', old.`" + keyColumn + "`" + oldValues + ");";
+        final String triggerPrefix = DB_FULL_TEXT_TRIGGER_PREFIX.concat(tableName);
+        final String[] statements = new String[]{
+            "CREATE VIRTUAL TABLE `" + fullTextTable + "` USING fts5(" + columns.substring(2) + ", content='" + tableName.replace("'", "''") + "', content_rowid='" + keyColumn + "')",
+            "CREATE TRIGGER `" + triggerPrefix + "_ai` AFTER INSERT ON `" + tableName + "` BEGIN " + insertNew + " END",
+            "CREATE TRIGGER `" + triggerPrefix + "_ad` AFTER DELETE ON `" + tableName + "` BEGIN " + deleteOld + " END",
+            "CREATE TRIGGER `" + triggerPrefix + "_au` AFTER UPDATE ON `" + tableName + "` BEGIN " + deleteOld + " " + insertNew + " END"
+        };
+        for (final String statement : statements) {
+            Printer.print(methodName, ": ", statement);
+            executeUpdate(conn.prepareStatement(statement));
+        }
     }
 
     /**
-     * 清空表單的資料。
+     * 取得表單作為rowid別名的INTEGER主要的關鍵欄位。
      *
      * @param tableName 傳入表單名稱
-     * @param notifyObserver 傳入是否通知給觀察者
-     * @param notifySync 傳入是否通知同步到伺服器
-     * @return 傳回表單是否清除成功
+     * @return 傳回欄位名稱，若為null，表示表單沒有單一且型態為INTEGER的主要的關鍵欄位
+     * @throws Exception 拋出例外
      */
-    public static boolean deleteTable(final String tableName, final boolean notifyObserver, final boolean notifySync) {
-        return deleteTable(tableName, notifyObserver, notifySync, System.currentTimeMillis());
+    private static String getIntegerPrimaryKey(final String tableName) throws Exception {
+        String keyColumn = null;
+        int keyCount = 0;
+        try (PreparedStatement stat = conn.prepareStatement("PRAGMA table_info(`" + tableName + "`)")) {
+            try (ResultSet result = stat.executeQuery()) {
+                while (result.next()) {
+                    if (result.getInt("pk") > 0) {
+                        ++keyCount;
+                        if ("INTEGER".equalsIgnoreCase(result.getString("type"))) {
+                            keyColumn = result.getString("name");
+                        }
+                    }
+                }
+            }
+        }
+        return keyCount == 1 ? keyColumn : null;
     }
 
     /**
-     * 清空表單的資料。
+     * 替現有表單的隱藏欄位建立盲索引(Blind Index)。會加上盲索引欄位和它的索引，並計算現有資料的盲索引值。之後這個欄位的EQUAL、NOT_EQUAL、IN和NOT_IN條件都會使用盲索引查詢。
      *
      * @param tableName 傳入表單名稱
-     * @param notifyObserver 傳入是否通知給觀察者
-     * @param notifySync 傳入是否通知同步到伺服器
-     * @param notifyID 傳入通知的ID
-     * @return 傳回表單是否清除成功
+     * @param columnName 傳入隱藏欄位的名稱
+     * @return 傳回盲索引是否建立成功
      */
-    public static boolean deleteTable(final String tableName, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
+    public static boolean createBlindIndex(final String tableName, final String columnName) {
         if (!available) {
-            Printer.err("deleteTable: not available");
+            Printer.err("createBlindIndex: not available");
             return false;
         }
-        if (tableName == null || tableName.trim().length() == 0) {
-            Printer.err("deleteTable: tableName is empty");
+        if (tableName == null || tableName.trim().length() == 0 || columnName == null || columnName.trim().length() == 0) {
+            Printer.err("createBlindIndex: tableName or columnName is empty");
             return false;
-        } else if (tableName.contains("`")) {
-            Printer.err("deleteTable: tableName has illegal character");
+        } else if (tableName.contains("`") || columnName.contains("`")) {
+            Printer.err("createBlindIndex: tableName or columnName has illegal character");
+            return false;
+        } else if (!isHideColumn(tableName, columnName)) {
+            Printer.err("createBlindIndex: column is not hidden");
+            return false;
+        }
+        final String savepoint = beginSavepoint();
+        if (savepoint == null) {
+            Printer.err("createBlindIndex: cannot begin transaction");
             return false;
         }
         try {
-            final StringBuilder sb = new StringBuilder("DELETE FROM `");
-            sb.append(tableName).append("`");
-
-            final String statement = sb.toString();
-            Printer.print("deleteTable: ".concat(statement));
-            final PreparedStatement stat = conn.prepareStatement(statement);
-            final int n = executeUpdate(stat);
-            if (n > 0) {
-                final JSONObject notify = new JSONObject();
-                notify.put(JSONDelete.JSON_TYPE, JSONInsert.TYPE_DELETE);
-                notify.put(JSONDelete.JSON_ID, notifyID);
-                notify.put(JSONDelete.JSON_TABLE_NAME, tableName);
-                if (notifyObserver) {
-                    if (!callBack(EVENT.DELETE, NOTIFY.OBSERVER, notify)) {
-                        Printer.err("deleteTable: cannot notify observer");
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            if (schema == null || schema.getColumnIndex(columnName) < 0) {
+                throw new Exception("no such column: ".concat(columnName));
+            }
+            final String blindIndexColumn = SchemaCenter.getBlindIndexColumnName(columnName);
+            if (schema.getColumnIndex(blindIndexColumn) < 0) {
+                final String alterStatement = "ALTER TABLE `" + tableName + "` ADD `" + blindIndexColumn + "` TEXT";
+                Printer.print("createBlindIndex: ", alterStatement);
+                executeUpdate(conn.prepareStatement(alterStatement));
+                SchemaCenter.remove(tableName);
+            }
+            final String selectStatement = "SELECT rowid, `" + columnName + "` FROM `" + tableName + "`";
+            final String updateStatement = "UPDATE `" + tableName + "` SET `" + blindIndexColumn + "` = ? WHERE rowid = ?";
+            Printer.print("createBlindIndex: ", updateStatement);
+            try (PreparedStatement select = conn.prepareStatement(selectStatement); PreparedStatement update = conn.prepareStatement(updateStatement)) {
+                try (ResultSet result = select.executeQuery()) {
+                    while (result.next()) {
+                        final long rowID = result.getLong(1);
+                        final String hidden = result.getString(2);
+                        bindParameter(update, 1, hidden == null ? null : blindIndex.digest(tableName, columnName, recoverHideString(hidden)));
+                        bindParameter(update, 2, rowID);
+                        update.addBatch();
                     }
                 }
-                if (notifySync) {
-                    final JSONObject sync = new JSONObject();
-                    sync.put(DB_SYNC_TEXT, notify.toString());
-                    insert(DB_SYNC, sync);
-                }
+                update.executeBatch();
+            }
+            final String indexStatement = getBlindIndexStatement(tableName, columnName);
+            Printer.print("createBlindIndex: ", indexStatement);
+            executeUpdate(conn.prepareStatement(indexStatement));
+            if (!endSavepoint(savepoint, true)) {
+                throw new Exception("cannot commit");
             }
             return true;
         } catch (final Exception ex) {
-            Printer.err("deleteTable: cannot delete table, ".concat(ex.getMessage()));
+            endSavepoint(savepoint, false);
+            SchemaCenter.remove(tableName);
+            Printer.err("createBlindIndex: cannot create blind index, ", ex.getMessage());
             return false;
         }
     }
 
     /**
-     * 刪除資料庫的表單。
+     * 刪除資料庫的索引。
      *
-     * @param tableName 傳入表單名稱
-     * @return 傳回表單是否刪除成功
+     * @param indexName 傳入索引名稱
+     * @return 傳回索引是否刪除成功
      */
-    public static boolean dropTable(final String tableName) {
+    public static boolean dropIndex(final String indexName) {
         if (!available) {
-            Printer.err("dropTable: not available");
+            Printer.err("dropIndex: not available");
             return false;
         }
-        if (tableName == null || tableName.trim().length() == 0) {
-            Printer.err("dropTable: tableName is empty");
+        if (indexName == null || indexName.trim().length() == 0) {
+            Printer.err("dropIndex: indexName is empty");
             return false;
-        } else if (tableName.contains("`")) {
-            Printer.err("dropTable: tableName has illegal character");
+        } else if (indexName.contains("`")) {
+            Printer.err("dropIndex: indexName has illegal character");
             return false;
         }
         try {
-            final StringBuilder sb = new StringBuilder("DROP TABLE `");
-            sb.append(tableName).append("`");
+            final StringBuilder sb = new StringBuilder("DROP INDEX `");
+            sb.append(indexName).append("`");
 
             final String statement = sb.toString();
-            Printer.print("dropTable: ".concat(statement));
+            Printer.print("dropIndex: ", statement);
             final PreparedStatement stat = conn.prepareStatement(statement);
             executeUpdate(stat);
-            final Condition c1 = new Condition();
-            c1.setCondition(DB_HIDE_COLUMN_TABLE, tableName, ConditionType.EQUAL);
-            final JSONArray array = query(DB_HIDE_COLUMN, c1);
-            int l = array.length();
-            for (int i = 0; i < l; ++i) {
-                final JSONObject json = array.getJSONObject(i);
-                String t = json.getString(DB_HIDE_COLUMN_TABLE);
-                String c = json.getString(DB_HIDE_COLUMN_COLUMN);
-                hsHideColumn.remove(getAbsolutePath(t, c));
-            }
-            delete(DB_HIDE_COLUMN, c1);
             return true;
         } catch (final Exception ex) {
-            Printer.err("dropTable: cannot drop, ".concat(ex.getMessage()));
+            Printer.err("dropIndex: cannot drop, ", ex.getMessage());
             return false;
         }
     }
 
     /**
-     * 刪除表單內的資料。
+     * 重組資料庫，建議在AVAILABLE事件時使用。
      *
-     * @param tableName 傳入表單名稱
-     * @param condition 傳入刪除的資料條件
-     * @return 傳回資料是否刪除成功
+     * @return 傳回資料庫是否重組成功
      */
-    public static boolean delete(final String tableName, final ConditionInterface condition) {
-        return delete(tableName, condition, false, false);
+    public static boolean vacuum() {
+        if (!available) {
+            Printer.err("vacuum: not available");
+            return false;
+        }
+        try {
+            try (PreparedStatement stat = conn.prepareStatement("vacuum")) {
+                stat.execute();
+                return true;
+            }
+        } catch (final Exception ex) {
+            Printer.err("vacuum: cannot vacuum, ", ex.getMessage());
+        }
+        return false;
     }
 
     /**
-     * 刪除表單內的資料。
+     * 設定背景的漸進式資料庫空間整理。資料庫閒置時，若空頁數量超過門檻，每次會整理一小部分的空頁，直到低於門檻。只有在auto_vacuum為INCREMENTAL時才有效果。
      *
-     * @param tableName 傳入表單名稱
-     * @param condition 傳入刪除的資料條件
-     * @param notifyObserver 傳入是否通知給觀察者
-     * @param notifySync 傳入是否通知同步到伺服器
-     * @return 傳回資料是否刪除成功
+     * @param enable 傳入是否啟用
+     * @param thresholdPages 傳入空頁數量的門檻，必須大於0
+     * @param pagesPerStep 傳入每次最多整理的頁數，必須大於0
+     * @return 傳回是否設定成功
      */
-    public static boolean delete(final String tableName, final ConditionInterface condition, boolean notifyObserver, boolean notifySync) {
-        return delete(tableName, condition, notifyObserver, notifySync, System.currentTimeMillis());
+    public static boolean setIncrementalVacuum(final boolean enable, final int thresholdPages, final int pagesPerStep) {
+        if (thresholdPages <= 0 || pagesPerStep <= 0) {
+            Printer.err("setIncrementalVacuum: pages must be bigger than 0");
+            return false;
+        }
+        incrementalVacuumThreshold = thresholdPages;
+        incrementalVacuumPages = pagesPerStep;
+        incrementalVacuum = enable;
+        return true;
     }
 
     /**
-     * 刪除表單內的資料。
+     * 判斷是否啟用背景的漸進式資料庫空間整理。
      *
-     * @param tableName 傳入表單名稱
-     * @param condition 傳入刪除的資料條件
-     * @param notifyObserver 傳入是否通知給觀察者
-     * @param notifySync 傳入是否通知同步到伺服器
-     * @param notifyID 傳入通知的ID
-     * @return 傳回資料是否刪除成功
+     * @return 傳回是否啟用
      */
-    public static boolean delete(final String tableName, final ConditionInterface condition, boolean notifyObserver, boolean notifySync, long notifyID) {
+    public static boolean isIncrementalVacuum() {
+        return incrementalVacuum;
+    }
+
+    /**
+     * 立即整理資料庫的空頁，只有在auto_vacuum為INCREMENTAL時才有效果。和vacuum方法不同，不會重寫整個資料庫檔案。
+     *
+     * @param pages 傳入最多整理的頁數，小於等於0表示整理所有空頁
+     * @return 傳回整理的頁數，若為-1，表示整理失敗
+     */
+    public static long runIncrementalVacuum(final int pages) {
         if (!available) {
-            Printer.err("delete: not available");
-            return false;
-        }
-        if (tableName == null || tableName.trim().length() == 0) {
-            Printer.err("delete: tableName is empty");
-            return false;
-        } else if (condition == null) {
-            Printer.err("delete: condition is null");
-            return false;
-        } else if (tableName.contains("`")) {
-            Printer.err("delete: tableName has illegal character");
-            return false;
+            Printer.err("runIncrementalVacuum: not available");
+            return -1;
         }
+        final long startTime = System.nanoTime();
         try {
-            final StringBuilder sb = new StringBuilder("DELETE FROM `");
-            final LinkedList list = new LinkedList();
-            sb.append(tableName).append("`");
-
-            final String conditionString = condition.toConditionString(list);
-            sb.append(" WHERE ").append(conditionString);
-            final String statement = sb.toString();
-            Printer.print("delete: ".concat(statement));
-            final PreparedStatement stat = conn.prepareStatement(statement);
-            prepareStatement(stat, list);
-            final int n = executeUpdate(stat);
-            if (n > 0) {
-                final JSONObject notify = new JSONObject();
-                notify.put(JSONDelete.JSON_TYPE, JSONInsert.TYPE_DELETE);
-                notify.put(JSONDelete.JSON_ID, notifyID);
-                notify.put(JSONDelete.JSON_TABLE_NAME, tableName);
-                notify.put(JSONDelete.JSON_DELETE_CONDITION, conditionString);
-                if (notifyObserver) {
-                    if (!callBack(EVENT.DELETE, NOTIFY.OBSERVER, notify)) {
-                        Printer.err("delete: cannot notify observer");
+            final long before = Long.parseLong(executePragma("freelist_count", null));
+            try (PreparedStatement stat = conn.prepareStatement("PRAGMA incremental_vacuum(" + Math.max(pages, 0) + ")")) {
+                try (ResultSet result = stat.executeQuery()) {
+                    while (result.next()) {
+                        // 每讀取一筆會整理一頁
                     }
                 }
-                if (notifySync) {
-                    final JSONObject sync = new JSONObject();
-                    sync.put(DB_SYNC_TEXT, notify.toString());
-                    insert(DB_SYNC, sync);
-                }
             }
-            return true;
+            final long freed = before - Long.parseLong(executePragma("freelist_count", null));
+            MetricsCenter.record(OperationType.VACUUM, DB_MAIN_SCHEMA, freed, startTime, true);
+            return freed;
         } catch (final Exception ex) {
-            Printer.err("delete: cannot delete, ".concat(ex.getMessage()));
-            return false;
+            MetricsCenter.record(OperationType.VACUUM, DB_MAIN_SCHEMA, 0, startTime, false);
+            Printer.err("runIncrementalVacuum: cannot vacuum, ", ex.getMessage());
+            return -1;
         }
     }
 
     /**
-     * 更新表單內的資料。
+     * 備份資料庫。
      *
-     * @param tableName 傳入表單名稱
-     * @param content 傳入更新的資料內容
-     * @param condition 傳入更新的資料條件
-     * @return 傳回表單資料是否更新成功
+     * @param target 傳入備份的檔案，若已經存在會被覆蓋
+     * @return 傳回是否備份成功
      */
-    public static boolean update(final String tableName, final JSONObject content, final ConditionInterface condition) {
-        return update(tableName, content, condition, false, false);
+    public static boolean backup(final File target) {
+        return backup(target, DEFAULT_BACKUP_PAGES_PER_STEP, null);
     }
 
     /**
-     * 更新表單內的資料。
+     * <p>
+     * 在資料庫使用中備份資料庫。備份會使用另一個資料庫連線，先寫入暫存檔案，完成後才取代目標檔案。依照環境使用以下其中一種方式：
+     * </p>
      *
-     * @param tableName 傳入表單名稱
-     * @param json 傳入更新的資料內容
-     * @param condition 傳入更新的資料條件
-     * @param notifyObserver 傳入是否通知給觀察者
-     * @param notifySync 傳入是否通知同步到伺服器
-     * @return 傳回表單資料是否更新成功
-     */
-    public static boolean update(final String tableName, final JSONObject json, final ConditionInterface condition, final boolean notifyObserver, final boolean notifySync) {
-        return update(tableName, json, condition, notifyObserver, notifySync, System.currentTimeMillis());
-    }
-
-    /**
-     * 更新表單內的資料。
+     * <ol>
+     * <li>使用sqlite-jdbc驅動時，使用SQLite的線上備份(Online Backup) API，每一段複製指定數量的頁，段與段之間其它連線可以繼續寫入。若來源資料庫在備份時被其它連線修改，SQLite會重新開始備份。</li>
+     * <li>SQLite 3.27以上時，使用VACUUM INTO。</li>
+     * <li>否則在同一個讀取交易中分段複製每個表單的資料，虛擬表單(例如全文檢索表單)的影子表單(Shadow Table)會由虛擬表單自行建立。</li>
+     * </ol>
      *
-     * @param tableName 傳入表單名稱
-     * @param json 傳入更新的資料內容
-     * @param condition 傳入更新的資料條件
-     * @param notifyObserver 傳入是否通知給觀察者
-     * @param notifySync 傳入是否通知同步到伺服器
-     * @param notifyID 傳入通知的ID
-     * @return 傳回表單資料是否更新成功
+     * <p>
+     * 後兩種方式會在整個備份期間持有讀取交易，因此日誌模式不是WAL時，其它連線要等到備份完成後才能提交寫入。使用線上備份時，進度監聽者收到的資料筆數為已經複製的頁數；其它方式則為已經複製的資料筆數，VACUUM INTO只會在完成時通知。使用線上備份時，取消會在備份完成後才生效，並捨棄備份的結果。
+     * </p>
+     *
+     * @param target 傳入備份的檔案，若已經存在會被覆蓋
+     * @param pagesPerStep 傳入使用線上備份時，每段最多複製的頁數，必須大於0
+     * @param progressListener 傳入進度監聽者，可以為null
+     * @return 傳回是否備份成功
      */
-    public static boolean update(final String tableName, final JSONObject json, final ConditionInterface condition, boolean notifyObserver, boolean notifySync, long notifyID) {
+    public static boolean backup(final File target, final int pagesPerStep, final ProgressListener progressListener) {
         if (!available) {
-            Printer.err("update: not available");
+            Printer.err("backup: not available");
             return false;
         }
-        if (tableName == null || tableName.trim().length() == 0) {
-            Printer.err("update: tableName is empty");
+        if (target == null) {
+            Printer.err("backup: target is null");
             return false;
-        } else if (json == null) {
-            Printer.err("update: json is null");
+        } else if (pagesPerStep <= 0) {
+            Printer.err("backup: pagesPerStep must be bigger than 0");
             return false;
-        } else if (condition == null) {
-            Printer.err("update: condition is null");
+        } else if (target.getAbsoluteFile().equals(dbFile.getAbsoluteFile())) {
+            Printer.err("backup: target is the database file");
             return false;
-        } else if (tableName.contains("`")) {
-            Printer.err("update: tableName has illegal character");
+        }
+        final long startTime = System.nanoTime();
+        final File temporaryFile = new File(target.getAbsolutePath().concat(".tmp"));
+        if (temporaryFile.exists() && !temporaryFile.delete()) {
+            Printer.err("backup: cannot delete the temporary file");
             return false;
         }
+        long count = -1;
+        boolean success = false;
+        MetricsCenter.beginActivity();
         try {
-            final StringBuilder sb = new StringBuilder("UPDATE `");
-            final LinkedList<Object> list = new LinkedList<>();
-            sb.append(tableName).append("` SET ");
-
-            final Set<String> columns = json.keySet();
-            int i = 0;
-            int l = columns.size();
-            for (final String column : columns) {
-                if (column.contains("`")) {
-                    throw new Exception("columnName has illegal character");
-                }
-                final Object obj = json.get(column);
-                sb.append("`").append(column).append("`").append(" = ");
-                if (obj instanceof String) {
-                    String sValue = obj.toString();
-                    if (hsHideColumn.contains(getAbsolutePath(tableName, column))) {
-                        list.add(StringHider.compression(StringHider.hideString(sValue, hideKey, false)));
-                    } else {
-                        list.add(obj);
-                    }
-                } else {
-                    list.add(obj);
-                }
-                sb.append("?");
-
-                if (i != l - 1) {
-                    sb.append(", ");
-                }
-                ++i;
+            if (OS == OperatingSystems.PC) {
+                count = backupOnline(temporaryFile, pagesPerStep, progressListener, startTime);
             }
-            final LinkedList conditionRightValue = new LinkedList();
-            final String conditionString = condition.toConditionString(conditionRightValue);
-            sb.append(" WHERE ").append(conditionString);
-            final String statement = sb.toString();
-            Printer.print("update: ".concat(statement));
-            final PreparedStatement stat = conn.prepareStatement(statement);
-            list.addAll(conditionRightValue);
-            prepareStatement(stat, list);
-            int n = executeUpdate(stat);
-            if (n > 0) {
-                final JSONObject notify = new JSONObject();
-                notify.put(JSONUpdate.JSON_TYPE, JSONInsert.TYPE_UPDATE);
-                notify.put(JSONUpdate.JSON_ID, notifyID);
-                notify.put(JSONUpdate.JSON_TABLE_NAME, tableName);
-                notify.put(JSONUpdate.JSON_UPDATE_CONTENT, tableName);
-                notify.put(JSONUpdate.JSON_UPDATE_CONDITION, conditionString);
-                if (notifyObserver) {
-                    if (!callBack(EVENT.UPDATE, NOTIFY.OBSERVER, notify)) {
-                        Printer.err("update: cannot notify observer");
+            if (count < 0 && isVersionAtLeast(sqliteVersion, VACUUM_INTO_MIN_VERSION)) {
+                count = backupVacuumInto(temporaryFile);
+            }
+            if (count < 0) {
+                count = backupCopy(temporaryFile, progressListener, startTime);
+            }
+            success = true;
+            if (progressListener != null) {
+                progressListener.onProgress(null, count, temporaryFile.length(), System.nanoTime() - startTime, true);
+            }
+        } catch (final Exception ex) {
+            Printer.err("backup: cannot backup, ", ex.getMessage());
+        } finally {
+            MetricsCenter.endActivity();
+        }
+        if (count < 0) {
+            count = 0;
+        }
+        if (success && (!target.exists() || target.delete()) && temporaryFile.renameTo(target)) {
+            MetricsCenter.record(OperationType.BACKUP, DB_MAIN_SCHEMA, count, startTime, true);
+            return true;
+        }
+        if (success) {
+            Printer.err("backup: cannot replace the target file");
+        }
+        temporaryFile.delete();
+        MetricsCenter.record(OperationType.BACKUP, DB_MAIN_SCHEMA, count, startTime, false);
+        return false;
+    }
+
+    /**
+     * 使用sqlite-jdbc驅動提供的SQLite線上備份(Online Backup) API備份資料庫。驅動不支援時不會備份。
+     *
+     * @param temporaryFile 傳入備份的暫存檔案
+     * @param pagesPerStep 傳入每段最多複製的頁數
+     * @param progressListener 傳入進度監聽者，可以為null
+     * @param startTime 傳入備份開始時，System.nanoTime()的值
+     * @return 傳回已經複製的頁數，若為-1，表示驅動不支援
+     * @throws Exception 拋出例外
+     */
+    private static long backupOnline(final File temporaryFile, final int pagesPerStep, final ProgressListener progressListener, final long startTime) throws Exception {
+        final Class<?> observerClass;
+        try {
+            observerClass = Class.forName(DB_DRIVER_PC_PROGRESS_OBSERVER);
+        } catch (final ClassNotFoundException | LinkageError ex) {
+            return -1;
+        }
+        final long pageSize = Long.parseLong(executePragma("page_size", null));
+        try (Connection sourceConn = DriverManager.getConnection(getDBURL(dbFile))) {
+            final Object database;
+            try {
+                database = sourceConn.getClass().getMethod("getDatabase").invoke(sourceConn);
+            } catch (final NoSuchMethodException ex) {
+                return -1;
+            }
+            final long[] copiedPages = new long[1];
+            final boolean[] canceled = new boolean[1];
+            final Object observer = Proxy.newProxyInstance(observerClass.getClassLoader(), new Class<?>[]{observerClass}, new InvocationHandler() {
+
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                    switch (method.getName()) {
+                        case "progress":
+                            final int remaining = ((Number) args[0]).intValue();
+                            final int pageCount = ((Number) args[1]).intValue();
+                            copiedPages[0] = pageCount - remaining;
+                            if (progressListener != null && !canceled[0] && !progressListener.onProgress(null, copiedPages[0], copiedPages[0] * pageSize, System.nanoTime() - startTime, false)) {
+                                canceled[0] = true;
+                            }
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return observerClass.getName();
+                        default:
+                            return null;
                     }
                 }
-                if (notifySync) {
-                    final JSONObject sync = new JSONObject();
-                    sync.put(DB_SYNC_TEXT, notify.toString());
-                    insert(DB_SYNC, sync);
+            });
+            final Class<?> databaseClass = database.getClass();
+            final int rc;
+            try {
+                Method backup;
+                Object[] parameters;
+                try {
+                    backup = databaseClass.getMethod("backup", String.class, String.class, observerClass, int.class, int.class, int.class);
+                    parameters = new Object[]{DB_MAIN_SCHEMA, temporaryFile.getAbsolutePath(), observer, BACKUP_BUSY_SLEEP_MILLIS, BACKUP_BUSY_RETRIES, pagesPerStep};
+                } catch (final NoSuchMethodException ex) {
+                    //舊版的驅動每段固定複製100頁
+                    backup = databaseClass.getMethod("backup", String.class, String.class, observerClass);
+                    parameters = new Object[]{DB_MAIN_SCHEMA, temporaryFile.getAbsolutePath(), observer};
                 }
+                Printer.print("backup: ", backup.toString());
+                rc = ((Number) backup.invoke(database, parameters)).intValue();
+            } catch (final InvocationTargetException ex) {
+                final Throwable cause = ex.getCause();
+                throw cause instanceof Exception ? (Exception) cause : ex;
             }
-            return true;
-        } catch (final Exception ex) {
-            Printer.err("update: cannot update, ".concat(ex.getMessage()));
-            return false;
+            if (rc != 0) {
+                throw new Exception("backup failed with code ".concat(String.valueOf(rc)));
+            } else if (canceled[0]) {
+                throw new Exception("canceled");
+            }
+            return copiedPages[0];
         }
     }
 
     /**
-     * 查詢表單的資料。
+     * 使用VACUUM INTO備份資料庫。
      *
-     * @param tableName 傳入表單名稱
-     * @param orders 傳入結果的排序方法
-     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     * @param temporaryFile 傳入備份的暫存檔案
+     * @return 傳回備份的頁數
+     * @throws Exception 拋出例外
      */
-    public static JSONArray query(final String tableName, final Order... orders) {
-        return query(tableName, null, null, orders);
+    private static long backupVacuumInto(final File temporaryFile) throws Exception {
+        try (Connection sourceConn = DriverManager.getConnection(getDBURL(dbFile))) {
+            sourceConn.setAutoCommit(true);
+            Printer.print("backup: ", "VACUUM INTO ?");
+            try (PreparedStatement stat = sourceConn.prepareStatement("VACUUM INTO ?")) {
+                stat.setString(1, temporaryFile.getAbsolutePath());
+                stat.execute();
+            }
+        }
+        return temporaryFile.length() / Long.parseLong(executePragma("page_size", null));
     }
 
     /**
-     * 查詢表單的資料。
+     * 在同一個讀取交易中分段複製每個表單的資料來備份資料庫。
      *
-     * @param tableName 傳入表單名稱
-     * @param columnNames 傳入要留下的欄位(Project)
-     * @param orders 傳入結果的排序方法
-     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     * @param temporaryFile 傳入備份的暫存檔案
+     * @param progressListener 傳入進度監聽者，可以為null
+     * @param startTime 傳入備份開始時，System.nanoTime()的值
+     * @return 傳回複製的資料筆數
+     * @throws Exception 拋出例外
      */
-    public static JSONArray query(final String tableName, final String[] columnNames, final Order... orders) {
-        return query(tableName, columnNames, null, orders);
+    private static long backupCopy(final File temporaryFile, final ProgressListener progressListener, final long startTime) throws Exception {
+        final int rowsPerStep = DEFAULT_BACKUP_ROWS_PER_STEP;
+        long rows = 0;
+        try (Connection backupConn = DriverManager.getConnection(getDBURL(temporaryFile))) {
+            backupConn.setAutoCommit(true);
+            executeBackup(backupConn, "PRAGMA page_size = " + executePragma("page_size", null));
+            executeBackup(backupConn, "PRAGMA auto_vacuum = " + executePragma("auto_vacuum", null));
+            executeBackup(backupConn, "PRAGMA encoding = \"" + DB_DEFAULT_ENCODING + "\"");
+            try (PreparedStatement stat = backupConn.prepareStatement("ATTACH DATABASE ? AS `" + DB_BACKUP_SOURCE + "`")) {
+                stat.setString(1, dbFile.getAbsolutePath());
+                stat.execute();
+            }
+            // 讀取結構描述(Schema)
+            final ArrayList<String[]> tables = new ArrayList<>();
+            final ArrayList<String> virtualTables = new ArrayList<>();
+            final ArrayList<String> others = new ArrayList<>();
+            try (PreparedStatement stat = backupConn.prepareStatement("SELECT `type`,`name`,`sql` FROM `" + DB_BACKUP_SOURCE + "`.`sqlite_master` WHERE `sql` IS NOT NULL AND `name` NOT LIKE 'sqlite_%' ORDER BY `type` = 'table' DESC, `type` = 'index' DESC, `rowid`")) {
+                try (ResultSet result = stat.executeQuery()) {
+                    while (result.next()) {
+                        final String sql = result.getString(3);
+                        if ("table".equals(result.getString(1))) {
+                            tables.add(new String[]{result.getString(2), sql});
+                            if (sql.toUpperCase(Locale.ENGLISH).matches("(?s)\\s*CREATE\\s+VIRTUAL\\s+TABLE\\s.*")) {
+                                virtualTables.add(result.getString(2));
+                            }
+                        } else {
+                            others.add(sql);
+                        }
+                    }
+                }
+            }
+            // 影子表單會在建立虛擬表單時自動建立，內容也由虛擬表單維護
+            final ArrayList<String[]> copyTables = new ArrayList<>();
+            for (final String[] table : tables) {
+                if (!isShadowTable(table[0], virtualTables)) {
+                    copyTables.add(table);
+                }
+            }
+            long bytes = 0;
+            final String pageSize = executePragma("page_size", null);
+            executeBackup(backupConn, "BEGIN");
+            try {
+                for (final String[] table : copyTables) {
+                    final String tableName = table[0];
+                    executeBackup(backupConn, table[1]);
+                    final boolean withoutRowID = table[1].toUpperCase(Locale.ENGLISH).matches("(?s).*\\)\\s*WITHOUT\\s+ROWID\\s*$");
+                    final StringBuilder sbColumns = new StringBuilder(withoutRowID ? "" : "`rowid`");
+                    try (PreparedStatement stat = backupConn.prepareStatement("PRAGMA `" + DB_BACKUP_SOURCE + "`.table_info(`" + tableName + "`)")) {
+                        try (ResultSet result = stat.executeQuery()) {
+                            while (result.next()) {
+                                if (sbColumns.length() > 0) {
+                                    sbColumns.append(",");
+                                }
+                                sbColumns.append("`").append(result.getString("name")).append("`");
+                            }
+                        }
+                    }
+                    final String copyStatement;
+                    if (withoutRowID) {
+                        copyStatement = "INSERT INTO `main`.`" + tableName + "` (" + sbColumns + ") SELECT " + sbColumns + " FROM `" + DB_BACKUP_SOURCE + "`.`" + tableName + "` LIMIT ? OFFSET ?";
+                    } else {
+                        copyStatement = "INSERT INTO `main`.`" + tableName + "` (" + sbColumns + ") SELECT " + sbColumns + " FROM `" + DB_BACKUP_SOURCE + "`.`" + tableName + "` WHERE `rowid` > ? ORDER BY `rowid` LIMIT ?";
+                    }
+                    Printer.print("backup: ", copyStatement);
+                    long tableRows = 0;
+                    long lastRowID = Long.MIN_VALUE;
+                    try (PreparedStatement stat = backupConn.prepareStatement(copyStatement)) {
+                        while (true) {
+                            if (withoutRowID) {
+                                stat.setLong(1, rowsPerStep);
+                                stat.setLong(2, tableRows);
+                            } else {
+                                stat.setLong(1, lastRowID);
+                                stat.setLong(2, rowsPerStep);
+                            }
+                            final int n = stat.executeUpdate();
+                            if (n <= 0) {
+                                break;
+                            }
+                            tableRows += n;
+                            rows += n;
+                            if (!withoutRowID) {
+                                try (PreparedStatement max = backupConn.prepareStatement("SELECT max(`rowid`) FROM `main`.`" + tableName + "`")) {
+                                    try (ResultSet result = max.executeQuery()) {
+                                        result.next();
+                                        lastRowID = result.getLong(1);
+                                    }
+                                }
+                            }
+                            try (PreparedStatement count = backupConn.prepareStatement("PRAGMA `main`.page_count")) {
+                                try (ResultSet result = count.executeQuery()) {
+                                    result.next();
+                                    bytes = result.getLong(1) * Long.parseLong(pageSize);
+                                }
+                            }
+                            if (progressListener != null && !progressListener.onProgress(tableName, rows, bytes, System.nanoTime() - startTime, false)) {
+                                throw new Exception("canceled");
+                            }
+                            if (n < rowsPerStep) {
+                                break;
+                            }
+                        }
+                    }
+                }
+                if (hasBackupTable(backupConn, "sqlite_sequence")) {
+                    executeBackup(backupConn, "DELETE FROM `main`.`sqlite_sequence`");
+                    executeBackup(backupConn, "INSERT INTO `main`.`sqlite_sequence` SELECT * FROM `" + DB_BACKUP_SOURCE + "`.`sqlite_sequence`");
+                }
+                for (final String sql : others) {
+                    executeBackup(backupConn, sql);
+                }
+                executeBackup(backupConn, "COMMIT");
+            } catch (final Exception ex) {
+                executeBackup(backupConn, "ROLLBACK");
+                throw ex;
+            }
+            executeBackup(backupConn, "DETACH DATABASE `" + DB_BACKUP_SOURCE + "`");
+        }
+        return rows;
     }
 
     /**
-     * 查詢表單的資料。
+     * 判斷表單是否為虛擬表單的影子表單(Shadow Table)，例如FTS5的_data、_idx、_docsize、_config表單。
      *
      * @param tableName 傳入表單名稱
-     * @param condition 傳入查詢的條件
-     * @param orders 傳入結果的排序方法
-     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     * @param virtualTables 傳入虛擬表單的名稱
+     * @return 傳回是否為影子表單
      */
-    public static JSONArray query(final String tableName, final ConditionInterface condition, final Order... orders) {
-        return query(tableName, null, condition, orders);
+    private static boolean isShadowTable(final String tableName, final ArrayList<String> virtualTables) {
+        for (final String virtualTable : virtualTables) {
+            if (tableName.length() > virtualTable.length() + 1 && tableName.startsWith(virtualTable.concat("_"))) {
+                final String suffix = tableName.substring(virtualTable.length() + 1);
+                for (final String shadowSuffix : DB_SHADOW_TABLE_SUFFIXES) {
+                    if (shadowSuffix.equals(suffix)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
     }
 
     /**
-     * 查詢表單的資料。
+     * 從串流匯入NDJSON(每行一個JSON物件)的資料到表單。
      *
      * @param tableName 傳入表單名稱
-     * @param condition 傳入查詢的條件
-     * @param limit 傳入數量限制，小於等於零不限制
-     * @param reverse 傳入是否要反向
-     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     * @param metadata 傳入表單的描述資料，用來對應欄位和轉換型態
+     * @param in 傳入資料串流，使用UTF-8編碼
+     * @return 傳回匯入的資料筆數，若為-1，表示匯入失敗
      */
-    public static JSONArray query(final String tableName, final ConditionInterface condition, final int limit, final boolean reverse) {
-        return query(tableName, null, condition, limit, reverse);
+    public static long importNDJSON(final String tableName, final TableMetadata metadata, final InputStream in) {
+        return importNDJSON(tableName, metadata, in, DEFAULT_IMPORT_ROWS_PER_BATCH, null);
     }
 
     /**
-     * 查詢表單的資料。
+     * 從串流匯入NDJSON(每行一個JSON物件)的資料到表單。資料會逐行讀取，每一批資料在一個交易(Transaction)中寫入，沒有出現的欄位會被當作null。
      *
      * @param tableName 傳入表單名稱
-     * @param condition 傳入查詢的條件
-     * @param limit 傳入數量限制，小於等於零不限制
-     * @param reverse 傳入是否要反向
-     * @param orders 傳入結果的排序方法
-     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     * @param metadata 傳入表單的描述資料，用來對應欄位和轉換型態
+     * @param in 傳入資料串流，使用UTF-8編碼
+     * @param rowsPerBatch 傳入每一批的資料筆數，必須大於0
+     * @param progressListener 傳入進度監聽者，每寫入一批會通知一次，可以為null
+     * @return 傳回匯入的資料筆數，若為-1，表示匯入失敗，已經寫入的批次不會被回復
      */
-    public static JSONArray query(final String tableName, final ConditionInterface condition, final int limit, final boolean reverse, final Order... orders) {
-        return query(tableName, null, condition, limit, reverse, orders);
+    public static long importNDJSON(final String tableName, final TableMetadata metadata, final InputStream in, final int rowsPerBatch, final ProgressListener progressListener) {
+        if (metadata == null || in == null) {
+            Printer.err("importNDJSON: input can't be null");
+            return -1;
+        }
+        return importRows("importNDJSON", tableName, metadata, ImportReader.ndjson(in, metadata.getColumnNames()), rowsPerBatch, progressListener);
     }
 
     /**
-     * 查詢表單的資料。
+     * 從串流匯入CSV的資料到表單。
      *
      * @param tableName 傳入表單名稱
-     * @param columnNames 傳入要留下的欄位(Project)
-     * @param condition 傳入查詢的條件
-     * @param orders 傳入結果的排序方法
-     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     * @param metadata 傳入表單的描述資料，用來對應欄位和轉換型態
+     * @param in 傳入資料串流，使用UTF-8編碼
+     * @param header 傳入第一行是否為欄位名稱，若為false，欄位依照表單欄位的順序對應
+     * @return 傳回匯入的資料筆數，若為-1，表示匯入失敗
      */
-    public static JSONArray query(final String tableName, final String[] columnNames, final ConditionInterface condition, final Order... orders) {
-        return query(tableName, columnNames, condition, 0, false, orders);
+    public static long importCSV(final String tableName, final TableMetadata metadata, final InputStream in, final boolean header) {
+        return importCSV(tableName, metadata, in, header, DEFAULT_IMPORT_ROWS_PER_BATCH, null);
     }
 
     /**
-     * 查詢表單的資料。
+     * 從串流匯入CSV(RFC 4180)的資料到表單。資料會逐筆讀取，每一批資料在一個交易(Transaction)中寫入。INTEGER和REAL欄位的空值會被當作null。
      *
      * @param tableName 傳入表單名稱
-     * @param columnNames 傳入要留下的欄位(Project)
-     * @param condition 傳入查詢的條件
-     * @param limit 傳入數量限制，小於等於零不限制
-     * @param reverse 傳入是否要反向
-     * @param orders 傳入結果的排序方法
-     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     * @param metadata 傳入表單的描述資料，用來對應欄位和轉換型態
+     * @param in 傳入資料串流，使用UTF-8編碼
+     * @param header 傳入第一行是否為欄位名稱，若為false，欄位依照表單欄位的順序對應
+     * @param rowsPerBatch 傳入每一批的資料筆數，必須大於0
+     * @param progressListener 傳入進度監聽者，每寫入一批會通知一次，可以為null
+     * @return 傳回匯入的資料筆數，若為-1，表示匯入失敗，已經寫入的批次不會被回復
      */
-    public static JSONArray query(final String tableName, final String[] columnNames, final ConditionInterface condition, final int limit, final boolean reverse, final Order... orders) {
-        return query(tableName, columnNames, condition, 0, limit, reverse, orders);
+    public static long importCSV(final String tableName, final TableMetadata metadata, final InputStream in, final boolean header, final int rowsPerBatch, final ProgressListener progressListener) {
+        if (metadata == null || in == null) {
+            Printer.err("importCSV: input can't be null");
+            return -1;
+        }
+        try {
+            return importRows("importCSV", tableName, metadata, ImportReader.csv(in, metadata.getColumnNames(), header), rowsPerBatch, progressListener);
+        } catch (final Exception ex) {
+            Printer.err("importCSV: cannot read, ", ex.getMessage());
+            return -1;
+        }
     }
 
     /**
-     * 查詢表單的資料。
+     * 將讀取者讀到的資料分批匯入表單。
      *
+     * @param methodName 傳入呼叫的方法名稱
      * @param tableName 傳入表單名稱
-     * @param columnNames 傳入要留下的欄位(Project)
-     * @param condition 傳入查詢的條件
-     * @param offset 傳入一開始要略過的筆數，小於等於零不略過
-     * @param limit 傳入數量限制，小於等於零不限制
-     * @param reverse 傳入是否要反向
-     * @param orders 傳入結果的排序方法
-     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     * @param metadata 傳入表單的描述資料
+     * @param importReader 傳入讀取者
+     * @param rowsPerBatch 傳入每一批的資料筆數
+     * @param progressListener 傳入進度監聽者，可以為null
+     * @return 傳回匯入的資料筆數，若為-1，表示匯入失敗
      */
-    public static JSONArray query(final String tableName, final String[] columnNames, final ConditionInterface condition, final int offset, final int limit, final boolean reverse, final Order... orders) {
+    private static long importRows(final String methodName, final String tableName, final TableMetadata metadata, final ImportReader importReader, final int rowsPerBatch, final ProgressListener progressListener) {
         if (!available) {
-            Printer.err("query: not available");
-            return null;
+            Printer.err(methodName, ": not available");
+            return -1;
         }
         if (tableName == null || tableName.trim().length() == 0) {
-            Printer.err("query: tableName is empty");
-            return null;
+            Printer.err(methodName, ": tableName is empty");
+            return -1;
         } else if (tableName.contains("`")) {
-            Printer.err("query: tableName has illegal character");
-            return null;
+            Printer.err(methodName, ": tableName has illegal character");
+            return -1;
+        } else if (rowsPerBatch <= 0) {
+            Printer.err(methodName, ": rowsPerBatch must be bigger than 0");
+            return -1;
         }
-
+        final String[] columnNames = metadata.getColumnNames();
+        if (columnNames.length == 0) {
+            Printer.err(methodName, ": metadata has no column");
+            return -1;
+        }
+        final ColumnType[] columnTypes = new ColumnType[columnNames.length];
+        final StringBuilder sb = new StringBuilder("INSERT INTO `");
+        sb.append(tableName).append("` (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            columnTypes[i] = metadata.getColumnMetadata(columnNames[i]).getColumnType();
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("`").append(columnNames[i]).append("`");
+        }
+        // 有盲索引的隱藏欄位，要一起寫入盲索引欄位
+        final ArrayList<Integer> blindIndexSources = new ArrayList<>();
         try {
-            final StringBuilder sb = new StringBuilder("SELECT ");
-            final LinkedList list = new LinkedList();
-            if (columnNames == null) {
-                sb.append("*");
-            } else {
-                final int columnNamesLengthDec = columnNames.length - 1;
-                if (columnNamesLengthDec < 0) {
-                    sb.append("*");
-                } else {
-                    for (int i = 0; i <= columnNamesLengthDec; ++i) {
-                        final String name = columnNames[i];
-                        if (name == null || name.trim().length() == 0) {
-                            throw new Exception("project column name empty");
-                        } else if (name.contains("`")) {
-                            throw new Exception("columnName has illegal character");
-                        }
-                        sb.append("`").append(name).append("`");
-                        if (i != columnNamesLengthDec) {
-                            sb.append(",");
-                        }
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            if (schema != null && schema.hasBlindIndex()) {
+                for (int i = 0; i < columnNames.length; ++i) {
+                    final int index = schema.getColumnIndex(columnNames[i]);
+                    if (index >= 0 && schema.getBlindIndex(index) >= 0) {
+                        blindIndexSources.add(i);
+                        sb.append(",`").append(SchemaCenter.getBlindIndexColumnName(columnNames[i])).append("`");
                     }
                 }
             }
-            sb.append(" FROM `").append(tableName).append("`");
-            if (condition != null) {
-                sb.append(" WHERE ").append(condition.toConditionString(list));
-            }
-            if (orders != null) {
-                final int ordersLengthDec = orders.length - 1;
-                if (ordersLengthDec >= 0) {
-                    sb.append(" ORDER BY ");
-                    for (int i = 0; i <= ordersLengthDec; ++i) {
-                        final Order order = orders[i];
-                        if (order == null) {
-                            throw new Exception("order null");
+        } catch (final Exception ex) {
+            Printer.err(methodName, ": cannot read table schema, ", ex.getMessage());
+            return -1;
+        }
+        sb.append(") VALUES (");
+        for (int i = 0; i < columnNames.length + blindIndexSources.size(); ++i) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append("?");
+        }
+        sb.append(")");
+        final String statement = sb.toString();
+        Printer.print(methodName, ": ", statement);
+
+        final long startTime = System.nanoTime();
+        final Object[] values = new Object[columnNames.length];
+        long rows = 0;
+        MetricsCenter.beginActivity();
+        try (PreparedStatement stat = conn.prepareStatement(statement)) {
+            boolean hasNext = true;
+            while (hasNext) {
+                final String savepoint = beginSavepoint();
+                if (savepoint == null) {
+                    throw new Exception("cannot begin transaction");
+                }
+                int batchRows = 0;
+                try {
+                    while (batchRows < rowsPerBatch && (hasNext = importReader.next(values))) {
+                        for (int i = 0; i < columnNames.length; ++i) {
+                            bindParameter(stat, i + 1, toStoredValue(tableName, columnNames[i], toColumnValue(values[i], columnTypes[i])));
                         }
-                        sb.append(order.toOrderString());
-                        if (i != ordersLengthDec) {
-                            sb.append(",");
+                        int index = columnNames.length;
+                        for (final int source : blindIndexSources) {
+                            final Object blindIndexValue = toBlindIndexValue(tableName, columnNames[source], toColumnValue(values[source], columnTypes[source]));
+                            bindParameter(stat, ++index, JSONObject.NULL.equals(blindIndexValue) ? null : blindIndexValue);
                         }
+                        stat.addBatch();
+                        ++batchRows;
+                    }
+                    if (batchRows > 0) {
+                        stat.executeBatch();
+                    }
+                    if (!endSavepoint(savepoint, true)) {
+                        throw new Exception("cannot commit");
                     }
+                } catch (final Exception ex) {
+                    endSavepoint(savepoint, false);
+                    throw ex;
+                }
+                rows += batchRows;
+                if (progressListener != null && !progressListener.onProgress(tableName, rows, importReader.getBytes(), System.nanoTime() - startTime, !hasNext)) {
+                    throw new Exception("canceled");
                 }
             }
-            if (limit > 0) {
-                sb.append(" LIMIT ").append(limit);
-            }
-            if (offset > 0) {
-                sb.append(" OFFSET ").append(offset);
-            }
-            final String statement = sb.toString();
-            Printer.print("query: ".concat(statement));
-            final PreparedStatement stat = conn.prepareStatement(statement);
-            prepareStatement(stat, list);
-            final JSONArray array = executeQuery(stat, tableName, reverse);
-            return array;
+            MetricsCenter.record(OperationType.IMPORT, tableName, rows, startTime, true);
+            return rows;
         } catch (final Exception ex) {
-            Printer.err("query: cannot select, ".concat(ex.getMessage()));
-            return null;
+            MetricsCenter.record(OperationType.IMPORT, tableName, rows, startTime, false);
+            Printer.err(methodName, ": cannot import, ", ex.getMessage());
+            return -1;
+        } finally {
+            MetricsCenter.endActivity();
         }
     }
 
     /**
-     * 查詢表單的資料數量。
+     * 將匯入的值轉換成欄位的型態。數字欄位的空字串會被當作null，其餘的值和一般寫入一樣使用toTypedValue方法轉換，因此匯入和插入相同的資料會得到相同的結果。
      *
-     * @param tableName 傳入表單名稱
-     * @param condition 傳入查詢的條件
-     * @return 傳回查詢結果的數量，若為0，表示沒找到結果；若為-1，表示查詢失敗
+     * @param value 傳入匯入的值
+     * @param type 傳入欄位型態
+     * @return 傳回轉換後的值
      */
-    public static long count(final String tableName, final ConditionInterface condition) {
-        final JSONArray result = count(tableName, condition, (String[]) null);
-        if (result == null || result.length() == 0) {
-            return -1;
+    private static Object toColumnValue(final Object value, final ColumnType type) {
+        if (value == null) {
+            return null;
+        } else if (type != ColumnType.TEXT && value instanceof String && ((String) value).trim().length() == 0) {
+            return null;
         }
-        final JSONObject object = result.getJSONObject(0);
-        return object.getLong("count(*)");
+        return toTypedValue(value, type);
     }
 
     /**
-     * 查詢表單的資料數量。
+     * 將資料庫回到上一個狀態。
      *
-     * @param tableName 傳入表單名稱
-     * @param condition 傳入查詢的條件
-     * @param groups 傳入要群組的欄位
-     * @return 傳回查詢結果，若為null，表示沒找到結果
+     * @return 傳回是否恢復成功
      */
-    public static JSONArray count(final String tableName, final ConditionInterface condition, final String... groups) {
+    public static boolean rollBack() {
         if (!available) {
-            Printer.err("count: not available");
-            return null;
+            Printer.err("rollBack: not available");
+            return false;
         }
-        if (tableName == null || tableName.trim().length() == 0) {
-            Printer.err("count: tableName is empty");
-            return null;
-        } else if (tableName.contains("`")) {
-            Printer.err("count: tableName has illegal character");
-            return null;
+        if (autoCommit) {
+            Printer.err("rollBack: in the auto commit mode");
+            return false;
         }
-
         try {
-            final StringBuilder sb = new StringBuilder("SELECT ");
-            final StringBuilder sbGroup = new StringBuilder("");
-            if (groups == null) {
-                sb.append("count(*)");
-            } else {
-                final int groupLengthDec = groups.length - 1;
-                if (groupLengthDec < 0) {
-                    sb.append("count(*)");
-                } else {
-                    for (int i = 0; i <= groupLengthDec; ++i) {
-                        final String name = groups[i];
-                        if (name == null || name.trim().length() == 0) {
-                            throw new Exception("group column name empty");
-                        } else if (name.contains("`")) {
-                            throw new Exception("columnName has illegal character");
-                        }
-                        sb.append("`").append(name).append("`");
-                        sbGroup.append("`").append(name).append("`");
-                        if (i != groupLengthDec) {
-                            sb.append(",");
-                            sbGroup.append(",");
-                        }
-                    }
-                    sb.append(",count(*)");
-                }
-            }
-            final LinkedList list = new LinkedList();
-            sb.append(" FROM `").append(tableName).append("`");
-            if (condition != null) {
-                sb.append(" WHERE ").append(condition.toConditionString(list));
-            }
-            if (sbGroup.length() > 0) {
-                sb.append(" GROUP BY ").append(sbGroup);
-            }
-            final String statement = sb.toString();
-            Printer.print("count: ".concat(statement));
-            final PreparedStatement stat = conn.prepareStatement(statement);
-            prepareStatement(stat, list);
-            final JSONArray array = executeQuery(stat, tableName, false);
-            return array;
-        } catch (final Exception ex) {
-            Printer.err("count: cannot select, ".concat(ex.getMessage()));
-            return null;
+            conn.rollback();
+            Printer.print("rollBack");
+            return true;
+        } catch (final SQLException ex) {
+            Printer.err("rollBack: cannot commit, ", ex.getMessage());
+            return false;
         }
     }
 
     /**
-     * 插入資料到表單。
+     * 設定ContentCenter是否使用AutoCommit。
+     *
+     * @param autoCommit 傳入ContentCenter是否使用AutoCommit
+     * @return 傳回是否設定成功
+     */
+    public static boolean setAutoCommit(final boolean autoCommit) {
+        if (!available) {
+            Printer.err("setAutoCommit: not available");
+            return false;
+        }
+        if (OS == OperatingSystems.ANDROID) {
+            Printer.err("setAutoCommit: not support for android");
+            return false;
+        }
+        try {
+            conn.setAutoCommit(autoCommit);
+            ContentCenter.autoCommit = autoCommit;
+            return true;
+        } catch (final SQLException ex) {
+            Printer.err("setAutoCommit: cannot set commit mode at this time");
+            return false;
+        }
+    }
+
+    /**
+     * 手動儲存資料庫目前的狀態(ANDROID作業系統將無效果)。
+     *
+     * @return 傳回是否儲存成功
+     */
+    public static boolean commit() {
+        if (!available) {
+            Printer.err("commit: not available");
+            return false;
+        }
+        if (autoCommit) {
+            Printer.err("commit: in the auto commit mode");
+            return false;
+        }
+        try {
+            conn.commit();
+            Printer.print("commit");
+            return true;
+        } catch (final SQLException ex) {
+            Printer.err("commit: cannot commit, ", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 清空表單的資料。
      *
      * @param tableName 傳入表單名稱
-     * @param content 傳入插入的資料內容
-     * @return 傳回資料是否插入成功
+     * @return 傳回表單是否清除成功
      */
-    public static boolean insert(final String tableName, final JSONObject content) {
-        return insert(tableName, content, false, false);
+    public static boolean deleteTable(final String tableName) {
+        return deleteTable(tableName, false, false);
     }
 
     /**
-     * 插入資料到表單。
+     * 清空表單的資料。
      *
      * @param tableName 傳入表單名稱
-     * @param content 傳入插入的資料內容
      * @param notifyObserver 傳入是否通知給觀察者
      * @param notifySync 傳入是否通知同步到伺服器
-     * @return 傳回資料是否插入成功
+     * @return 傳回表單是否清除成功
      */
-    public static boolean insert(final String tableName, final JSONObject content, final boolean notifyObserver, final boolean notifySync) {
-        return insert(tableName, content, notifyObserver, notifySync, System.currentTimeMillis());
+    public static boolean deleteTable(final String tableName, final boolean notifyObserver, final boolean notifySync) {
+        return deleteTable(tableName, notifyObserver, notifySync, System.currentTimeMillis());
     }
 
     /**
-     * 插入資料到表單。
+     * 清空表單的資料。
      *
      * @param tableName 傳入表單名稱
-     * @param content 傳入插入的資料內容
      * @param notifyObserver 傳入是否通知給觀察者
      * @param notifySync 傳入是否通知同步到伺服器
      * @param notifyID 傳入通知的ID
-     * @return 傳回資料是否插入成功
+     * @return 傳回表單是否清除成功
      */
-    public static boolean insert(final String tableName, final JSONObject content, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
+    public static boolean deleteTable(final String tableName, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
         if (!available) {
-            Printer.err("insert: not available");
+            Printer.err("deleteTable: not available");
             return false;
         }
         if (tableName == null || tableName.trim().length() == 0) {
-            Printer.err("insert: tableName is empty");
-            return false;
-        } else if (content == null) {
-            Printer.err("insert: json is null");
+            Printer.err("deleteTable: tableName is empty");
             return false;
         } else if (tableName.contains("`")) {
-            Printer.err("insert: tableName has illegal character");
+            Printer.err("deleteTable: tableName has illegal character");
             return false;
         }
         try {
-            final StringBuilder sb = new StringBuilder("INSERT INTO `");
-            final LinkedList<Object> list = new LinkedList<>();
-            sb.append(tableName).append("` (");
+            final StringBuilder sb = new StringBuilder("DELETE FROM `");
+            sb.append(tableName).append("`");
 
-            final StringBuilder value = new StringBuilder();
-            final Set<String> columns = content.keySet();
-            int i = 0;
-            final int l = columns.size();
-            for (final String column : columns) {
-                if (column.contains("`")) {
-                    throw new Exception("columnName has illegal character");
-                }
-                final Object obj = content.get(column);
-                if (obj instanceof String) {
-                    final String sValue = obj.toString();
-                    if (hsHideColumn.contains(getAbsolutePath(tableName, column))) {
-                        list.add(StringHider.compression(StringHider.hideString(sValue, hideKey, false)));
-                    } else {
-                        list.add(obj);
-                    }
-                } else {
-                    list.add(obj);
-                }
-                value.append("?");
-                sb.append("`").append(column).append("`");
-                if (i != l - 1) {
-                    sb.append(",");
-                    value.append(",");
-                }
-                ++i;
-            }
-            sb.append(") VALUES (").append(value).append(")");
             final String statement = sb.toString();
-            Printer.print("insert: ".concat(statement));
+            Printer.print("deleteTable: ", statement);
             final PreparedStatement stat = conn.prepareStatement(statement);
-            prepareStatement(stat, list);
-            int n = executeUpdate(stat);
+            final int n = executeUpdate(stat);
             if (n > 0) {
                 final JSONObject notify = new JSONObject();
-                notify.put(JSONInsert.JSON_TYPE, JSONInsert.TYPE_INSERT);
-                notify.put(JSONInsert.JSON_ID, notifyID);
-                notify.put(JSONInsert.JSON_TABLE_NAME, tableName);
-                notify.put(JSONInsert.JSON_INSERT_CONTENT, content);
+                notify.put(JSONDelete.JSON_TYPE, JSONInsert.TYPE_DELETE);
+                notify.put(JSONDelete.JSON_ID, notifyID);
+                notify.put(JSONDelete.JSON_TABLE_NAME, tableName);
                 if (notifyObserver) {
-                    if (!callBack(EVENT.INSERT, NOTIFY.OBSERVER, notify)) {
-                        Printer.err("insert: cannot notify observer");
-                    }
-                    if (notifySync) {
-                        final JSONObject sync = new JSONObject();
-                        sync.put(DB_SYNC_TEXT, notify.toString());
-                        insert(DB_SYNC, sync);
+                    if (!callBack(EVENT.DELETE, NOTIFY.OBSERVER, notify)) {
+                        Printer.err("deleteTable: cannot notify observer");
                     }
                 }
+                if (notifySync) {
+                    final JSONObject sync = new JSONObject();
+                    sync.put(DB_SYNC_TEXT, notify.toString());
+                    insert(DB_SYNC, sync);
+                }
             }
             return true;
         } catch (final Exception ex) {
-            Printer.err("insert: cannot insert, ".concat(ex.getMessage()));
+            Printer.err("deleteTable: cannot delete table, ", ex.getMessage());
             return false;
         }
     }
 
     /**
-     * 插入多筆資料到表單。
+     * 刪除資料庫的表單。
      *
      * @param tableName 傳入表單名稱
-     * @param columnsReference 傳入欄位參考資料(要使用的欄位)
-     * @param content 傳入插入的資料內容
-     * @return 傳回資料是否插入成功
+     * @return 傳回表單是否刪除成功
      */
-    public static boolean multiInsert(final String tableName, final JSONObject columnsReference, final JSONArray content) {
-        return multiInsert(tableName, columnsReference, content, 0, Integer.MAX_VALUE);
+    public static boolean dropTable(final String tableName) {
+        if (!available) {
+            Printer.err("dropTable: not available");
+            return false;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("dropTable: tableName is empty");
+            return false;
+        } else if (tableName.contains("`")) {
+            Printer.err("dropTable: tableName has illegal character");
+            return false;
+        }
+        try {
+            final StringBuilder sb = new StringBuilder("DROP TABLE `");
+            sb.append(tableName).append("`");
+
+            final String statement = sb.toString();
+            Printer.print("dropTable: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            executeUpdate(stat);
+            final String fullTextTable = tableName.concat(DB_FULL_TEXT_SUFFIX);
+            if (hasTable(fullTextTable)) {
+                final String fullTextStatement = "DROP TABLE `" + fullTextTable + "`";
+                Printer.print("dropTable: ", fullTextStatement);
+                executeUpdate(conn.prepareStatement(fullTextStatement));
+            }
+            final Condition c1 = new Condition();
+            c1.setCondition(DB_HIDE_COLUMN_TABLE, tableName, ConditionType.EQUAL);
+            final JSONArray array = query(DB_HIDE_COLUMN, c1);
+            int l = array.length();
+            for (int i = 0; i < l; ++i) {
+                final JSONObject json = array.getJSONObject(i);
+                String t = json.getString(DB_HIDE_COLUMN_TABLE);
+                String c = json.getString(DB_HIDE_COLUMN_COLUMN);
+                hsHideColumn.remove(getAbsolutePath(t, c));
+            }
+            delete(DB_HIDE_COLUMN, c1);
+            SchemaCenter.remove(tableName);
+            IndexAdvisorCenter.remove(tableName);
+            return true;
+        } catch (final Exception ex) {
+            Printer.err("dropTable: cannot drop, ", ex.getMessage());
+            return false;
+        }
     }
 
     /**
-     * 插入多筆資料到表單。
+     * 刪除表單內的資料。
      *
      * @param tableName 傳入表單名稱
-     * @param columnsReference 傳入欄位參考資料(要使用的欄位)
-     * @param content 傳入插入的資料內容
-     * @param offset 傳入插入的資料位移量
-     * @param length 傳入插入的資料數量
-     * @return 傳回資料是否插入成功
+     * @param condition 傳入刪除的資料條件
+     * @return 傳回資料是否刪除成功
      */
-    public static boolean multiInsert(final String tableName, final JSONObject columnsReference, final JSONArray content, int offset, int length) {
+    public static boolean delete(final String tableName, final ConditionInterface condition) {
+        return delete(tableName, condition, false, false);
+    }
+
+    /**
+     * 刪除表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入刪除的資料條件
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @return 傳回資料是否刪除成功
+     */
+    public static boolean delete(final String tableName, final ConditionInterface condition, boolean notifyObserver, boolean notifySync) {
+        return delete(tableName, condition, notifyObserver, notifySync, System.currentTimeMillis());
+    }
+
+    /**
+     * 刪除表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入刪除的資料條件
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     * @return 傳回資料是否刪除成功
+     */
+    public static boolean delete(final String tableName, final ConditionInterface condition, boolean notifyObserver, boolean notifySync, long notifyID) {
         if (!available) {
-            Printer.err("multiInsert: not available");
+            Printer.err("delete: not available");
             return false;
         }
         if (tableName == null || tableName.trim().length() == 0) {
-            Printer.err("multiInsert: tableName is empty");
-            return false;
-        } else if (columnsReference == null) {
-            Printer.err("multiInsert: columns reference is null");
+            Printer.err("delete: tableName is empty");
             return false;
-        } else if (content == null) {
-            Printer.err("multiInsert: json is null");
+        } else if (condition == null) {
+            Printer.err("delete: condition is null");
             return false;
         } else if (tableName.contains("`")) {
-            Printer.err("multiInsert: tableName has illegal character");
+            Printer.err("delete: tableName has illegal character");
             return false;
         }
-        if (offset < 0) {
-            offset = 0;
-        }
-        if (length < 0) {
-            length = 0;
-        }
+        final long startTime = System.nanoTime();
+        final ArrayList<String> temporaryTables = new ArrayList<>();
         try {
-            final StringBuilder sb = new StringBuilder("INSERT INTO `");
+            final StringBuilder sb = new StringBuilder("DELETE FROM `");
             final LinkedList<Object> list = new LinkedList<>();
-            sb.append(tableName).append("` (");
+            sb.append(tableName).append("`");
 
-            final int contentLength = content.length();
-            final int contentLength_dec = contentLength - 1;
-            final int min, max;
-            if (offset > contentLength_dec) {
-                min = contentLength_dec;
-            } else {
-                min = offset;
+            final String conditionString = spillLargeKeySets(tableName, condition, temporaryTables).toConditionString(list);
+            sb.append(" WHERE ").append(conditionString);
+            final String statement = sb.toString();
+            Printer.print("delete: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final int n = executeUpdate(stat);
+            MetricsCenter.record(OperationType.DELETE, tableName, n, startTime, true);
+            checkSlowQuery(OperationType.DELETE, tableName, statement, list, n, startTime);
+            IndexAdvisorCenter.record(tableName, condition, null, startTime);
+            if (n > 0) {
+                final JSONObject notify = new JSONObject();
+                notify.put(JSONDelete.JSON_TYPE, JSONInsert.TYPE_DELETE);
+                notify.put(JSONDelete.JSON_ID, notifyID);
+                notify.put(JSONDelete.JSON_TABLE_NAME, tableName);
+                notify.put(JSONDelete.JSON_DELETE_CONDITION, conditionString);
+                if (notifyObserver) {
+                    if (!callBack(EVENT.DELETE, NOTIFY.OBSERVER, notify)) {
+                        Printer.err("delete: cannot notify observer");
+                    }
+                }
+                if (notifySync) {
+                    final JSONObject sync = new JSONObject();
+                    sync.put(DB_SYNC_TEXT, notify.toString());
+                    insert(DB_SYNC, sync);
+                }
             }
-            final int maxTemp = min + length;
-            if (maxTemp > contentLength) {
-                max = contentLength;
-            } else {
-                max = maxTemp;
+            return true;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.DELETE, tableName, 0, startTime, false);
+            Printer.err("delete: cannot delete, ", ex.getMessage());
+            return false;
+        } finally {
+            dropTemporaryTables(temporaryTables);
+        }
+    }
+
+    /**
+     * 依照Key值批次刪除表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param keyColumn 傳入Key欄位名稱
+     * @param keys 傳入要刪除的資料的Key值
+     * @return 傳回資料是否刪除成功
+     */
+    public static boolean deleteBatch(final String tableName, final String keyColumn, final Collection<?> keys) {
+        return deleteBatch(tableName, keyColumn, keys, false, false);
+    }
+
+    /**
+     * 依照Key值批次刪除表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param keyColumn 傳入Key欄位名稱
+     * @param keys 傳入要刪除的資料的Key值
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @return 傳回資料是否刪除成功
+     */
+    public static boolean deleteBatch(final String tableName, final String keyColumn, final Collection<?> keys, final boolean notifyObserver, final boolean notifySync) {
+        return deleteBatch(tableName, keyColumn, keys, notifyObserver, notifySync, System.currentTimeMillis());
+    }
+
+    /**
+     * 依照Key值批次刪除表單內的資料。所有的刪除會重複使用同一個SQL敘述，在同一個交易(Transaction)中完成，並且只會通知一次刪除(DELETE)事件。Key欄位若是隱藏欄位，必須要有盲索引。
+     *
+     * @param tableName 傳入表單名稱
+     * @param keyColumn 傳入Key欄位名稱
+     * @param keys 傳入要刪除的資料的Key值
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     * @return 傳回資料是否刪除成功
+     */
+    public static boolean deleteBatch(final String tableName, final String keyColumn, final Collection<?> keys, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
+        if (!available) {
+            Printer.err("deleteBatch: not available");
+            return false;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("deleteBatch: tableName is empty");
+            return false;
+        } else if (keyColumn == null || keyColumn.trim().length() == 0) {
+            Printer.err("deleteBatch: keyColumn is empty");
+            return false;
+        } else if (keys == null) {
+            Printer.err("deleteBatch: keys is null");
+            return false;
+        } else if (tableName.contains("`") || keyColumn.contains("`")) {
+            Printer.err("deleteBatch: name has illegal character");
+            return false;
+        }
+        if (keys.isEmpty()) {
+            return true;
+        }
+        final long startTime = System.nanoTime();
+        final String savepoint = beginSavepoint();
+        if (savepoint == null) {
+            Printer.err("deleteBatch: cannot begin transaction");
+            return false;
+        }
+        try {
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            final String comparisonColumn = getKeyComparisonColumn(tableName, schema, keyColumn);
+            final String statement = "DELETE FROM `" + tableName + "` WHERE `" + comparisonColumn + "` = ?";
+            Printer.print("deleteBatch: ", statement);
+            final JSONArray deletedKeys = new JSONArray();
+            int n = 0;
+            try (PreparedStatement stat = conn.prepareStatement(statement)) {
+                for (final Object key : keys) {
+                    if (key == null) {
+                        throw new Exception("key is null");
+                    }
+                    bindParameter(stat, 1, toKeyComparisonValue(tableName, schema, keyColumn, comparisonColumn, key));
+                    stat.addBatch();
+                    deletedKeys.put(key);
+                }
+                n = sumBatchCounts(stat.executeBatch());
             }
-            length = max - min;
-            final int length_dec = length - 1;
-            final StringBuilder[] values = new StringBuilder[length];
-            for (int i = 0; i < length; ++i) {
-                values[i] = new StringBuilder("");
+            if (!endSavepoint(savepoint, true)) {
+                throw new Exception("cannot commit");
+            }
+            MetricsCenter.record(OperationType.DELETE, tableName, n, startTime, true);
+            if (n > 0) {
+                final JSONObject notify = new JSONObject();
+                notify.put(JSONDelete.JSON_TYPE, JSONInsert.TYPE_DELETE);
+                notify.put(JSONDelete.JSON_ID, notifyID);
+                notify.put(JSONDelete.JSON_TABLE_NAME, tableName);
+                notify.put(JSONDelete.JSON_DELETE_KEY_COLUMN, keyColumn);
+                notify.put(JSONDelete.JSON_DELETE_KEYS, deletedKeys);
+                if (notifyObserver) {
+                    if (!callBack(EVENT.DELETE, NOTIFY.OBSERVER, notify)) {
+                        Printer.err("deleteBatch: cannot notify observer");
+                    }
+                }
+                if (notifySync) {
+                    final JSONObject sync = new JSONObject();
+                    sync.put(DB_SYNC_TEXT, notify.toString());
+                    insert(DB_SYNC, sync);
+                }
             }
+            return true;
+        } catch (final Exception ex) {
+            endSavepoint(savepoint, false);
+            MetricsCenter.record(OperationType.DELETE, tableName, 0, startTime, false);
+            Printer.err("deleteBatch: cannot delete, ", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 更新表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入更新的資料內容
+     * @param condition 傳入更新的資料條件
+     * @return 傳回表單資料是否更新成功
+     */
+    public static boolean update(final String tableName, final JSONObject content, final ConditionInterface condition) {
+        return update(tableName, content, condition, false, false);
+    }
+
+    /**
+     * 更新表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param json 傳入更新的資料內容
+     * @param condition 傳入更新的資料條件
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @return 傳回表單資料是否更新成功
+     */
+    public static boolean update(final String tableName, final JSONObject json, final ConditionInterface condition, final boolean notifyObserver, final boolean notifySync) {
+        return update(tableName, json, condition, notifyObserver, notifySync, System.currentTimeMillis());
+    }
 
-            final Set<String> columns = columnsReference.keySet();
+    /**
+     * 更新表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param json 傳入更新的資料內容
+     * @param condition 傳入更新的資料條件
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     * @return 傳回表單資料是否更新成功
+     */
+    public static boolean update(final String tableName, final JSONObject json, final ConditionInterface condition, boolean notifyObserver, boolean notifySync, long notifyID) {
+        if (!available) {
+            Printer.err("update: not available");
+            return false;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("update: tableName is empty");
+            return false;
+        } else if (json == null) {
+            Printer.err("update: json is null");
+            return false;
+        } else if (condition == null) {
+            Printer.err("update: condition is null");
+            return false;
+        } else if (tableName.contains("`")) {
+            Printer.err("update: tableName has illegal character");
+            return false;
+        }
+        final long startTime = System.nanoTime();
+        final ArrayList<String> temporaryTables = new ArrayList<>();
+        try {
+            final StringBuilder sb = new StringBuilder("UPDATE `");
+            final LinkedList<Object> list = new LinkedList<>();
+            sb.append(tableName).append("` SET ");
+
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            final JSONObject row = withBlindIndexes(tableName, schema, json);
+            final Set<String> columns = row.keySet();
             int i = 0;
-            final int l = columns.size();
-            final int l_dec = l - 1;
-            final ArrayList<String> columnList = new ArrayList<>();
+            int l = columns.size();
             for (final String column : columns) {
                 if (column.contains("`")) {
                     throw new Exception("columnName has illegal character");
                 }
-                sb.append("`").append(column).append("`");
-                columnList.add(column);
+                sb.append("`").append(column).append("`").append(" = ");
+                list.add(toStoredValue(tableName, schema, column, row.get(column)));
+                sb.append("?");
 
-                if (i != l_dec) {
-                    sb.append(",");
+                if (i != l - 1) {
+                    sb.append(", ");
                 }
                 ++i;
             }
-            sb.append(") VALUES ");
-
-            for (int j = min; j < max; ++j) {
-                final JSONObject row = content.getJSONObject(j);
-                final StringBuilder value = values[j - min];
-
-                i = 0;
-                for (final String column : columnList) {
-                    final Object obj = row.get(column);
-
-                    if (obj != null) {
-                        if (obj instanceof String) {
-                            final String sValue = obj.toString();
-                            if (hsHideColumn.contains(getAbsolutePath(tableName, column))) {
-                                list.add(StringHider.compression(StringHider.hideString(sValue, hideKey, false)));
-                            } else {
-                                list.add(obj);
-                            }
-                        } else {
-                            list.add(obj);
-                        }
-                        value.append("?");
-                    }
-                    if (i != l_dec) {
-                        value.append(",");
+            final LinkedList<Object> conditionRightValue = new LinkedList<>();
+            final String conditionString = spillLargeKeySets(tableName, condition, temporaryTables).toConditionString(conditionRightValue);
+            sb.append(" WHERE ").append(conditionString);
+            final String statement = sb.toString();
+            Printer.print("update: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            list.addAll(conditionRightValue);
+            prepareStatement(stat, list);
+            int n = executeUpdate(stat);
+            MetricsCenter.record(OperationType.UPDATE, tableName, n, startTime, true);
+            checkSlowQuery(OperationType.UPDATE, tableName, statement, list, n, startTime);
+            IndexAdvisorCenter.record(tableName, condition, null, startTime);
+            if (n > 0) {
+                final JSONObject notify = new JSONObject();
+                notify.put(JSONUpdate.JSON_TYPE, JSONInsert.TYPE_UPDATE);
+                notify.put(JSONUpdate.JSON_ID, notifyID);
+                notify.put(JSONUpdate.JSON_TABLE_NAME, tableName);
+                notify.put(JSONUpdate.JSON_UPDATE_CONTENT, tableName);
+                notify.put(JSONUpdate.JSON_UPDATE_CONDITION, conditionString);
+                if (notifyObserver) {
+                    if (!callBack(EVENT.UPDATE, NOTIFY.OBSERVER, notify)) {
+                        Printer.err("update: cannot notify observer");
                     }
-                    ++i;
                 }
-            }
-            for (i = 0; i < length; ++i) {
-                sb.append("(").append(values[i]).append(")");
-                if (i != length_dec) {
-                    sb.append(",");
+                if (notifySync) {
+                    final JSONObject sync = new JSONObject();
+                    sync.put(DB_SYNC_TEXT, notify.toString());
+                    insert(DB_SYNC, sync);
                 }
             }
-            final String statement = sb.toString();
-            Printer.print("multiInsert: ".concat(statement));
-            final PreparedStatement stat = conn.prepareStatement(statement);
-            prepareStatement(stat, list);
-            executeUpdate(stat);
             return true;
         } catch (final Exception ex) {
-            Printer.err("multiInsert: cannot insert, ".concat(ex.getMessage()));
+            MetricsCenter.record(OperationType.UPDATE, tableName, 0, startTime, false);
+            Printer.err("update: cannot update, ", ex.getMessage());
+            return false;
+        } finally {
+            dropTemporaryTables(temporaryTables);
+        }
+    }
+
+    /**
+     * 依照Key值批次更新表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param keyColumn 傳入Key欄位名稱
+     * @param rows 傳入每筆資料的更新內容，必須包含Key欄位
+     * @return 傳回表單資料是否更新成功
+     */
+    public static boolean updateBatch(final String tableName, final String keyColumn, final List<JSONObject> rows) {
+        return updateBatch(tableName, keyColumn, rows, false, false);
+    }
+
+    /**
+     * 依照Key值批次更新表單內的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param keyColumn 傳入Key欄位名稱
+     * @param rows 傳入每筆資料的更新內容，必須包含Key欄位
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @return 傳回表單資料是否更新成功
+     */
+    public static boolean updateBatch(final String tableName, final String keyColumn, final List<JSONObject> rows, final boolean notifyObserver, final boolean notifySync) {
+        return updateBatch(tableName, keyColumn, rows, notifyObserver, notifySync, System.currentTimeMillis());
+    }
+
+    /**
+     * 依照Key值批次更新表單內的資料。更新欄位相同的資料會重複使用同一個SQL敘述，所有的更新會在同一個交易(Transaction)中完成，並且只會通知一次更新(UPDATE)事件。Key欄位若是隱藏欄位，必須要有盲索引。
+     *
+     * @param tableName 傳入表單名稱
+     * @param keyColumn 傳入Key欄位名稱
+     * @param rows 傳入每筆資料的更新內容，必須包含Key欄位
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     * @return 傳回表單資料是否更新成功
+     */
+    public static boolean updateBatch(final String tableName, final String keyColumn, final List<JSONObject> rows, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
+        if (!available) {
+            Printer.err("updateBatch: not available");
+            return false;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("updateBatch: tableName is empty");
+            return false;
+        } else if (keyColumn == null || keyColumn.trim().length() == 0) {
+            Printer.err("updateBatch: keyColumn is empty");
+            return false;
+        } else if (rows == null) {
+            Printer.err("updateBatch: rows is null");
             return false;
+        } else if (tableName.contains("`") || keyColumn.contains("`")) {
+            Printer.err("updateBatch: name has illegal character");
+            return false;
+        }
+        if (rows.isEmpty()) {
+            return true;
+        }
+        final long startTime = System.nanoTime();
+        final String savepoint = beginSavepoint();
+        if (savepoint == null) {
+            Printer.err("updateBatch: cannot begin transaction");
+            return false;
+        }
+        try {
+            // 依照更新的欄位將資料分組
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            final String comparisonColumn = getKeyComparisonColumn(tableName, schema, keyColumn);
+            final LinkedHashMap<String, ArrayList<JSONObject>> groups = new LinkedHashMap<>();
+            final HashMap<String, ArrayList<String>> groupColumns = new HashMap<>();
+            for (final JSONObject content : rows) {
+                if (content == null || content.isNull(keyColumn)) {
+                    throw new Exception("key is null");
+                }
+                final JSONObject row = withBlindIndexes(tableName, schema, content);
+                final ArrayList<String> columns = new ArrayList<>();
+                for (final String column : row.keySet()) {
+                    if (column.contains("`")) {
+                        throw new Exception("columnName has illegal character");
+                    } else if (!column.equals(keyColumn) && !column.equals(comparisonColumn)) {
+                        columns.add(column);
+                    }
+                }
+                if (columns.isEmpty()) {
+                    continue;
+                }
+                Collections.sort(columns);
+                final String signature = columns.toString();
+                ArrayList<JSONObject> group = groups.get(signature);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(signature, group);
+                    groupColumns.put(signature, columns);
+                }
+                group.add(row);
+            }
+            int n = 0;
+            for (final String signature : groups.keySet()) {
+                final ArrayList<String> columns = groupColumns.get(signature);
+                final StringBuilder sb = new StringBuilder("UPDATE `");
+                sb.append(tableName).append("` SET ");
+                for (int i = 0; i < columns.size(); ++i) {
+                    if (i > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append("`").append(columns.get(i)).append("` = ?");
+                }
+                sb.append(" WHERE `").append(comparisonColumn).append("` = ?");
+                final String statement = sb.toString();
+                Printer.print("updateBatch: ", statement);
+                try (PreparedStatement stat = conn.prepareStatement(statement)) {
+                    for (final JSONObject row : groups.get(signature)) {
+                        int index = 1;
+                        for (final String column : columns) {
+                            bindParameter(stat, index++, toStoredValue(tableName, schema, column, row.opt(column)));
+                        }
+                        bindParameter(stat, index, toKeyComparisonValue(tableName, schema, keyColumn, comparisonColumn, row.opt(keyColumn)));
+                        stat.addBatch();
+                    }
+                    n += sumBatchCounts(stat.executeBatch());
+                }
+            }
+            if (!endSavepoint(savepoint, true)) {
+                throw new Exception("cannot commit");
+            }
+            MetricsCenter.record(OperationType.UPDATE, tableName, n, startTime, true);
+            if (n > 0) {
+                final JSONArray updatedRows = new JSONArray();
+                for (final JSONObject row : rows) {
+                    updatedRows.put(row);
+                }
+                final JSONObject notify = new JSONObject();
+                notify.put(JSONUpdate.JSON_TYPE, JSONInsert.TYPE_UPDATE);
+                notify.put(JSONUpdate.JSON_ID, notifyID);
+                notify.put(JSONUpdate.JSON_TABLE_NAME, tableName);
+                notify.put(JSONUpdate.JSON_UPDATE_KEY_COLUMN, keyColumn);
+                notify.put(JSONUpdate.JSON_UPDATE_ROWS, updatedRows);
+                if (notifyObserver) {
+                    if (!callBack(EVENT.UPDATE, NOTIFY.OBSERVER, notify)) {
+                        Printer.err("updateBatch: cannot notify observer");
+                    }
+                }
+                if (notifySync) {
+                    final JSONObject sync = new JSONObject();
+                    sync.put(DB_SYNC_TEXT, notify.toString());
+                    insert(DB_SYNC, sync);
+                }
+            }
+            return true;
+        } catch (final Exception ex) {
+            endSavepoint(savepoint, false);
+            MetricsCenter.record(OperationType.UPDATE, tableName, 0, startTime, false);
+            Printer.err("updateBatch: cannot update, ", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public static JSONArray query(final String tableName, final Order... orders) {
+        return query(tableName, null, null, orders);
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public static JSONArray query(final String tableName, final String[] columnNames, final Order... orders) {
+        return query(tableName, columnNames, null, orders);
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入查詢的條件
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public static JSONArray query(final String tableName, final ConditionInterface condition, final Order... orders) {
+        return query(tableName, null, condition, orders);
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入查詢的條件
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param reverse 傳入是否要反向
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public static JSONArray query(final String tableName, final ConditionInterface condition, final int limit, final boolean reverse) {
+        return query(tableName, null, condition, limit, reverse);
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入查詢的條件
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param reverse 傳入是否要反向
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public static JSONArray query(final String tableName, final ConditionInterface condition, final int limit, final boolean reverse, final Order... orders) {
+        return query(tableName, null, condition, limit, reverse, orders);
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public static JSONArray query(final String tableName, final String[] columnNames, final ConditionInterface condition, final Order... orders) {
+        return query(tableName, columnNames, condition, 0, false, orders);
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param reverse 傳入是否要反向
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public static JSONArray query(final String tableName, final String[] columnNames, final ConditionInterface condition, final int limit, final boolean reverse, final Order... orders) {
+        return query(tableName, columnNames, condition, 0, limit, reverse, orders);
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param offset 傳入一開始要略過的筆數，小於等於零不略過
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param reverse 傳入是否要反向
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public static JSONArray query(final String tableName, final String[] columnNames, final ConditionInterface condition, final int offset, final int limit, final boolean reverse, final Order... orders) {
+        return query(tableName, columnNames, condition, offset, limit, reverse, null, orders);
+    }
+
+    /**
+     * 查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param offset 傳入一開始要略過的筆數，小於等於零不略過
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param reverse 傳入是否要反轉
+     * @param rowIdOrder 傳入rowid的排序方式，不為null時會多查詢rowid並用它做最後的排序
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若JSONArray大小為0，表示沒找到結果；若JSONArray為null，表示查詢失敗
+     */
+    private static JSONArray query(final String tableName, final String[] columnNames, final ConditionInterface condition, final int offset, final int limit, final boolean reverse, final OrderType rowIdOrder, final Order... orders) {
+        if (!available) {
+            Printer.err("query: not available");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("query: tableName is empty");
+            return null;
+        } else if (tableName.contains("`")) {
+            Printer.err("query: tableName has illegal character");
+            return null;
+        }
+
+        final long startTime = System.nanoTime();
+        final ArrayList<String> temporaryTables = new ArrayList<>();
+        try {
+            final LinkedList<Object> list = new LinkedList<>();
+            final String statement = getSelectStatement(tableName, columnNames, condition == null ? null : spillLargeKeySets(tableName, condition, temporaryTables), list, offset, limit, orders, rowIdOrder);
+            Printer.print("query: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final JSONArray array = executeQuery(stat, tableName, reverse);
+            MetricsCenter.record(OperationType.QUERY, tableName, array.length(), startTime, true);
+            checkSlowQuery(OperationType.QUERY, tableName, statement, list, array.length(), startTime);
+            IndexAdvisorCenter.record(tableName, condition, orders, startTime);
+            return array;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.QUERY, tableName, 0, startTime, false);
+            Printer.err("query: cannot select, ", ex.getMessage());
+            return null;
+        } finally {
+            dropTemporaryTables(temporaryTables);
+        }
+    }
+
+    /**
+     * 用全文檢索查詢表單的資料，結果依照相關性排序。每筆結果都會加上相關性分數(FULL_TEXT_RANK)和符合內容的片段(FULL_TEXT_SNIPPET)。
+     *
+     * @param tableName 傳入表單名稱，表單必須有全文檢索欄位
+     * @param query 傳入FTS5的查詢字串
+     * @return 傳回查詢結果，若JSONArray大小為0，表示沒找到結果；若JSONArray為null，表示查詢失敗
+     */
+    public static JSONArray searchFullText(final String tableName, final String query) {
+        return searchFullText(tableName, query, 0, 0);
+    }
+
+    /**
+     * 用全文檢索查詢表單的資料，結果依照相關性排序。每筆結果都會加上相關性分數(FULL_TEXT_RANK)和符合內容的片段(FULL_TEXT_SNIPPET)。
+     *
+     * @param tableName 傳入表單名稱，表單必須有全文檢索欄位
+     * @param query 傳入FTS5的查詢字串
+     * @param offset 傳入要跳過的資料筆數
+     * @param limit 傳入最多要取得的資料筆數，若小於等於0，表示不限制
+     * @return 傳回查詢結果，若JSONArray大小為0，表示沒找到結果；若JSONArray為null，表示查詢失敗
+     */
+    public static JSONArray searchFullText(final String tableName, final String query, final int offset, final int limit) {
+        return searchFullText(tableName, query, "<b>", "</b>", offset, limit);
+    }
+
+    /**
+     * 用全文檢索查詢表單的資料，結果依照相關性排序。每筆結果都會加上相關性分數(FULL_TEXT_RANK)和符合內容的片段(FULL_TEXT_SNIPPET)。
+     *
+     * @param tableName 傳入表單名稱，表單必須有全文檢索欄位
+     * @param query 傳入FTS5的查詢字串
+     * @param startMark 傳入片段中，符合的詞前面要加上的字串
+     * @param endMark 傳入片段中，符合的詞後面要加上的字串
+     * @param offset 傳入要跳過的資料筆數
+     * @param limit 傳入最多要取得的資料筆數，若小於等於0，表示不限制
+     * @return 傳回查詢結果，若JSONArray大小為0，表示沒找到結果；若JSONArray為null，表示查詢失敗
+     */
+    public static JSONArray searchFullText(final String tableName, final String query, final String startMark, final String endMark, final int offset, final int limit) {
+        if (!available) {
+            Printer.err("searchFullText: not available");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("searchFullText: tableName is empty");
+            return null;
+        } else if (query == null || startMark == null || endMark == null) {
+            Printer.err("searchFullText: query or mark is null");
+            return null;
+        } else if (tableName.contains("`")) {
+            Printer.err("searchFullText: tableName has illegal character");
+            return null;
+        }
+        final long startTime = System.nanoTime();
+        try {
+            final String fullTextTable = tableName.concat(DB_FULL_TEXT_SUFFIX);
+            final StringBuilder sb = new StringBuilder("SELECT `");
+            sb.append(tableName).append("`.*, bm25(`").append(fullTextTable).append("`) AS `").append(FULL_TEXT_RANK).append("`, snippet(`").append(fullTextTable).append("`, -1, ?, ?, '...', ").append(DEFAULT_SNIPPET_TOKENS).append(") AS `").append(FULL_TEXT_SNIPPET).append("`");
+            sb.append(" FROM `").append(fullTextTable).append("` JOIN `").append(tableName).append("` ON `").append(tableName).append("`.rowid = `").append(fullTextTable).append("`.rowid");
+            sb.append(" WHERE `").append(fullTextTable).append("` MATCH ? ORDER BY `").append(FULL_TEXT_RANK).append("`");
+            if (limit > 0) {
+                sb.append(" LIMIT ").append(limit);
+            }
+            if (offset > 0) {
+                if (limit <= 0) {
+                    sb.append(" LIMIT -1");
+                }
+                sb.append(" OFFSET ").append(offset);
+            }
+            final String statement = sb.toString();
+            Printer.print("searchFullText: ", statement);
+            final LinkedList<Object> list = new LinkedList<>();
+            list.add(startMark);
+            list.add(endMark);
+            list.add(query);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final JSONArray array = executeQuery(stat, tableName, false);
+            MetricsCenter.record(OperationType.QUERY, tableName, array.length(), startTime, true);
+            checkSlowQuery(OperationType.QUERY, tableName, statement, list, array.length(), startTime);
+            return array;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.QUERY, tableName, 0, startTime, false);
+            Printer.err("searchFullText: cannot search, ", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 查詢表單的資料，並直接對應成指定類別的物件。
+     *
+     * @param <T> 要對應的類別
+     * @param type 傳入要對應的類別，必須要有無參數的建構子
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入查詢的條件
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若List大小為0，表示沒找到結果；若List為null，表示查詢失敗
+     */
+    public static <T> List<T> queryAs(final Class<T> type, final String tableName, final ConditionInterface condition, final Order... orders) {
+        return queryAs(type, tableName, null, condition, 0, 0, orders);
+    }
+
+    /**
+     * 查詢表單的資料，並直接對應成指定類別的物件。欄位會對應到名稱相同或是駝峰式名稱相同的物件欄位(不含static和final欄位)，基本型態的欄位會直接從ResultSet讀取，不會經過JSONObject。
+     *
+     * @param <T> 要對應的類別
+     * @param type 傳入要對應的類別，必須要有無參數的建構子
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param offset 傳入一開始要略過的筆數，小於等於零不略過
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若List大小為0，表示沒找到結果；若List為null，表示查詢失敗
+     */
+    public static <T> List<T> queryAs(final Class<T> type, final String tableName, final String[] columnNames, final ConditionInterface condition, final int offset, final int limit, final Order... orders) {
+        if (!available) {
+            Printer.err("queryAs: not available");
+            return null;
+        }
+        if (type == null) {
+            Printer.err("queryAs: type is null");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("queryAs: tableName is empty");
+            return null;
+        } else if (tableName.contains("`")) {
+            Printer.err("queryAs: tableName has illegal character");
+            return null;
+        }
+
+        final long startTime = System.nanoTime();
+        final ArrayList<String> temporaryTables = new ArrayList<>();
+        try {
+            final RowMapper<T> mapper = RowMapper.forClass(type);
+            final LinkedList<Object> list = new LinkedList<>();
+            final String statement = getSelectStatement(tableName, columnNames, condition == null ? null : spillLargeKeySets(tableName, condition, temporaryTables), list, offset, limit, orders, null);
+            Printer.print("queryAs: ", statement);
+            final ArrayList<T> rows;
+            try (final PreparedStatement stat = conn.prepareStatement(statement)) {
+                prepareStatement(stat, list);
+                try (final ResultSet result = stat.executeQuery()) {
+                    rows = mapper.mapAll(result, tableName);
+                }
+            }
+            MetricsCenter.record(OperationType.QUERY, tableName, rows.size(), startTime, true);
+            checkSlowQuery(OperationType.QUERY, tableName, statement, list, rows.size(), startTime);
+            IndexAdvisorCenter.record(tableName, condition, orders, startTime);
+            return rows;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.QUERY, tableName, 0, startTime, false);
+            Printer.err("queryAs: cannot select, ", ex.getMessage());
+            return null;
+        } finally {
+            dropTemporaryTables(temporaryTables);
+        }
+    }
+
+    /**
+     * 查詢表單的資料，並以欄為單位傳回。適合用在需要讀取大量數值資料的時候，比JSONArray節省許多記憶體。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param offset 傳入一開始要略過的筆數，小於等於零不略過
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若為null，表示查詢失敗
+     */
+    public static ColumnarResult queryColumnar(final String tableName, final String[] columnNames, final ConditionInterface condition, final int offset, final int limit, final Order... orders) {
+        if (!available) {
+            Printer.err("queryColumnar: not available");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("queryColumnar: tableName is empty");
+            return null;
+        } else if (tableName.contains("`")) {
+            Printer.err("queryColumnar: tableName has illegal character");
+            return null;
+        }
+
+        final long startTime = System.nanoTime();
+        final ArrayList<String> temporaryTables = new ArrayList<>();
+        try {
+            final LinkedList<Object> list = new LinkedList<>();
+            final String statement = getSelectStatement(tableName, columnNames, condition == null ? null : spillLargeKeySets(tableName, condition, temporaryTables), list, offset, limit, orders, null);
+            Printer.print("queryColumnar: ", statement);
+            final ColumnarResult columnarResult;
+            try (final PreparedStatement stat = conn.prepareStatement(statement)) {
+                prepareStatement(stat, list);
+                try (final ResultSet result = stat.executeQuery()) {
+                    columnarResult = ColumnarResult.read(result, tableName, limit);
+                }
+            }
+            MetricsCenter.record(OperationType.QUERY, tableName, columnarResult.getRowCount(), startTime, true);
+            checkSlowQuery(OperationType.QUERY, tableName, statement, list, columnarResult.getRowCount(), startTime);
+            IndexAdvisorCenter.record(tableName, condition, orders, startTime);
+            return columnarResult;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.QUERY, tableName, 0, startTime, false);
+            Printer.err("queryColumnar: cannot select, ", ex.getMessage());
+            return null;
+        } finally {
+            dropTemporaryTables(temporaryTables);
+        }
+    }
+
+    /**
+     * 查詢表單的資料，並以NDJSON(每行一個JSON物件)的格式寫到串流，使用UTF-8編碼。串流不會被關閉。進度監聽者收到的位元組數量為實際寫到串流的位元組數量。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param out 傳入輸出串流
+     * @param progressListener 傳入進度監聽者，可以為null
+     * @param orders 傳入結果的排序方法
+     * @return 傳回匯出的資料筆數，若為-1，表示匯出失敗
+     */
+    public static long exportNDJSON(final String tableName, final String[] columnNames, final ConditionInterface condition, final OutputStream out, final ProgressListener progressListener, final Order... orders) {
+        if (out == null) {
+            Printer.err("exportNDJSON: out is null");
+            return -1;
+        }
+        final CountingOutputStream counter = new CountingOutputStream(out);
+        return exportNDJSON(tableName, columnNames, condition, new OutputStreamWriter(counter, Charset.forName("UTF-8")), counter, progressListener, orders);
+    }
+
+    /**
+     * 查詢表單的資料，並以NDJSON(每行一個JSON物件)的格式寫到Writer。資料會從ResultSet逐筆寫出，不會把所有資料留在記憶體中，隱藏欄位會被還原。Writer不會被關閉。進度監聽者收到的位元組數量為寫出的字元數量。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param writer 傳入Writer
+     * @param progressListener 傳入進度監聽者，可以為null
+     * @param orders 傳入結果的排序方法
+     * @return 傳回匯出的資料筆數，若為-1，表示匯出失敗
+     */
+    public static long exportNDJSON(final String tableName, final String[] columnNames, final ConditionInterface condition, final Writer writer, final ProgressListener progressListener, final Order... orders) {
+        return exportNDJSON(tableName, columnNames, condition, writer, null, progressListener, orders);
+    }
+
+    /**
+     * 查詢表單的資料，並以NDJSON(每行一個JSON物件)的格式寫到Writer。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param writer 傳入Writer
+     * @param counter 傳入計算Writer寫出的位元組數量的串流，若為null，進度改用字元數量
+     * @param progressListener 傳入進度監聽者，可以為null
+     * @param orders 傳入結果的排序方法
+     * @return 傳回匯出的資料筆數，若為-1，表示匯出失敗
+     */
+    private static long exportNDJSON(final String tableName, final String[] columnNames, final ConditionInterface condition, final Writer writer, final CountingOutputStream counter, final ProgressListener progressListener, final Order... orders) {
+        if (!available) {
+            Printer.err("exportNDJSON: not available");
+            return -1;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("exportNDJSON: tableName is empty");
+            return -1;
+        } else if (tableName.contains("`")) {
+            Printer.err("exportNDJSON: tableName has illegal character");
+            return -1;
+        } else if (writer == null) {
+            Printer.err("exportNDJSON: writer is null");
+            return -1;
+        }
+
+        final long startTime = System.nanoTime();
+        final ArrayList<String> temporaryTables = new ArrayList<>();
+        long rows = 0;
+        MetricsCenter.beginActivity();
+        try {
+            final LinkedList<Object> list = new LinkedList<>();
+            final String statement = getSelectStatement(tableName, columnNames, condition == null ? null : spillLargeKeySets(tableName, condition, temporaryTables), list, 0, 0, orders, null);
+            Printer.print("exportNDJSON: ", statement);
+            final BufferedWriter bw = writer instanceof BufferedWriter ? (BufferedWriter) writer : new BufferedWriter(writer);
+            long chars = 0;
+            try (PreparedStatement stat = conn.prepareStatement(statement)) {
+                prepareStatement(stat, list);
+                try (ResultSet result = stat.executeQuery()) {
+                    final ResultSetMetaData rsmd = result.getMetaData();
+                    final int l = rsmd.getColumnCount();
+                    while (result.next()) {
+                        final String line = readRow(result, rsmd, l, tableName, true).toString();
+                        bw.write(line);
+                        bw.write('\n');
+                        chars += line.length() + 1;
+                        ++rows;
+                        if (progressListener != null && rows % DEFAULT_EXPORT_PROGRESS_ROWS == 0) {
+                            final long written;
+                            if (counter == null) {
+                                written = chars;
+                            } else {
+                                bw.flush();
+                                written = counter.count;
+                            }
+                            if (!progressListener.onProgress(tableName, rows, written, System.nanoTime() - startTime, false)) {
+                                throw new Exception("canceled");
+                            }
+                        }
+                    }
+                }
+            }
+            bw.flush();
+            if (progressListener != null) {
+                progressListener.onProgress(tableName, rows, counter == null ? chars : counter.count, System.nanoTime() - startTime, true);
+            }
+            MetricsCenter.record(OperationType.EXPORT, tableName, rows, startTime, true);
+            return rows;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.EXPORT, tableName, rows, startTime, false);
+            Printer.err("exportNDJSON: cannot export, ", ex.getMessage());
+            return -1;
+        } finally {
+            dropTemporaryTables(temporaryTables);
+            MetricsCenter.endActivity();
+        }
+    }
+
+    /**
+     * 編譯查詢樣板。查詢樣板的SQL敘述只會產生一次，並且會一直保留PreparedStatement，之後只需要傳入條件中Placeholder的值就可以重複執行。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件，要在執行時才決定的值請使用Placeholder
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢樣板，若為null，表示編譯失敗
+     */
+    public static QueryTemplate compileQuery(final String tableName, final String[] columnNames, final ConditionInterface condition, final Order... orders) {
+        return compileQuery(tableName, columnNames, condition, 0, 0, false, orders);
+    }
+
+    /**
+     * 編譯查詢樣板。查詢樣板的SQL敘述只會產生一次，並且會一直保留PreparedStatement，之後只需要傳入條件中Placeholder的值就可以重複執行。使用完後要呼叫查詢樣板的close方法。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件，要在執行時才決定的值請使用Placeholder
+     * @param offset 傳入一開始要略過的筆數，小於等於零不略過
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param reverse 傳入是否要反向
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢樣板，若為null，表示編譯失敗
+     */
+    public static QueryTemplate compileQuery(final String tableName, final String[] columnNames, final ConditionInterface condition, final int offset, final int limit, final boolean reverse, final Order... orders) {
+        if (!available) {
+            Printer.err("compileQuery: not available");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("compileQuery: tableName is empty");
+            return null;
+        } else if (tableName.contains("`")) {
+            Printer.err("compileQuery: tableName has illegal character");
+            return null;
+        }
+        final ArrayList<String> temporaryTables = new ArrayList<>();
+        try {
+            final LinkedList<Object> list = new LinkedList<>();
+            final String statement = getSelectStatement(tableName, columnNames, condition == null ? null : spillLargeKeySets(tableName, condition, temporaryTables), list, offset, limit, orders, null);
+            Printer.print("compileQuery: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            return new QueryTemplate(tableName, statement, stat, list.toArray(), condition, orders, reverse, temporaryTables);
+        } catch (final Exception ex) {
+            dropTemporaryTables(temporaryTables);
+            Printer.err("compileQuery: cannot compile, ", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 使用鍵集分頁(Keyset Pagination)查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入查詢的條件
+     * @param limit 傳入每頁的數量，必須要大於0
+     * @param continuationToken 傳入上一頁的接續標記，null表示第一頁
+     * @param orders 傳入結果的排序方法
+     * @return 傳回這一頁的查詢結果，若為null，表示查詢失敗
+     */
+    public static QueryPage queryPage(final String tableName, final ConditionInterface condition, final int limit, final String continuationToken, final Order... orders) {
+        return queryPage(tableName, null, condition, limit, continuationToken, orders);
+    }
+
+    /**
+     * <p>
+     * 使用鍵集分頁(Keyset Pagination)查詢表單的資料。
+     * </p>
+     *
+     * <p>
+     * 和使用offset的查詢不同，這個方法會根據上一頁最後一筆資料在排序欄位上的值，產生「在它之後」的條件。所有排序方式相同時，條件會使用列值(Row Value)比較，例如(`a`,`b`) &gt; (?,?)，若排序欄位有對應的索引，資料庫可以直接從索引找到這一頁的開頭；排序方式不同時，至少第一個排序欄位可以用索引找到開始的位置。rowid會自動被加在最後作為排序依據，因此排序欄位不需要是唯一的，分頁也不會遺漏或重複資料。排序欄位不能是隱藏欄位、不能忽略大小寫，且值不能為null。
+     * </p>
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件
+     * @param limit 傳入每頁的數量，必須要大於0
+     * @param continuationToken 傳入上一頁的接續標記，null表示第一頁
+     * @param orders 傳入結果的排序方法
+     * @return 傳回這一頁的查詢結果，若為null，表示查詢失敗
+     */
+    public static QueryPage queryPage(final String tableName, final String[] columnNames, final ConditionInterface condition, final int limit, final String continuationToken, final Order... orders) {
+        if (!available) {
+            Printer.err("queryPage: not available");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("queryPage: tableName is empty");
+            return null;
+        } else if (limit <= 0) {
+            Printer.err("queryPage: limit must be bigger than 0");
+            return null;
+        } else if (orders == null || orders.length == 0) {
+            Printer.err("queryPage: orders is empty");
+            return null;
+        }
+        try {
+            final int ordersLength = orders.length;
+            for (final Order order : orders) {
+                if (order == null || order.getColumnName() == null) {
+                    throw new Exception("order null");
+                } else if (order.isNoCase()) {
+                    throw new Exception("order cannot ignore case");
+                } else if (isHideColumn(tableName, order.getColumnName())) {
+                    throw new Exception("order cannot use hidden column");
+                }
+            }
+
+            //確保排序欄位有被查詢出來
+            String[] projection = columnNames;
+            final ArrayList<String> extraColumns = new ArrayList<>();
+            if (columnNames != null && columnNames.length > 0) {
+                final ArrayList<String> projectionList = new ArrayList<>();
+                for (final String columnName : columnNames) {
+                    projectionList.add(columnName);
+                }
+                for (final Order order : orders) {
+                    final String orderColumn = order.getColumnName();
+                    if (!projectionList.contains(orderColumn)) {
+                        projectionList.add(orderColumn);
+                        extraColumns.add(orderColumn);
+                    }
+                }
+                projection = projectionList.toArray(new String[projectionList.size()]);
+            }
+
+            //rowid作為最後的排序依據，排序方式都相同時可以使用列值比較
+            boolean sameOrderType = true;
+            for (final Order order : orders) {
+                if (order.getOrderType() != orders[0].getOrderType()) {
+                    sameOrderType = false;
+                    break;
+                }
+            }
+            final OrderType rowIdOrder = sameOrderType ? orders[0].getOrderType() : OrderType.ASC;
+            final String[] seekColumns = new String[ordersLength + 1];
+            final OrderType[] seekOrderTypes = new OrderType[ordersLength + 1];
+            for (int i = 0; i < ordersLength; ++i) {
+                seekColumns[i] = orders[i].getColumnName();
+                seekOrderTypes[i] = orders[i].getOrderType();
+            }
+            seekColumns[ordersLength] = "rowid";
+            seekOrderTypes[ordersLength] = rowIdOrder;
+
+            //產生接續的條件
+            ConditionInterface pageCondition = condition;
+            if (continuationToken != null) {
+                final JSONArray lastValues = new JSONArray(continuationToken);
+                if (lastValues.length() != seekColumns.length) {
+                    throw new Exception("continuation token does not match orders");
+                }
+                final Object[] values = new Object[seekColumns.length];
+                for (int i = 0; i < values.length; ++i) {
+                    if (lastValues.isNull(i)) {
+                        throw new Exception("order column cannot be null");
+                    }
+                    values[i] = lastValues.get(i);
+                }
+                final ConditionInterface seek;
+                if (sameOrderType && rowValueSupported) {
+                    seek = new RowValueCondition(seekColumns, values, rowIdOrder == OrderType.DESC);
+                } else {
+                    //展開成(a > ?) OR (a = ? AND b > ?)...，並在前面加上a >= ?讓資料庫可以用索引找到開始的位置
+                    final ConditionInterface[] seeks = new ConditionInterface[seekColumns.length];
+                    for (int i = 0; i < seekColumns.length; ++i) {
+                        final ConditionInterface[] terms = new ConditionInterface[i + 1];
+                        for (int j = 0; j < i; ++j) {
+                            final Condition equal = new Condition();
+                            equal.setCondition(seekColumns[j], values[j], ConditionType.EQUAL);
+                            terms[j] = equal;
+                        }
+                        final Condition after = new Condition();
+                        after.setCondition(seekColumns[i], values[i], seekOrderTypes[i] == OrderType.DESC ? ConditionType.SMALLER_THAN : ConditionType.BIGGER_THAN);
+                        terms[i] = after;
+                        seeks[i] = combineConditions(LogicType.AND, terms);
+                    }
+                    final Condition start = new Condition();
+                    start.setCondition(seekColumns[0], values[0], seekOrderTypes[0] == OrderType.DESC ? ConditionType.EQUAL_OR_SMALLER_THAN : ConditionType.EQUAL_OR_BIGGER_THAN);
+                    seek = combineConditions(LogicType.AND, start, combineConditions(LogicType.OR, seeks));
+                }
+                pageCondition = condition == null ? seek : combineConditions(LogicType.AND, condition, seek);
+            }
+
+            final JSONArray array = query(tableName, projection, pageCondition, 0, limit + 1, false, rowIdOrder, orders);
+            if (array == null) {
+                return null;
+            }
+            final JSONArray rows = new JSONArray();
+            final int rowsLength = array.length() > limit ? limit : array.length();
+            String nextToken = null;
+            for (int i = 0; i < rowsLength; ++i) {
+                final JSONObject row = array.getJSONObject(i);
+                if (i == rowsLength - 1 && array.length() > limit) {
+                    final JSONArray values = new JSONArray();
+                    for (final Order order : orders) {
+                        if (row.isNull(order.getColumnName())) {
+                            throw new Exception("order column cannot be null");
+                        }
+                        values.put(row.get(order.getColumnName()));
+                    }
+                    values.put(row.get(DB_PAGE_ROWID_COLUMN));
+                    nextToken = values.toString();
+                }
+                row.remove(DB_PAGE_ROWID_COLUMN);
+                for (final String extraColumn : extraColumns) {
+                    row.remove(extraColumn);
+                }
+                rows.put(row);
+            }
+            return new QueryPage(rows, nextToken);
+        } catch (final Exception ex) {
+            Printer.err("queryPage: cannot select, ", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 查詢表單的資料數量。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入查詢的條件
+     * @return 傳回查詢結果的數量，若為0，表示沒找到結果；若為-1，表示查詢失敗
+     */
+    public static long count(final String tableName, final ConditionInterface condition) {
+        final JSONArray result = count(tableName, condition, (String[]) null);
+        if (result == null || result.length() == 0) {
+            return -1;
+        }
+        final JSONObject object = result.getJSONObject(0);
+        return object.getLong("count(*)");
+    }
+
+    /**
+     * 查詢表單的資料數量。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入查詢的條件
+     * @param groups 傳入要群組的欄位
+     * @return 傳回查詢結果，若為null，表示沒找到結果
+     */
+    public static JSONArray count(final String tableName, final ConditionInterface condition, final String... groups) {
+        if (!available) {
+            Printer.err("count: not available");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("count: tableName is empty");
+            return null;
+        } else if (tableName.contains("`")) {
+            Printer.err("count: tableName has illegal character");
+            return null;
+        }
+
+        final long startTime = System.nanoTime();
+        final ArrayList<String> temporaryTables = new ArrayList<>();
+        try {
+            final StringBuilder sb = new StringBuilder("SELECT ");
+            final StringBuilder sbGroup = new StringBuilder("");
+            if (groups == null) {
+                sb.append("count(*)");
+            } else {
+                final int groupLengthDec = groups.length - 1;
+                if (groupLengthDec < 0) {
+                    sb.append("count(*)");
+                } else {
+                    for (int i = 0; i <= groupLengthDec; ++i) {
+                        final String name = groups[i];
+                        if (name == null || name.trim().length() == 0) {
+                            throw new Exception("group column name empty");
+                        } else if (name.contains("`")) {
+                            throw new Exception("columnName has illegal character");
+                        }
+                        sb.append("`").append(name).append("`");
+                        sbGroup.append("`").append(name).append("`");
+                        if (i != groupLengthDec) {
+                            sb.append(",");
+                            sbGroup.append(",");
+                        }
+                    }
+                    sb.append(",count(*)");
+                }
+            }
+            final LinkedList<Object> list = new LinkedList<>();
+            sb.append(" FROM `").append(tableName).append("`");
+            if (condition != null) {
+                sb.append(" WHERE ").append(spillLargeKeySets(tableName, condition, temporaryTables).toConditionString(list));
+            }
+            if (sbGroup.length() > 0) {
+                sb.append(" GROUP BY ").append(sbGroup);
+            }
+            final String statement = sb.toString();
+            Printer.print("count: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final JSONArray array = executeQuery(stat, tableName, false);
+            MetricsCenter.record(OperationType.COUNT, tableName, array.length(), startTime, true);
+            checkSlowQuery(OperationType.COUNT, tableName, statement, list, array.length(), startTime);
+            IndexAdvisorCenter.record(tableName, condition, null, startTime);
+            return array;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.COUNT, tableName, 0, startTime, false);
+            Printer.err("count: cannot select, ", ex.getMessage());
+            return null;
+        } finally {
+            dropTemporaryTables(temporaryTables);
+        }
+    }
+
+    /**
+     * 使用聚合函數查詢表單的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param aggregates 傳入聚合函數
+     * @param condition 傳入查詢的條件
+     * @return 傳回查詢結果，若為null，表示查詢失敗
+     */
+    public static JSONArray aggregate(final String tableName, final Aggregate[] aggregates, final ConditionInterface condition) {
+        return aggregate(tableName, aggregates, condition, null, null);
+    }
+
+    /**
+     * 使用聚合函數查詢表單的資料，計算會在資料庫中完成。群組後的條件和排序可以使用聚合函數結果的欄位名稱。隱藏欄位只能使用COUNT和COUNT_DISTINCT。
+     *
+     * @param tableName 傳入表單名稱
+     * @param aggregates 傳入聚合函數
+     * @param condition 傳入查詢的條件
+     * @param groups 傳入要群組的欄位
+     * @param having 傳入群組後的條件
+     * @param orders 傳入結果的排序方法
+     * @return 傳回查詢結果，若為null，表示查詢失敗
+     */
+    public static JSONArray aggregate(final String tableName, final Aggregate[] aggregates, final ConditionInterface condition, final String[] groups, final ConditionInterface having, final Order... orders) {
+        if (!available) {
+            Printer.err("aggregate: not available");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("aggregate: tableName is empty");
+            return null;
+        } else if (tableName.contains("`")) {
+            Printer.err("aggregate: tableName has illegal character");
+            return null;
+        }
+        if (aggregates == null || aggregates.length == 0) {
+            Printer.err("aggregate: aggregates is empty");
+            return null;
+        }
+
+        final long startTime = System.nanoTime();
+        final ArrayList<String> temporaryTables = new ArrayList<>();
+        try {
+            final StringBuilder sb = new StringBuilder("SELECT ");
+            final StringBuilder sbGroup = new StringBuilder("");
+            if (groups != null) {
+                for (final String name : groups) {
+                    if (name == null || name.trim().length() == 0) {
+                        throw new Exception("group column name empty");
+                    } else if (name.contains("`")) {
+                        throw new Exception("columnName has illegal character");
+                    }
+                    if (sbGroup.length() > 0) {
+                        sbGroup.append(",");
+                    }
+                    sbGroup.append("`").append(name).append("`");
+                }
+            }
+            if (sbGroup.length() > 0) {
+                sb.append(sbGroup).append(",");
+            }
+            for (int i = 0; i < aggregates.length; ++i) {
+                final Aggregate aggregate = aggregates[i];
+                if (aggregate == null || aggregate.getAggregateType() == null) {
+                    throw new Exception("aggregate is empty");
+                }
+                final String columnName = aggregate.getColumnName();
+                if (columnName != null && aggregate.getAggregateType() != AggregateType.COUNT && aggregate.getAggregateType() != AggregateType.COUNT_DISTINCT && isHideColumn(tableName, columnName)) {
+                    throw new Exception("cannot aggregate a hidden column: ".concat(columnName));
+                }
+                if (i > 0) {
+                    sb.append(",");
+                }
+                sb.append(aggregate.toAggregateString());
+            }
+            final LinkedList<Object> list = new LinkedList<>();
+            sb.append(" FROM `").append(tableName).append("`");
+            if (condition != null) {
+                sb.append(" WHERE ").append(spillLargeKeySets(tableName, condition, temporaryTables).toConditionString(list));
+            }
+            if (sbGroup.length() > 0) {
+                sb.append(" GROUP BY ").append(sbGroup);
+            }
+            if (having != null) {
+                sb.append(" HAVING ").append(having.toConditionString(list));
+            }
+            if (orders != null && orders.length > 0) {
+                sb.append(" ORDER BY ");
+                for (int i = 0; i < orders.length; ++i) {
+                    final Order order = orders[i];
+                    if (order == null || order.getColumnName() == null) {
+                        throw new Exception("order is empty");
+                    } else if (isHideColumn(tableName, order.getColumnName())) {
+                        throw new Exception("cannot order by a hidden column: ".concat(order.getColumnName()));
+                    }
+                    if (i > 0) {
+                        sb.append(",");
+                    }
+                    sb.append(order.toOrderString());
+                }
+            }
+            final String statement = sb.toString();
+            Printer.print("aggregate: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final JSONArray array = executeQuery(stat, tableName, false);
+            MetricsCenter.record(OperationType.AGGREGATE, tableName, array.length(), startTime, true);
+            checkSlowQuery(OperationType.AGGREGATE, tableName, statement, list, array.length(), startTime);
+            IndexAdvisorCenter.record(tableName, condition, null, startTime);
+            return array;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.AGGREGATE, tableName, 0, startTime, false);
+            Printer.err("aggregate: cannot select, ", ex.getMessage());
+            return null;
+        } finally {
+            dropTemporaryTables(temporaryTables);
+        }
+    }
+
+    /**
+     * 插入資料到表單。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @return 傳回資料是否插入成功
+     */
+    public static boolean insert(final String tableName, final JSONObject content) {
+        return insert(tableName, content, false, false);
+    }
+
+    /**
+     * 插入資料到表單。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @return 傳回資料是否插入成功
+     */
+    public static boolean insert(final String tableName, final JSONObject content, final boolean notifyObserver, final boolean notifySync) {
+        return insert(tableName, content, notifyObserver, notifySync, System.currentTimeMillis());
+    }
+
+    /**
+     * 插入資料到表單。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     * @return 傳回資料是否插入成功
+     */
+    public static boolean insert(final String tableName, final JSONObject content, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
+        return insertRow("insert", tableName, content, notifyObserver, notifySync, notifyID, false) >= 0;
+    }
+
+    /**
+     * 插入資料到表單，並取得資料的ID(rowid)。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @return 傳回資料的ID，若為0，表示資料沒有被插入；若為-1，表示插入失敗
+     */
+    public static long insertAndGetId(final String tableName, final JSONObject content) {
+        return insertAndGetId(tableName, content, false, false);
+    }
+
+    /**
+     * 插入資料到表單，並取得資料的ID(rowid)。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @return 傳回資料的ID，若為0，表示資料沒有被插入；若為-1，表示插入失敗
+     */
+    public static long insertAndGetId(final String tableName, final JSONObject content, final boolean notifyObserver, final boolean notifySync) {
+        return insertAndGetId(tableName, content, notifyObserver, notifySync, System.currentTimeMillis());
+    }
+
+    /**
+     * 插入資料到表單，並取得資料的ID(rowid)。若表單的主鍵是INTEGER型態，ID就是主鍵的值。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     * @return 傳回資料的ID，若為0，表示資料沒有被插入；若為-1，表示插入失敗
+     */
+    public static long insertAndGetId(final String tableName, final JSONObject content, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
+        return insertRow("insertAndGetId", tableName, content, notifyObserver, notifySync, notifyID, true);
+    }
+
+    /**
+     * 插入資料到表單。
+     *
+     * @param methodName 傳入呼叫的方法名稱
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     * @param returnID 傳入是否要傳回資料的ID
+     * @return 若要傳回資料的ID，傳回資料的ID，0表示資料沒有被插入；否則傳回插入的資料數量。若為-1，表示插入失敗
+     */
+    private static long insertRow(final String methodName, final String tableName, final JSONObject content, final boolean notifyObserver, final boolean notifySync, final long notifyID, final boolean returnID) {
+        if (!available) {
+            Printer.err(methodName, ": not available");
+            return -1;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err(methodName, ": tableName is empty");
+            return -1;
+        } else if (content == null) {
+            Printer.err(methodName, ": json is null");
+            return -1;
+        } else if (tableName.contains("`")) {
+            Printer.err(methodName, ": tableName has illegal character");
+            return -1;
+        }
+        final long startTime = System.nanoTime();
+        try {
+            final StringBuilder sb = new StringBuilder("INSERT INTO `");
+            final LinkedList<Object> list = new LinkedList<>();
+            sb.append(tableName).append("` (");
+
+            final StringBuilder value = new StringBuilder();
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            final JSONObject row = withBlindIndexes(tableName, schema, content);
+            final Collection<String> columns = getSchemaOrderedColumns(schema, row.keySet());
+            int i = 0;
+            final int l = columns.size();
+            for (final String column : columns) {
+                if (column.contains("`")) {
+                    throw new Exception("columnName has illegal character");
+                }
+                list.add(toStoredValue(tableName, schema, column, row.get(column)));
+                value.append("?");
+                sb.append("`").append(column).append("`");
+                if (i != l - 1) {
+                    sb.append(",");
+                    value.append(",");
+                }
+                ++i;
+            }
+            sb.append(") VALUES (").append(value).append(")");
+            final String statement = sb.toString();
+            Printer.print(methodName, ": ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final int n = executeUpdate(stat, !returnID);
+            long id = 0;
+            if (returnID) {
+                try {
+                    if (n > 0) {
+                        id = getGeneratedID(stat);
+                    }
+                } finally {
+                    stat.close();
+                }
+            }
+            MetricsCenter.record(OperationType.INSERT, tableName, n, startTime, true);
+            if (n > 0) {
+                notifyInsert(methodName, tableName, content, notifyObserver, notifySync, notifyID);
+            }
+            return returnID ? id : n;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.INSERT, tableName, 0, startTime, false);
+            Printer.err(methodName, ": cannot insert, ", ex.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * 插入多筆資料到表單。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnsReference 傳入欄位參考資料(要使用的欄位)
+     * @param content 傳入插入的資料內容
+     * @return 傳回資料是否插入成功
+     */
+    public static boolean multiInsert(final String tableName, final JSONObject columnsReference, final JSONArray content) {
+        return multiInsert(tableName, columnsReference, content, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 插入多筆資料到表單。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnsReference 傳入欄位參考資料(要使用的欄位)
+     * @param content 傳入插入的資料內容
+     * @param offset 傳入插入的資料位移量
+     * @param length 傳入插入的資料數量
+     * @return 傳回資料是否插入成功
+     */
+    public static boolean multiInsert(final String tableName, final JSONObject columnsReference, final JSONArray content, int offset, int length) {
+        if (!available) {
+            Printer.err("multiInsert: not available");
+            return false;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("multiInsert: tableName is empty");
+            return false;
+        } else if (columnsReference == null) {
+            Printer.err("multiInsert: columns reference is null");
+            return false;
+        } else if (content == null) {
+            Printer.err("multiInsert: json is null");
+            return false;
+        } else if (tableName.contains("`")) {
+            Printer.err("multiInsert: tableName has illegal character");
+            return false;
+        }
+        if (offset < 0) {
+            offset = 0;
+        }
+        if (length < 0) {
+            length = 0;
+        }
+        final long startTime = System.nanoTime();
+        try {
+            final StringBuilder sb = new StringBuilder("INSERT INTO `");
+            final LinkedList<Object> list = new LinkedList<>();
+            sb.append(tableName).append("` (");
+
+            final int contentLength = content.length();
+            final int contentLength_dec = contentLength - 1;
+            final int min, max;
+            if (offset > contentLength_dec) {
+                min = contentLength_dec;
+            } else {
+                min = offset;
+            }
+            final int maxTemp = min + length;
+            if (maxTemp > contentLength) {
+                max = contentLength;
+            } else {
+                max = maxTemp;
+            }
+            length = max - min;
+            final int length_dec = length - 1;
+            final StringBuilder[] values = new StringBuilder[length];
+            for (int i = 0; i < length; ++i) {
+                values[i] = new StringBuilder("");
+            }
+
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            final Set<String> columns = withBlindIndexes(tableName, schema, columnsReference).keySet();
+            int i = 0;
+            final int l = columns.size();
+            final int l_dec = l - 1;
+            final ArrayList<String> columnList = new ArrayList<>();
+            for (final String column : columns) {
+                if (column.contains("`")) {
+                    throw new Exception("columnName has illegal character");
+                } else if (schema != null && schema.getColumnIndex(column) < 0) {
+                    throw new Exception("no such column: ".concat(column));
+                }
+                sb.append("`").append(column).append("`");
+                columnList.add(column);
+
+                if (i != l_dec) {
+                    sb.append(",");
+                }
+                ++i;
+            }
+            sb.append(") VALUES ");
+
+            for (int j = min; j < max; ++j) {
+                final JSONObject row = withBlindIndexes(tableName, schema, content.getJSONObject(j));
+                final StringBuilder value = values[j - min];
+
+                i = 0;
+                for (final String column : columnList) {
+                    final Object obj = row.get(column);
+
+                    if (obj != null) {
+                        list.add(toStoredValue(tableName, schema, column, obj));
+                        value.append("?");
+                    }
+                    if (i != l_dec) {
+                        value.append(",");
+                    }
+                    ++i;
+                }
+            }
+            for (i = 0; i < length; ++i) {
+                sb.append("(").append(values[i]).append(")");
+                if (i != length_dec) {
+                    sb.append(",");
+                }
+            }
+            final String statement = sb.toString();
+            Printer.print("multiInsert: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final int n = executeUpdate(stat);
+            MetricsCenter.record(OperationType.MULTI_INSERT, tableName, n, startTime, true);
+            return true;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.MULTI_INSERT, tableName, 0, startTime, false);
+            Printer.err("multiInsert: cannot insert, ", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 插入多筆資料到表單，並取得每筆資料的ID(rowid)。所有資料會重複使用同一個SQL敘述，在同一個交易(Transaction)中完成。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnsReference 傳入欄位參考資料(要使用的欄位)
+     * @param content 傳入插入的資料內容，缺少的欄位會被當作null
+     * @return 傳回每筆資料的ID，順序和插入的資料相同，0表示該筆資料沒有被插入；若為null，表示插入失敗
+     */
+    public static long[] multiInsertAndGetIds(final String tableName, final JSONObject columnsReference, final JSONArray content) {
+        if (!available) {
+            Printer.err("multiInsertAndGetIds: not available");
+            return null;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("multiInsertAndGetIds: tableName is empty");
+            return null;
+        } else if (columnsReference == null || columnsReference.length() == 0) {
+            Printer.err("multiInsertAndGetIds: columns reference is empty");
+            return null;
+        } else if (content == null) {
+            Printer.err("multiInsertAndGetIds: json is null");
+            return null;
+        } else if (tableName.contains("`")) {
+            Printer.err("multiInsertAndGetIds: tableName has illegal character");
+            return null;
+        }
+        final int length = content.length();
+        final long[] ids = new long[length];
+        if (length == 0) {
+            return ids;
+        }
+        final long startTime = System.nanoTime();
+        final String savepoint = beginSavepoint();
+        if (savepoint == null) {
+            Printer.err("multiInsertAndGetIds: cannot begin transaction");
+            return null;
+        }
+        try {
+            final StringBuilder sb = new StringBuilder("INSERT INTO `");
+            sb.append(tableName).append("` (");
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            final Set<String> columns = withBlindIndexes(tableName, schema, columnsReference).keySet();
+            final StringBuilder value = new StringBuilder();
+            for (final String column : columns) {
+                if (column.contains("`")) {
+                    throw new Exception("columnName has illegal character");
+                }
+                if (value.length() > 0) {
+                    sb.append(",");
+                    value.append(",");
+                }
+                sb.append("`").append(column).append("`");
+                value.append("?");
+            }
+            sb.append(") VALUES (").append(value).append(")");
+            final String statement = sb.toString();
+            Printer.print("multiInsertAndGetIds: ", statement);
+            int n = 0;
+            try (PreparedStatement stat = conn.prepareStatement(statement)) {
+                for (int i = 0; i < length; ++i) {
+                    final JSONObject row = withBlindIndexes(tableName, schema, content.getJSONObject(i));
+                    int index = 1;
+                    for (final String column : columns) {
+                        bindParameter(stat, index++, toStoredValue(tableName, schema, column, row.opt(column)));
+                    }
+                    if (executeUpdate(stat, false) > 0) {
+                        ids[i] = getGeneratedID(stat);
+                        ++n;
+                    }
+                }
+            }
+            if (!endSavepoint(savepoint, true)) {
+                throw new Exception("cannot commit");
+            }
+            MetricsCenter.record(OperationType.MULTI_INSERT, tableName, n, startTime, true);
+            return ids;
+        } catch (final Exception ex) {
+            endSavepoint(savepoint, false);
+            MetricsCenter.record(OperationType.MULTI_INSERT, tableName, 0, startTime, false);
+            Printer.err("multiInsertAndGetIds: cannot insert, ", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 插入資料到表單，若資料和唯一(UNIQUE)或主鍵(PRIMARY KEY)限制衝突，則更新原本的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param conflictColumns 傳入會發生衝突的欄位，必須是唯一或主鍵限制的欄位
+     * @param updateColumns 傳入發生衝突時要更新的欄位，若為null，更新衝突欄位以外的所有欄位；若大小為0，則不更新
+     * @return 傳回資料是否插入或更新成功
+     */
+    public static boolean upsert(final String tableName, final JSONObject content, final String[] conflictColumns, final String[] updateColumns) {
+        return upsert(tableName, content, conflictColumns, updateColumns, false, false);
+    }
+
+    /**
+     * 插入資料到表單，若資料和唯一(UNIQUE)或主鍵(PRIMARY KEY)限制衝突，則更新原本的資料。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param conflictColumns 傳入會發生衝突的欄位，必須是唯一或主鍵限制的欄位
+     * @param updateColumns 傳入發生衝突時要更新的欄位，若為null，更新衝突欄位以外的所有欄位；若大小為0，則不更新
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @return 傳回資料是否插入或更新成功
+     */
+    public static boolean upsert(final String tableName, final JSONObject content, final String[] conflictColumns, final String[] updateColumns, final boolean notifyObserver, final boolean notifySync) {
+        return upsert(tableName, content, conflictColumns, updateColumns, notifyObserver, notifySync, System.currentTimeMillis());
+    }
+
+    /**
+     * 插入資料到表單，若資料和唯一(UNIQUE)或主鍵(PRIMARY KEY)限制衝突，則更新原本的資料。通知的事件會是插入(INSERT)。
+     *
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param conflictColumns 傳入會發生衝突的欄位，必須是唯一或主鍵限制的欄位
+     * @param updateColumns 傳入發生衝突時要更新的欄位，若為null，更新衝突欄位以外的所有欄位；若大小為0，則不更新
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     * @return 傳回資料是否插入或更新成功
+     */
+    public static boolean upsert(final String tableName, final JSONObject content, final String[] conflictColumns, final String[] updateColumns, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
+        if (!available) {
+            Printer.err("upsert: not available");
+            return false;
+        }
+        if (!upsertSupported) {
+            Printer.err("upsert: not supported by SQLite ", sqliteVersion);
+            return false;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("upsert: tableName is empty");
+            return false;
+        } else if (content == null || content.length() == 0) {
+            Printer.err("upsert: json is empty");
+            return false;
+        } else if (tableName.contains("`")) {
+            Printer.err("upsert: tableName has illegal character");
+            return false;
+        }
+        final long startTime = System.nanoTime();
+        try {
+            final StringBuilder sb = new StringBuilder("INSERT INTO `");
+            final LinkedList<Object> list = new LinkedList<>();
+            sb.append(tableName).append("` (");
+            final StringBuilder value = new StringBuilder();
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            final JSONObject row = withBlindIndexes(tableName, schema, content);
+            final Set<String> columns = row.keySet();
+            for (final String column : columns) {
+                if (column.contains("`")) {
+                    throw new Exception("columnName has illegal character");
+                }
+                if (value.length() > 0) {
+                    sb.append(",");
+                    value.append(",");
+                }
+                sb.append("`").append(column).append("`");
+                value.append("?");
+                list.add(toStoredValue(tableName, schema, column, row.opt(column)));
+            }
+            sb.append(") VALUES (").append(value).append(")");
+            sb.append(getUpsertClause(columns, conflictColumns, updateColumns));
+            final String statement = sb.toString();
+            Printer.print("upsert: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final int n = executeUpdate(stat);
+            MetricsCenter.record(OperationType.UPSERT, tableName, n, startTime, true);
+            if (n > 0) {
+                notifyInsert("upsert", tableName, content, notifyObserver, notifySync, notifyID);
+            }
+            return true;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.UPSERT, tableName, 0, startTime, false);
+            Printer.err("upsert: cannot upsert, ", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 插入多筆資料到表單，若資料和唯一(UNIQUE)或主鍵(PRIMARY KEY)限制衝突，則更新原本的資料。所有資料會在同一個SQL敘述中完成。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnsReference 傳入欄位參考資料(要使用的欄位)
+     * @param content 傳入插入的資料內容，缺少的欄位會被當作null
+     * @param conflictColumns 傳入會發生衝突的欄位，必須是唯一或主鍵限制的欄位
+     * @param updateColumns 傳入發生衝突時要更新的欄位，若為null，更新衝突欄位以外的所有欄位；若大小為0，則不更新
+     * @return 傳回資料是否插入或更新成功
+     */
+    public static boolean multiUpsert(final String tableName, final JSONObject columnsReference, final JSONArray content, final String[] conflictColumns, final String[] updateColumns) {
+        return multiUpsert(tableName, columnsReference, content, conflictColumns, updateColumns, false, false);
+    }
+
+    /**
+     * 插入多筆資料到表單，若資料和唯一(UNIQUE)或主鍵(PRIMARY KEY)限制衝突，則更新原本的資料。所有資料會在同一個SQL敘述中完成，每筆資料都會通知一次插入(INSERT)事件。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnsReference 傳入欄位參考資料(要使用的欄位)
+     * @param content 傳入插入的資料內容，缺少的欄位會被當作null
+     * @param conflictColumns 傳入會發生衝突的欄位，必須是唯一或主鍵限制的欄位
+     * @param updateColumns 傳入發生衝突時要更新的欄位，若為null，更新衝突欄位以外的所有欄位；若大小為0，則不更新
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @return 傳回資料是否插入或更新成功
+     */
+    public static boolean multiUpsert(final String tableName, final JSONObject columnsReference, final JSONArray content, final String[] conflictColumns, final String[] updateColumns, final boolean notifyObserver, final boolean notifySync) {
+        if (!available) {
+            Printer.err("multiUpsert: not available");
+            return false;
+        }
+        if (!upsertSupported) {
+            Printer.err("multiUpsert: not supported by SQLite ", sqliteVersion);
+            return false;
+        }
+        if (tableName == null || tableName.trim().length() == 0) {
+            Printer.err("multiUpsert: tableName is empty");
+            return false;
+        } else if (columnsReference == null || columnsReference.length() == 0) {
+            Printer.err("multiUpsert: columns reference is empty");
+            return false;
+        } else if (content == null) {
+            Printer.err("multiUpsert: json is null");
+            return false;
+        } else if (tableName.contains("`")) {
+            Printer.err("multiUpsert: tableName has illegal character");
+            return false;
+        }
+        final int length = content.length();
+        if (length == 0) {
+            return true;
+        }
+        final long startTime = System.nanoTime();
+        try {
+            final StringBuilder sb = new StringBuilder("INSERT INTO `");
+            final LinkedList<Object> list = new LinkedList<>();
+            sb.append(tableName).append("` (");
+            final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+            final Set<String> columns = withBlindIndexes(tableName, schema, columnsReference).keySet();
+            final StringBuilder value = new StringBuilder("(");
+            for (final String column : columns) {
+                if (column.contains("`")) {
+                    throw new Exception("columnName has illegal character");
+                }
+                if (value.length() > 1) {
+                    sb.append(",");
+                    value.append(",");
+                }
+                sb.append("`").append(column).append("`");
+                value.append("?");
+            }
+            value.append(")");
+            sb.append(") VALUES ");
+            for (int i = 0; i < length; ++i) {
+                final JSONObject row = withBlindIndexes(tableName, schema, content.getJSONObject(i));
+                for (final String column : columns) {
+                    list.add(toStoredValue(tableName, schema, column, row.opt(column)));
+                }
+                if (i > 0) {
+                    sb.append(",");
+                }
+                sb.append(value);
+            }
+            sb.append(getUpsertClause(columns, conflictColumns, updateColumns));
+            final String statement = sb.toString();
+            Printer.print("multiUpsert: ", statement);
+            final PreparedStatement stat = conn.prepareStatement(statement);
+            prepareStatement(stat, list);
+            final int n = executeUpdate(stat);
+            MetricsCenter.record(OperationType.UPSERT, tableName, n, startTime, true);
+            if (n > 0) {
+                final long notifyID = System.currentTimeMillis();
+                for (int i = 0; i < length; ++i) {
+                    notifyInsert("multiUpsert", tableName, content.getJSONObject(i), notifyObserver, notifySync, notifyID);
+                }
+            }
+            return true;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.UPSERT, tableName, 0, startTime, false);
+            Printer.err("multiUpsert: cannot upsert, ", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 判斷資料庫是否支援UPSERT。
+     *
+     * @return 傳回資料庫是否支援UPSERT
+     */
+    public static boolean isUpsertSupported() {
+        return upsertSupported;
+    }
+
+    /**
+     * 取得資料庫使用的SQLite版本。
+     *
+     * @return 傳回SQLite版本，若為null，表示ContentCenter尚未初始化
+     */
+    public static String getSQLiteVersion() {
+        return sqliteVersion;
+    }
+
+    /**
+     * 判斷目前使用的JDBC驅動是否支援手動交易(關閉AutoCommit)。使用sqlite-jdbc驅動時才支援。
+     *
+     * @return 傳回是否支援手動交易
+     */
+    public static boolean isTransactionSupported() {
+        return available && OS == OperatingSystems.PC;
+    }
+
+    /**
+     * 取得目前使用的JDBC驅動路徑。
+     *
+     * @return 傳回JDBC驅動路徑，若ContentCenter尚未初始化，傳回null
+     */
+    public static String getDriverName() {
+        return available ? getDBDriver() : null;
+    }
+
+    /**
+     * 取得指定Key值的內容。
+     *
+     * @param key 傳入Key
+     * @return 傳回指定Key值的內容
+     */
+    public static String get(final String key) {
+        if (!available) {
+            Printer.err("get: not available");
+            return null;
+        }
+        if (key == null || key.trim().length() == 0) {
+            Printer.err("get: key is empty");
+            return null;
+        }
+        final Condition c = new Condition();
+        c.setCondition(DB_SETTING_KEY, key, ConditionType.EQUAL);
+        final JSONArray array = query(DB_SETTING, c);
+        if (array.length() > 0) {
+            return array.getJSONObject(0).getString(DB_SETTING_VALUE);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * 刪除指定的key值。
+     *
+     * @param key 傳入Key
+     * @return 傳回是否刪除成功
+     */
+    public static boolean remove(final String key) {
+        if (!available) {
+            Printer.err("remove: not available");
+            return false;
+        }
+        if (key == null || key.trim().length() == 0) {
+            Printer.err("remove: key is empty");
+            return false;
+        }
+        return put(key, null);
+    }
+
+    /**
+     * 在指定的key值內放入內容。
+     *
+     * @param key 傳入Key
+     * @param value 傳入內容
+     * @return 傳回內容是否放入成功
+     */
+    public static boolean put(final String key, final String value) {
+        if (!available) {
+            Printer.err("put: not available");
+            return false;
+        }
+        if (key == null || key.trim().length() == 0) {
+            Printer.err("put: key is empty");
+            return false;
+        } else if (value == null) {
+            final Condition c = new Condition();
+            c.setCondition(DB_SETTING_KEY, key, ConditionType.EQUAL);
+            return delete(DB_SETTING, c);
+        } else {
+            final JSONObject json = new JSONObject();
+            json.put(DB_SETTING_KEY, key);
+            json.put(DB_SETTING_VALUE, value);
+            if (upsertSupported) {
+                return upsert(DB_SETTING, json, new String[]{DB_SETTING_KEY}, new String[]{DB_SETTING_VALUE});
+            }
+            return insert(DB_SETTING, json);
+        }
+    }
+
+    /**
+     * 關閉ContentCenter。
+     *
+     * @return 傳回ContentCenter是否關閉成功
+     */
+    public static boolean closeContentCenter() {
+        if (!available) {
+            Printer.err("closeContentCenter: not available");
+            return false;
+        }
+        try {
+            conn.close();
+            available = false;
+            if (backgroundThread != null) {
+                backgroundThread.interrupt();
+                backgroundThread = null;
+            }
+            return true;
+        } catch (final SQLException ex) {
+            Printer.err("closeContentCenter: cannot close database, ", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * '
+     * 執行SQL查詢敘述。
+     *
+     * @param statement SQL敘述
+     * @param tableName 傳入表單名稱
+     * @param reverse 傳入是否要將結果反向
+     * @return 傳回執行SQL查詢後的結果
+     * @throws Exception 拋出例外
+     */
+    private static JSONArray executeQuery(final PreparedStatement statement, final String tableName, final boolean reverse) throws Exception {
+        try {
+            return readQuery(statement, tableName, reverse);
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * 判斷欄位是否為隱藏欄位。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnName 傳入欄位名稱
+     * @return 傳回是否為隱藏欄位
+     */
+    static boolean isHideColumn(final String tableName, final String columnName) {
+        if (!hideColumnLoaded && !hsHideColumnLoadedTable.contains(tableName)) {
+            loadHideColumns(tableName);
+        }
+        return hsHideColumn.contains(getAbsolutePath(tableName, columnName));
+    }
+
+    /**
+     * 從隱藏欄位的表單中，讀取指定表單的隱藏欄位。每個表單只會在第一次使用時讀取一次。
+     *
+     * @param tableName 傳入表單名稱
+     */
+    private static synchronized void loadHideColumns(final String tableName) {
+        if (tableName == null || hsHideColumnLoadedTable.contains(tableName)) {
+            return;
+        }
+        if (tableName.equals(DB_HIDE_COLUMN)) {
+            hsHideColumnLoadedTable.add(tableName);
+            return;
+        }
+        final String statement = "SELECT `" + DB_HIDE_COLUMN_COLUMN + "` FROM `" + DB_HIDE_COLUMN + "` WHERE `" + DB_HIDE_COLUMN_TABLE + "` = ?";
+        try (PreparedStatement stat = conn.prepareStatement(statement)) {
+            stat.setString(1, tableName);
+            try (ResultSet result = stat.executeQuery()) {
+                while (result.next()) {
+                    hsHideColumn.add(getAbsolutePath(tableName, result.getString(1)));
+                }
+            }
+            hsHideColumnLoadedTable.add(tableName);
+        } catch (final Exception ex) {
+            Printer.err("loadHideColumns: cannot load hidden columns, ", ex.getMessage());
+        }
+    }
+
+    /**
+     * 還原隱藏欄位的值。
+     *
+     * @param s 傳入被隱藏的值
+     * @return 傳回原本的值
+     */
+    static String recoverHideString(final String s) {
+        return StringHider.recoverString(StringHider.decompression(s), hideKey);
+    }
+
+    /**
+     * 將ResultSet中目前這筆資料讀取成JSONObject，隱藏欄位會被還原。
+     *
+     * @param result 傳入ResultSet
+     * @param rsmd 傳入ResultSet的描述資料
+     * @param l 傳入欄位數量
+     * @param tableName 傳入表單名稱
+     * @param decode 傳入是否要還原隱藏欄位，若為false，隱藏欄位會保留原始值
+     * @return 傳回資料
+     * @throws Exception 拋出例外
+     */
+    private static JSONObject readRow(final ResultSet result, final ResultSetMetaData rsmd, final int l, final String tableName, final boolean decode) throws Exception {
+        final JSONObject tuple = new JSONObject();
+        for (int i = 1; i <= l; ++i) {
+            final String columnName = rsmd.getColumnName(i);
+            if (isBlindIndexColumn(tableName, columnName)) {
+                continue;
+            }
+            final int type = rsmd.getColumnType(i);
+            final Object o = result.getObject(i);
+            if (o == null) {
+                tuple.put(columnName, JSONObject.NULL);
+            } else {
+                switch (type) {
+                    case 0: //實作不完整的SQL程式可能會無法判定type
+                        if (o instanceof String) {
+                            String s = (String) o;
+                            if (decode && isHideColumn(tableName, columnName)) {
+                                s = recoverHideString(s);
+                            }
+                            tuple.put(columnName, s);
+                        } else if (o instanceof Long || o instanceof Integer) {
+                            tuple.put(columnName, ((Number) o).longValue());
+                        } else if (o instanceof Number) {
+                            tuple.put(columnName, ((Number) o).doubleValue());
+                        }
+                        break;
+                    case 4: //integer
+                        tuple.put(columnName, result.getLong(i));
+                        break;
+                    case 6: //float
+                    case 7:
+                        tuple.put(columnName, result.getDouble(i));
+                        break;
+                    case 12: //text
+                        String s = result.getString(i);
+                        if (decode && isHideColumn(tableName, columnName)) {
+                            s = recoverHideString(s);
+                        }
+                        tuple.put(columnName, s);
+                        break;
+                }
+            }
+        }
+        return tuple;
+    }
+
+    /**
+     * 取得查詢結果的隱藏欄位平行還原器。
+     *
+     * @param rsmd 傳入ResultSet的描述資料
+     * @param l 傳入欄位數量
+     * @param tableName 傳入表單名稱
+     * @return 傳回平行還原器，若為null，表示不需要平行還原，隱藏欄位要在讀取時直接還原
+     * @throws Exception 拋出例外
+     */
+    private static HideDecoder getHideDecoder(final ResultSetMetaData rsmd, final int l, final String tableName) throws Exception {
+        if (!parallelDecoding || !HideDecoder.isAvailable()) {
+            return null;
+        }
+        final ArrayList<String> columnNames = new ArrayList<>();
+        for (int i = 1; i <= l; ++i) {
+            final String columnName = rsmd.getColumnName(i);
+            if (isHideColumn(tableName, columnName)) {
+                columnNames.add(columnName);
+            }
+        }
+        if (columnNames.isEmpty()) {
+            return null;
+        }
+        return new HideDecoder(columnNames.toArray(new String[columnNames.size()]));
+    }
+
+    /**
+     * 執行SQL查詢敘述，不會關閉SQL敘述，讓它可以被重複使用。
+     *
+     * @param statement SQL敘述
+     * @param tableName 傳入表單名稱
+     * @param reverse 傳入是否要將結果反向
+     * @return 傳回執行SQL查詢後的結果
+     * @throws Exception 拋出例外
+     */
+    static JSONArray readQuery(final PreparedStatement statement, final String tableName, final boolean reverse) throws Exception {
+        final ResultSet result;
+        final LinkedList<JSONObject> list = new LinkedList<>();
+        result = statement.executeQuery();
+        final ResultSetMetaData rsmd = result.getMetaData();
+        final int l = rsmd.getColumnCount();
+        final HideDecoder decoder = getHideDecoder(rsmd, l, tableName);
+        while (result.next()) {
+            final JSONObject tuple = readRow(result, rsmd, l, tableName, decoder == null);
+            if (decoder != null) {
+                decoder.add(tuple);
+            }
+            if (reverse) {
+                list.add(0, tuple);
+            } else {
+                list.add(tuple);
+            }
+        }
+        if (decoder != null) {
+            decoder.finish();
+        }
+        final JSONArray array = new JSONArray();
+        for (final JSONObject obj : list) {
+            array.put(obj);
+        }
+        result.close();
+        return array;
+    }
+
+    /**
+     * 執行SQL修改敘述。
+     *
+     * @param statement SQL敘述
+     * @return 傳回執行SQL修改後的結果
+     * @throws Exception 拋出例外
+     */
+    private static int executeUpdate(final PreparedStatement statement) throws Exception {
+        return executeUpdate(statement, true);
+    }
+
+    /**
+     * 執行SQL更新敘述。
+     *
+     * @param statement SQL敘述
+     * @param close 傳入執行後是否要關閉SQL敘述
+     * @return 傳回執行SQL更新後的結果
+     * @throws Exception 拋出例外
+     */
+    private static int executeUpdate(final PreparedStatement statement, final boolean close) throws Exception {
+        final int result = statement.executeUpdate();
+        if (close) {
+            statement.close();
+        }
+        if (OS == OperatingSystems.ANDROID && result == -1) {
+            return 1;
+        }
+        return result;
+    }
+
+    /**
+     * 建立儲存點(Savepoint)。若目前沒有交易(Transaction)，會開始一個新的交易。
+     *
+     * @return 傳回儲存點名稱，若為null，表示建立失敗
+     */
+    private static String beginSavepoint() {
+        final String savepoint = DB_SAVEPOINT_PREFIX + savepointCounter.incrementAndGet();
+        try (PreparedStatement stat = conn.prepareStatement("SAVEPOINT `" + savepoint + "`")) {
+            stat.execute();
+            MetricsCenter.beginActivity();
+            return savepoint;
+        } catch (final Exception ex) {
+            Printer.err("beginSavepoint: cannot begin, ", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 結束儲存點(Savepoint)。若儲存點開始了交易(Transaction)，交易也會一起結束。
+     *
+     * @param savepoint 傳入儲存點名稱
+     * @param success 傳入是否要保留儲存點之後的修改，若為false，則回復到儲存點
+     * @return 傳回是否結束成功
+     */
+    private static boolean endSavepoint(final String savepoint, final boolean success) {
+        try {
+            if (!success) {
+                try (PreparedStatement stat = conn.prepareStatement("ROLLBACK TO `" + savepoint + "`")) {
+                    stat.execute();
+                }
+            }
+            try (PreparedStatement stat = conn.prepareStatement("RELEASE `" + savepoint + "`")) {
+                stat.execute();
+            }
+            //儲存點還沒釋放前，仍視為進行中的操作
+            MetricsCenter.endActivity();
+            return true;
+        } catch (final Exception ex) {
+            Printer.err("endSavepoint: cannot release, ", ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 計算批次執行後影響的資料數量。
+     *
+     * @param counts 傳入每個批次指令影響的資料數量
+     * @return 傳回影響的資料數量
+     */
+    private static int sumBatchCounts(final int[] counts) {
+        int n = 0;
+        for (final int count : counts) {
+            if (count > 0) {
+                n += count;
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                ++n;
+            }
+        }
+        return n;
+    }
+
+    /**
+     * 通知插入(INSERT)事件。
+     *
+     * @param methodName 傳入呼叫的方法名稱
+     * @param tableName 傳入表單名稱
+     * @param content 傳入插入的資料內容
+     * @param notifyObserver 傳入是否通知給觀察者
+     * @param notifySync 傳入是否通知同步到伺服器
+     * @param notifyID 傳入通知的ID
+     */
+    private static void notifyInsert(final String methodName, final String tableName, final JSONObject content, final boolean notifyObserver, final boolean notifySync, final long notifyID) {
+        final JSONObject notify = new JSONObject();
+        notify.put(JSONInsert.JSON_TYPE, JSONInsert.TYPE_INSERT);
+        notify.put(JSONInsert.JSON_ID, notifyID);
+        notify.put(JSONInsert.JSON_TABLE_NAME, tableName);
+        notify.put(JSONInsert.JSON_INSERT_CONTENT, content);
+        if (notifyObserver) {
+            if (!callBack(EVENT.INSERT, NOTIFY.OBSERVER, notify)) {
+                Printer.err(methodName, ": cannot notify observer");
+            }
+            if (notifySync) {
+                final JSONObject sync = new JSONObject();
+                sync.put(DB_SYNC_TEXT, notify.toString());
+                insert(DB_SYNC, sync);
+            }
+        }
+    }
+
+    /**
+     * 取得要存進資料庫的值，隱藏欄位的文字會被隱藏。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnName 傳入欄位名稱
+     * @param obj 傳入值
+     * @return 傳回要存進資料庫的值
+     */
+    private static Object toStoredValue(final String tableName, final String columnName, final Object obj) throws Exception {
+        return toStoredValue(tableName, getTableSchema(tableName), columnName, obj);
+    }
+
+    /**
+     * 取得要存進資料庫的值。若有表單結構，會先檢查欄位是否存在，並把值轉成欄位的型態，隱藏欄位的文字會被隱藏。
+     *
+     * @param tableName 傳入表單名稱
+     * @param schema 傳入表單結構，可以為null
+     * @param columnName 傳入欄位名稱
+     * @param obj 傳入值
+     * @return 傳回要存進資料庫的值
+     * @throws Exception 拋出例外
+     */
+    private static Object toStoredValue(final String tableName, final SchemaCenter.TableSchema schema, final String columnName, final Object obj) throws Exception {
+        if (schema == null) {
+            if (obj == null || JSONObject.NULL.equals(obj)) {
+                return null;
+            } else if (obj instanceof String && isHideColumn(tableName, columnName)) {
+                return StringHider.compression(StringHider.hideString(obj.toString(), hideKey, false));
+            }
+            return obj;
+        }
+        final int index = schema.getColumnIndex(columnName);
+        if (index < 0) {
+            throw new Exception("no such column: ".concat(String.valueOf(columnName)));
+        }
+        if (obj == null || JSONObject.NULL.equals(obj)) {
+            return null;
+        }
+        final Object value = toTypedValue(obj, schema.getColumnType(index));
+        if (value instanceof String && schema.isHide(index)) {
+            return StringHider.compression(StringHider.hideString(value.toString(), hideKey, false));
+        }
+        return value;
+    }
+
+    /**
+     * 取得依照Key值比較資料時要使用的欄位名稱。隱藏欄位每次隱藏的結果都不同，無法直接比較，因此隱藏的Key欄位必須有盲索引，並改用盲索引欄位比較。
+     *
+     * @param tableName 傳入表單名稱
+     * @param schema 傳入表單結構，可以為null
+     * @param keyColumn 傳入Key欄位名稱
+     * @return 傳回要比較的欄位名稱
+     * @throws Exception 拋出例外
+     */
+    private static String getKeyComparisonColumn(final String tableName, final SchemaCenter.TableSchema schema, final String keyColumn) throws Exception {
+        if (!isHideColumn(tableName, keyColumn)) {
+            return keyColumn;
+        }
+        if (schema != null) {
+            final int index = schema.getColumnIndex(keyColumn);
+            if (index >= 0 && schema.getBlindIndex(index) >= 0) {
+                return schema.getColumnName(schema.getBlindIndex(index));
+            }
+        }
+        throw new Exception("hidden key column needs a blind index: ".concat(keyColumn));
+    }
+
+    /**
+     * 取得依照Key值比較資料時要使用的值。比較盲索引欄位時，傳回Key值的盲索引值，不會隱藏Key值。
+     *
+     * @param tableName 傳入表單名稱
+     * @param schema 傳入表單結構，可以為null
+     * @param keyColumn 傳入Key欄位名稱
+     * @param comparisonColumn 傳入getKeyComparisonColumn方法取得的欄位名稱
+     * @param key 傳入Key值
+     * @return 傳回要比較的值
+     * @throws Exception 拋出例外
+     */
+    private static Object toKeyComparisonValue(final String tableName, final SchemaCenter.TableSchema schema, final String keyColumn, final String comparisonColumn, final Object key) throws Exception {
+        if (comparisonColumn.equals(keyColumn)) {
+            return toStoredValue(tableName, schema, keyColumn, key);
+        }
+        return toBlindIndexValue(tableName, keyColumn, key);
+    }
+
+    /**
+     * 取得加上盲索引欄位的資料。資料中有盲索引的隱藏欄位，會在複製的資料中加上對應的盲索引欄位。
+     *
+     * @param tableName 傳入表單名稱
+     * @param schema 傳入表單結構，可以為null
+     * @param content 傳入資料
+     * @return 傳回加上盲索引欄位的資料，若不需要加上，傳回原本的資料
+     * @throws Exception 拋出例外
+     */
+    private static JSONObject withBlindIndexes(final String tableName, final SchemaCenter.TableSchema schema, final JSONObject content) throws Exception {
+        if (schema == null || !schema.hasBlindIndex()) {
+            return content;
+        }
+        JSONObject row = null;
+        for (final String column : content.keySet()) {
+            final int index = schema.getColumnIndex(column);
+            if (index < 0 || schema.getBlindIndex(index) < 0) {
+                continue;
+            }
+            if (row == null) {
+                row = new JSONObject();
+                for (final String key : content.keySet()) {
+                    row.put(key, content.opt(key));
+                }
+            }
+            row.put(schema.getColumnName(schema.getBlindIndex(index)), toBlindIndexValue(tableName, column, content.opt(column)));
+        }
+        return row == null ? content : row;
+    }
+
+    /**
+     * 取得隱藏欄位內容的盲索引值。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnName 傳入隱藏欄位的名稱
+     * @param obj 傳入欄位內容
+     * @return 傳回盲索引值，若欄位內容為null，傳回JSONObject.NULL
+     * @throws Exception 拋出例外
+     */
+    private static Object toBlindIndexValue(final String tableName, final String columnName, final Object obj) throws Exception {
+        if (obj == null || JSONObject.NULL.equals(obj)) {
+            return JSONObject.NULL;
+        }
+        return blindIndex.digest(tableName, columnName, toTypedValue(obj, ColumnType.TEXT).toString());
+    }
+
+    /**
+     * 取得查詢樣板執行時，要和盲索引欄位比較的值。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnName 傳入隱藏欄位的名稱
+     * @param obj 傳入Placeholder的值
+     * @return 傳回盲索引值，若值為null，傳回null
+     * @throws Exception 拋出例外
+     */
+    static Object toBlindIndexParameter(final String tableName, final String columnName, final Object obj) throws Exception {
+        final Object value = toBlindIndexValue(tableName, columnName, obj);
+        return JSONObject.NULL.equals(value) ? null : value;
+    }
+
+    /**
+     * 判斷欄位是否為隱藏欄位的盲索引欄位。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnName 傳入欄位名稱
+     * @return 傳回是否為盲索引欄位
+     */
+    static boolean isBlindIndexColumn(final String tableName, final String columnName) {
+        return columnName.endsWith(SchemaCenter.BLIND_INDEX_SUFFIX) && isHideColumn(tableName, columnName.substring(0, columnName.length() - SchemaCenter.BLIND_INDEX_SUFFIX.length()));
+    }
+
+    /**
+     * 取得建立盲索引欄位的索引的SQL敘述。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnName 傳入隱藏欄位的名稱
+     * @return 傳回SQL敘述
+     */
+    private static String getBlindIndexStatement(final String tableName, final String columnName) {
+        final String blindIndexColumn = SchemaCenter.getBlindIndexColumnName(columnName);
+        return "CREATE INDEX IF NOT EXISTS `" + DB_BLIND_INDEX_PREFIX + tableName + "_" + blindIndexColumn + "` ON `" + tableName + "` (`" + blindIndexColumn + "`)";
+    }
+
+    /**
+     * 將值轉成欄位的型態，讓參數可以用對應的方法設定。無法轉換的值會保持原樣，交給SQLite處理。
+     *
+     * @param value 傳入值
+     * @param type 傳入欄位型態，null表示不轉換型態
+     * @return 傳回轉換後的值
+     */
+    private static Object toTypedValue(final Object value, final ColumnType type) {
+        if (type == null) {
+            return value;
+        }
+        switch (type) {
+            case INTEGER:
+                if (value instanceof Long) {
+                    return value;
+                } else if (value instanceof Boolean) {
+                    return (Boolean) value ? 1L : 0L;
+                } else if (value instanceof Number) {
+                    final Number number = (Number) value;
+                    final long l = number.longValue();
+                    return l == number.doubleValue() ? (Object) l : (Object) number.doubleValue();
+                } else if (value instanceof String) {
+                    try {
+                        return Long.parseLong(((String) value).trim());
+                    } catch (final NumberFormatException ex) {
+                        return value;
+                    }
+                }
+                return value;
+            case REAL:
+                if (value instanceof Number) {
+                    return ((Number) value).doubleValue();
+                } else if (value instanceof String) {
+                    try {
+                        return Double.parseDouble(((String) value).trim());
+                    } catch (final NumberFormatException ex) {
+                        return value;
+                    }
+                }
+                return value;
+            default:
+                return value.toString();
+        }
+    }
+
+    /**
+     * 將欄位依照表單結構中的順序排列，讓相同欄位組合的SQL敘述都相同。
+     *
+     * @param schema 傳入表單結構，可以為null
+     * @param columns 傳入欄位名稱
+     * @return 傳回排列後的欄位名稱，若表單結構為null或是有不存在的欄位，會保持原本的順序
+     */
+    private static Collection<String> getSchemaOrderedColumns(final SchemaCenter.TableSchema schema, final Set<String> columns) {
+        if (schema == null) {
+            return columns;
+        }
+        final ArrayList<String> list = new ArrayList<>(columns.size());
+        final int l = schema.getColumnCount();
+        for (int i = 0; i < l; ++i) {
+            final String column = schema.getColumnName(i);
+            if (columns.contains(column)) {
+                list.add(column);
+            }
+        }
+        return list.size() == columns.size() ? list : columns;
+    }
+
+    /**
+     * 取得表單結構，若還沒有快取，會從PRAGMA table_info讀取。
+     *
+     * @param tableName 傳入表單名稱
+     * @return 傳回表單結構，若為null，表示表單不存在
+     * @throws Exception 拋出例外
+     */
+    private static SchemaCenter.TableSchema getTableSchema(final String tableName) throws Exception {
+        SchemaCenter.TableSchema schema = SchemaCenter.get(tableName);
+        if (schema != null) {
+            return schema;
+        }
+        final ArrayList<String> columnNames = new ArrayList<>();
+        final ArrayList<ColumnType> columnTypes = new ArrayList<>();
+        try (PreparedStatement stat = conn.prepareStatement("PRAGMA table_info(`" + tableName + "`)")) {
+            try (ResultSet result = stat.executeQuery()) {
+                while (result.next()) {
+                    columnNames.add(result.getString("name"));
+                    columnTypes.add(SchemaCenter.toColumnType(result.getString("type")));
+                }
+            }
+        }
+        final int l = columnNames.size();
+        if (l == 0) {
+            return null;
+        }
+        final boolean[] hides = new boolean[l];
+        for (int i = 0; i < l; ++i) {
+            hides[i] = isHideColumn(tableName, columnNames.get(i));
+        }
+        schema = new SchemaCenter.TableSchema(columnNames.toArray(new String[l]), columnTypes.toArray(new ColumnType[l]), hides);
+        SchemaCenter.put(tableName, schema);
+        return schema;
+    }
+
+    /**
+     * 取得UPSERT的ON CONFLICT子句。
+     *
+     * @param columns 傳入插入的欄位
+     * @param conflictColumns 傳入會發生衝突的欄位
+     * @param updateColumns 傳入發生衝突時要更新的欄位，若為null，更新衝突欄位以外的所有插入欄位
+     * @return 傳回ON CONFLICT子句
+     * @throws Exception 拋出例外
+     */
+    private static String getUpsertClause(final Set<String> columns, final String[] conflictColumns, final String[] updateColumns) throws Exception {
+        if (conflictColumns == null || conflictColumns.length == 0) {
+            throw new Exception("conflict columns is empty");
+        }
+        final StringBuilder sb = new StringBuilder(" ON CONFLICT(");
+        final HashSet<String> hsConflict = new HashSet<>();
+        for (final String column : conflictColumns) {
+            if (column == null || column.trim().length() == 0 || column.contains("`")) {
+                throw new Exception("conflict column name is illegal");
+            }
+            if (!hsConflict.isEmpty()) {
+                sb.append(",");
+            }
+            hsConflict.add(column);
+            sb.append("`").append(column).append("`");
+        }
+        sb.append(")");
+        final StringBuilder sbSet = new StringBuilder();
+        if (updateColumns == null) {
+            for (final String column : columns) {
+                if (!hsConflict.contains(column)) {
+                    if (sbSet.length() > 0) {
+                        sbSet.append(",");
+                    }
+                    sbSet.append("`").append(column).append("`=excluded.`").append(column).append("`");
+                }
+            }
+        } else {
+            for (final String column : updateColumns) {
+                if (column == null || column.trim().length() == 0 || column.contains("`")) {
+                    throw new Exception("update column name is illegal");
+                } else if (!columns.contains(column)) {
+                    throw new Exception("update column is not inserted: ".concat(column));
+                }
+                if (sbSet.length() > 0) {
+                    sbSet.append(",");
+                }
+                sbSet.append("`").append(column).append("`=excluded.`").append(column).append("`");
+                final String blindIndexColumn = SchemaCenter.getBlindIndexColumnName(column);
+                if (columns.contains(blindIndexColumn)) {
+                    sbSet.append(",`").append(blindIndexColumn).append("`=excluded.`").append(blindIndexColumn).append("`");
+                }
+            }
+        }
+        if (sbSet.length() == 0) {
+            sb.append(" DO NOTHING");
+        } else {
+            sb.append(" DO UPDATE SET ").append(sbSet);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 判斷版本是否大於等於指定的版本。
+     *
+     * @param version 傳入版本，例如「3.24.0」
+     * @param minVersion 傳入最低的版本
+     * @return 傳回版本是否大於等於指定的版本
+     */
+    private static boolean isVersionAtLeast(final String version, final int[] minVersion) {
+        if (version == null) {
+            return false;
+        }
+        final String[] tokens = version.trim().split("\\.");
+        for (int i = 0; i < minVersion.length; ++i) {
+            int n = 0;
+            if (i < tokens.length) {
+                try {
+                    n = Integer.parseInt(tokens[i]);
+                } catch (final NumberFormatException ex) {
+                    return false;
+                }
+            }
+            if (n != minVersion[i]) {
+                return n > minVersion[i];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 取得剛剛插入的資料的ID(rowid)。先使用驅動程式的getGeneratedKeys，若驅動程式不支援，再使用last_insert_rowid()。
+     *
+     * @param statement 傳入剛剛執行插入的SQL敘述
+     * @return 傳回資料的ID
+     * @throws Exception 拋出例外
+     */
+    private static long getGeneratedID(final Statement statement) throws Exception {
+        try (ResultSet result = statement.getGeneratedKeys()) {
+            if (result != null && result.next()) {
+                return result.getLong(1);
+            }
+        } catch (final Exception ex) {
+            // 驅動程式不支援getGeneratedKeys
+        }
+        try (PreparedStatement stat = conn.prepareStatement("SELECT last_insert_rowid()")) {
+            try (ResultSet result = stat.executeQuery()) {
+                if (result.next()) {
+                    return result.getLong(1);
+                }
+            }
         }
+        throw new Exception("cannot get generated key");
     }
 
     /**
-     * 取得指定Key值的內容。
-     *
-     * @param key 傳入Key
-     * @return 傳回指定Key值的內容
+     * 執行資料庫閒置時的背景維護工作。
      */
-    public static String get(final String key) {
-        if (!available) {
-            Printer.err("get: not available");
-            return null;
-        }
-        if (key == null || key.trim().length() == 0) {
-            Printer.err("get: key is empty");
-            return null;
+    private static void runIdleTasks() {
+        if (autoIndexing) {
+            final IndexAdvice[] advices = adviseIndexes(DEFAULT_ADVICE_OCCURRENCES);
+            if (advices != null && advices.length > 0) {
+                Printer.print("auto indexing: ", advices[0].toString());
+                applyIndexAdvice(advices[0]);
+            }
         }
-        final Condition c = new Condition();
-        c.setCondition(DB_SETTING_KEY, key, ConditionType.EQUAL);
-        final JSONArray array = query(DB_SETTING, c);
-        if (array.length() > 0) {
-            return array.getJSONObject(0).getString(DB_SETTING_VALUE);
-        } else {
-            return null;
+        if (incrementalVacuum && effectiveConfiguration != null && effectiveConfiguration.getAutoVacuum() == DatabaseConfiguration.AutoVacuum.INCREMENTAL && MetricsCenter.isIdle(IDLE_TIME)) {
+            try {
+                final String freelistCount = executePragma("freelist_count", null);
+                if (freelistCount != null && Long.parseLong(freelistCount) >= incrementalVacuumThreshold) {
+                    Printer.print("incremental vacuum: ", freelistCount);
+                    runIncrementalVacuum(incrementalVacuumPages);
+                }
+            } catch (final Exception ex) {
+                Printer.err("runIdleTasks: cannot check freelist, ", ex.getMessage());
+            }
         }
     }
 
     /**
-     * 刪除指定的key值。
+     * 在備份用的資料庫連線上執行SQL敘述。
      *
-     * @param key 傳入Key
-     * @return 傳回是否刪除成功
+     * @param backupConn 傳入備份用的資料庫連線
+     * @param statement 傳入SQL敘述
+     * @throws Exception 拋出例外
      */
-    public static boolean remove(final String key) {
-        if (!available) {
-            Printer.err("remove: not available");
-            return false;
+    private static void executeBackup(final Connection backupConn, final String statement) throws Exception {
+        try (PreparedStatement stat = backupConn.prepareStatement(statement)) {
+            stat.execute();
         }
-        if (key == null || key.trim().length() == 0) {
-            Printer.err("remove: key is empty");
-            return false;
-        }
-        return put(key, null);
     }
 
     /**
-     * 在指定的key值內放入內容。
+     * 檢查備份的來源資料庫是否有指定的表單。
      *
-     * @param key 傳入Key
-     * @param value 傳入內容
-     * @return 傳回內容是否放入成功
+     * @param backupConn 傳入備份用的資料庫連線
+     * @param tableName 傳入表單名稱
+     * @return 傳回表單是否存在
+     * @throws Exception 拋出例外
      */
-    public static boolean put(final String key, final String value) {
-        if (!available) {
-            Printer.err("put: not available");
-            return false;
-        }
-        if (key == null || key.trim().length() == 0) {
-            Printer.err("put: key is empty");
-            return false;
-        } else if (value == null) {
-            final Condition c = new Condition();
-            c.setCondition(DB_SETTING_KEY, key, ConditionType.EQUAL);
-            return delete(DB_SETTING, c);
-        } else {
-            final JSONObject json = new JSONObject();
-            json.put(DB_SETTING_KEY, key);
-            json.put(DB_SETTING_VALUE, value);
-            return insert(DB_SETTING, json);
+    private static boolean hasBackupTable(final Connection backupConn, final String tableName) throws Exception {
+        try (PreparedStatement stat = backupConn.prepareStatement("SELECT `name` FROM `" + DB_BACKUP_SOURCE + "`.`sqlite_master` WHERE `type` = 'table' AND `name` = ?")) {
+            stat.setString(1, tableName);
+            try (ResultSet result = stat.executeQuery()) {
+                return result.next();
+            }
         }
     }
 
     /**
-     * 關閉ContentCenter。
+     * 檢查表單是否存在。
      *
-     * @return 傳回ContentCenter是否關閉成功
+     * @param tableName 傳入表單名稱
+     * @return 傳回表單是否存在
+     * @throws Exception 拋出例外
      */
-    public static boolean closeContentCenter() {
-        if (!available) {
-            Printer.err("closeContentCenter: not available");
-            return false;
-        }
-        try {
-            conn.close();
-            available = false;
-            return true;
-        } catch (final SQLException ex) {
-            Printer.err("closeContentCenter: cannot close database, ".concat(ex.getMessage()));
-            return false;
+    private static boolean hasTable(final String tableName) throws Exception {
+        try (PreparedStatement stat = conn.prepareStatement("SELECT `name` FROM `sqlite_master` WHERE `type` = 'table' AND `name` = ?")) {
+            stat.setString(1, tableName);
+            try (ResultSet result = stat.executeQuery()) {
+                return result.next();
+            }
         }
     }
 
     /**
-     * '
-     * 執行SQL查詢敘述。
+     * 取得表單中可以直接用索引查找的欄位，也就是各個索引的第一個欄位，以及INTEGER型態的主要關鍵欄位。
      *
-     * @param statement SQL敘述
      * @param tableName 傳入表單名稱
-     * @param reverse 傳入是否要將結果反向
-     * @return 傳回執行SQL查詢後的結果
+     * @return 傳回欄位名稱
      * @throws Exception 拋出例外
      */
-    private static JSONArray executeQuery(final PreparedStatement statement, final String tableName, final boolean reverse) throws Exception {
-        final ResultSet result;
-        final LinkedList<JSONObject> list = new LinkedList<>();
-        result = statement.executeQuery();
-        final ResultSetMetaData rsmd = result.getMetaData();
-        final int l = rsmd.getColumnCount();
-        while (result.next()) {
-            final JSONObject tuple = new JSONObject();
-            for (int i = 1; i <= l; ++i) {
-                final String columnName = rsmd.getColumnName(i);
-                final int type = rsmd.getColumnType(i);
-                final Object o = result.getObject(i);
-                if (o == null) {
-                    tuple.put(columnName, JSONObject.NULL);
-                } else {
-                    switch (type) {
-                        case 0: //實作不完整的SQL程式可能會無法判定type
-                            if (o instanceof String) {
-                                String s = (String) o;
-                                if (hsHideColumn.contains(getAbsolutePath(tableName, columnName))) {
-                                    s = StringHider.recoverString(StringHider.decompression(s), hideKey);
-                                }
-                                tuple.put(columnName, s);
-                            } else if (o instanceof Long) {
-                                tuple.put(columnName, (Long) o);
-                            } else if (o instanceof Number) {
-                                tuple.put(columnName, (Double) o);
-                            }
-                            break;
-                        case 4: //integer
-                            tuple.put(columnName, result.getLong(columnName));
-                            break;
-                        case 6: //float
-                        case 7:
-                            tuple.put(columnName, result.getDouble(columnName));
-                            break;
-                        case 12: //text
-                            String s = result.getString(columnName);
-                            if (hsHideColumn.contains(getAbsolutePath(tableName, columnName))) {
-                                s = StringHider.recoverString(StringHider.decompression(s), hideKey);
-                            }
-                            tuple.put(columnName, s);
-                            break;
-                    }
+    private static Set<String> getIndexedColumns(final String tableName) throws Exception {
+        final Set<String> columns = new HashSet<>();
+        final ArrayList<String> indexNames = new ArrayList<>();
+        try (PreparedStatement stat = conn.prepareStatement("PRAGMA index_list(`" + tableName + "`)")) {
+            try (ResultSet result = stat.executeQuery()) {
+                while (result.next()) {
+                    indexNames.add(result.getString("name"));
                 }
             }
-            if (reverse) {
-                list.add(0, tuple);
-            } else {
-                list.add(tuple);
+        }
+        for (final String indexName : indexNames) {
+            if (indexName.contains("`")) {
+                continue;
+            }
+            try (PreparedStatement stat = conn.prepareStatement("PRAGMA index_info(`" + indexName + "`)")) {
+                try (ResultSet result = stat.executeQuery()) {
+                    while (result.next()) {
+                        if (result.getInt("seqno") == 0) {
+                            columns.add(result.getString("name"));
+                        }
+                    }
+                }
             }
         }
-        final JSONArray array = new JSONArray();
-        for (final JSONObject obj : list) {
-            array.put(obj);
+        try (PreparedStatement stat = conn.prepareStatement("PRAGMA table_info(`" + tableName + "`)")) {
+            try (ResultSet result = stat.executeQuery()) {
+                while (result.next()) {
+                    if (result.getInt("pk") == 1 && "INTEGER".equalsIgnoreCase(result.getString("type"))) {
+                        columns.add(result.getString("name"));
+                    }
+                }
+            }
         }
-        result.close();
-        statement.close();
-        return array;
+        return columns;
     }
 
     /**
-     * 執行SQL修改敘述。
+     * 檢查執行時間是否超過慢查詢的門檻，若超過，則取得查詢計畫並記錄下來。
      *
-     * @param statement SQL敘述
-     * @return 傳回執行SQL修改後的結果
-     * @throws Exception 拋出例外
+     * @param operationType 傳入操作類型
+     * @param tableName 傳入表單名稱
+     * @param statement 傳入SQL敘述
+     * @param parameters 傳入SQL敘述的參數
+     * @param rows 傳入影響或是取得的資料筆數
+     * @param startTime 傳入操作開始時，System.nanoTime()的值
      */
-    private static int executeUpdate(final PreparedStatement statement) throws Exception {
-        final int result = statement.executeUpdate();
-        statement.close();
-        if (OS == OperatingSystems.ANDROID && result == -1) {
-            return 1;
+    static void checkSlowQuery(final OperationType operationType, final String tableName, final String statement, final LinkedList<Object> parameters, final long rows, final long startTime) {
+        final long elapsedNanos = System.nanoTime() - startTime;
+        if (!SlowQueryCenter.isSlow(elapsedNanos)) {
+            return;
         }
-        return result;
+        final String[] parameterTypes = new String[parameters.size()];
+        int i = 0;
+        for (final Object parameter : parameters) {
+            parameterTypes[i++] = parameter == null ? "NULL" : parameter.getClass().getSimpleName();
+        }
+        final ArrayList<String> plan = new ArrayList<>();
+        try (PreparedStatement stat = conn.prepareStatement("EXPLAIN QUERY PLAN ".concat(statement))) {
+            prepareStatement(stat, parameters);
+            try (ResultSet result = stat.executeQuery()) {
+                final int detailIndex = result.getMetaData().getColumnCount();
+                while (result.next()) {
+                    plan.add(result.getString(detailIndex));
+                }
+            }
+        } catch (final Exception ex) {
+            Printer.err("checkSlowQuery: cannot explain query plan, ", ex.getMessage());
+        }
+        SlowQueryCenter.add(new SlowQuery(System.currentTimeMillis(), operationType, tableName, statement, parameterTypes, elapsedNanos, rows, plan.toArray(new String[plan.size()])));
+        Printer.print("slow query: ", statement);
     }
 
     /**
@@ -1970,7 +5778,7 @@ public class ContentCenter {
             try {
                 return listener.onActionPerforming(event, notify, information);
             } catch (Exception ex) {
-                Printer.err("callBack: onActionPerforming throw exception, ".concat(ex.getMessage()));
+                Printer.err("callBack: onActionPerforming throw exception, ", ex.getMessage());
                 return false;
             }
         } else {
@@ -1986,24 +5794,328 @@ public class ContentCenter {
      * @param list 傳入PreparedStatement的參數
      */
     private static void prepareStatement(final PreparedStatement statement, final LinkedList<Object> list) {
-        final int l = list.size();
-        for (int i = 0; i < l; ++i) {
-            final Object obj = list.get(i);
-            final int index = i + 1;
-            try {
-                if (obj instanceof Long) {
-                    statement.setLong(index, (Long) obj);
-                } else if (obj instanceof Double) {
-                    statement.setDouble(index, (Double) obj);
-                } else if (obj == null) {
-                    statement.setNull(index, Types.NULL);
+        int index = 0;
+        for (final Object obj : list) {
+            bindParameter(statement, ++index, obj);
+        }
+    }
+
+    /**
+     * 設定PreparedStatement的一個參數。
+     *
+     * @param statement 傳入未完成的PreparedStatement
+     * @param index 傳入參數的位置，從1開始
+     * @param obj 傳入參數的值
+     */
+    static void bindParameter(final PreparedStatement statement, final int index, final Object obj) {
+        try {
+            if (obj instanceof Long) {
+                statement.setLong(index, (Long) obj);
+            } else if (obj instanceof Double) {
+                statement.setDouble(index, (Double) obj);
+            } else if (obj == null) {
+                statement.setNull(index, Types.NULL);
+            } else {
+                statement.setString(index, obj.toString());
+            }
+        } catch (final Exception ex) {
+
+        }
+    }
+
+    /**
+     * 將條件中值的數量超過門檻的IN和NOT IN條件，改成先把值放進暫存表單再用子查詢比較，避免超過SQLite的參數數量限制，同時讓整個查詢只需要一個SQL敘述。含有Placeholder的條件不會被改寫，值會在查詢樣板執行時才設定。有盲索引的隱藏欄位的EQUAL、NOT_EQUAL、IN和NOT_IN條件，會先改成比較盲索引欄位；MATCH條件會改成查詢全文檢索表單的子查詢。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入條件
+     * @param temporaryTables 傳入存放建立的暫存表單名稱的List，使用完後要用dropTemporaryTables方法刪除
+     * @return 傳回改寫後的條件，若不需要改寫，傳回原本的條件
+     * @throws Exception 拋出例外
+     */
+    private static ConditionInterface spillLargeKeySets(final String tableName, final ConditionInterface condition, final ArrayList<String> temporaryTables) throws Exception {
+        if (condition instanceof Conditions) {
+            final Conditions conditions = (Conditions) condition;
+            final ConditionInterface[] children = conditions.getConditions();
+            boolean changed = false;
+            for (int i = 0; i < children.length; ++i) {
+                final ConditionInterface child = spillLargeKeySets(tableName, children[i], temporaryTables);
+                if (child != children[i]) {
+                    children[i] = child;
+                    changed = true;
+                }
+            }
+            if (!changed) {
+                return condition;
+            }
+            final Conditions rewritten = new Conditions();
+            rewritten.setConditions(conditions.getLogicType(), children);
+            return rewritten;
+        } else if (condition instanceof Condition) {
+            final Condition c = toBlindIndexCondition(tableName, (Condition) condition);
+            final ConditionType type = c.getConditionType();
+            if (type == ConditionType.MATCH) {
+                final String fullTextTable = tableName.concat(DB_FULL_TEXT_SUFFIX);
+                final String columnName = c.getLeftValue().toString();
+                return new FullTextCondition(fullTextTable, columnName.equals(tableName) ? fullTextTable : columnName, c.getRightValue());
+            }
+            if ((type != ConditionType.IN && type != ConditionType.NOT_IN) || !c.isColumnLeft()) {
+                return c;
+            }
+            final Object[] values = c.getRightValues();
+            if (values.length <= IN_SPILL_THRESHOLD) {
+                return c;
+            }
+            //查詢樣板的Placeholder要在執行時才能決定值，不能先放進暫存表單
+            for (final Object value : values) {
+                if (value instanceof Placeholder || value instanceof BlindIndex.DigestPlaceholder) {
+                    return c;
+                }
+            }
+            final String temporaryTable = DB_TEMPORARY_KEYS_PREFIX.concat(String.valueOf(temporaryTableCounter.incrementAndGet()));
+            final String createStatement = "CREATE TEMP TABLE `" + temporaryTable + "` (`" + DB_TEMPORARY_KEYS_COLUMN + "`)";
+            Printer.print("spillLargeKeySets: ", createStatement);
+            executeUpdate(conn.prepareStatement(createStatement));
+            temporaryTables.add(temporaryTable);
+            for (int offset = 0; offset < values.length; offset += IN_SPILL_THRESHOLD) {
+                final int end = offset + IN_SPILL_THRESHOLD < values.length ? offset + IN_SPILL_THRESHOLD : values.length;
+                final StringBuilder sb = new StringBuilder("INSERT INTO temp.`");
+                sb.append(temporaryTable).append("` (`").append(DB_TEMPORARY_KEYS_COLUMN).append("`) VALUES ");
+                final LinkedList<Object> list = new LinkedList<>();
+                for (int i = offset; i < end; ++i) {
+                    if (i != offset) {
+                        sb.append(",");
+                    }
+                    sb.append("(?)");
+                    list.add(values[i]);
+                }
+                final PreparedStatement stat = conn.prepareStatement(sb.toString());
+                prepareStatement(stat, list);
+                executeUpdate(stat);
+            }
+            return new TemporaryKeysCondition(c.getLeftValue().toString(), type == ConditionType.NOT_IN, temporaryTable);
+        }
+        return condition;
+    }
+
+    /**
+     * 將有盲索引的隱藏欄位的EQUAL、NOT_EQUAL、IN和NOT_IN條件，改成比較盲索引欄位的條件。值為Placeholder時，會改成在查詢樣板執行時才計算雜湊值的Placeholder。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入條件
+     * @return 傳回改寫後的條件，若不需要改寫，傳回原本的條件
+     * @throws Exception 拋出例外
+     */
+    private static Condition toBlindIndexCondition(final String tableName, final Condition condition) throws Exception {
+        final ConditionType type = condition.getConditionType();
+        if (!condition.isColumnLeft() || (type != ConditionType.EQUAL && type != ConditionType.NOT_EQUAL && type != ConditionType.IN && type != ConditionType.NOT_IN)) {
+            return condition;
+        }
+        final String columnName = condition.getLeftValue().toString();
+        if (!isHideColumn(tableName, columnName)) {
+            return condition;
+        }
+        final SchemaCenter.TableSchema schema = getTableSchema(tableName);
+        if (schema == null || !schema.hasBlindIndex()) {
+            return condition;
+        }
+        final int index = schema.getColumnIndex(columnName);
+        if (index < 0 || schema.getBlindIndex(index) < 0) {
+            return condition;
+        }
+        final Object rightValue;
+        if (type == ConditionType.IN || type == ConditionType.NOT_IN) {
+            final Object[] values = condition.getRightValues();
+            final Object[] digests = new Object[values.length];
+            for (int i = 0; i < values.length; ++i) {
+                if (values[i] instanceof Placeholder) {
+                    digests[i] = new BlindIndex.DigestPlaceholder((Placeholder) values[i], tableName, columnName);
                 } else {
-                    statement.setString(index, obj.toString());
+                    digests[i] = blindIndex.digest(tableName, columnName, toTypedValue(values[i], ColumnType.TEXT).toString());
                 }
+            }
+            rightValue = digests;
+        } else if (condition.getRightValue() == null) {
+            return condition;
+        } else if (condition.getRightValue() instanceof Placeholder) {
+            rightValue = new BlindIndex.DigestPlaceholder((Placeholder) condition.getRightValue(), tableName, columnName);
+        } else {
+            rightValue = blindIndex.digest(tableName, columnName, toTypedValue(condition.getRightValue(), ColumnType.TEXT).toString());
+        }
+        final Condition rewritten = new Condition();
+        rewritten.setCondition(schema.getColumnName(schema.getBlindIndex(index)), rightValue, type);
+        return rewritten;
+    }
+
+    /**
+     * 刪除spillLargeKeySets方法建立的暫存表單。
+     *
+     * @param temporaryTables 傳入暫存表單名稱
+     */
+    static void dropTemporaryTables(final ArrayList<String> temporaryTables) {
+        for (final String temporaryTable : temporaryTables) {
+            try (PreparedStatement stat = conn.prepareStatement("DROP TABLE IF EXISTS temp.`" + temporaryTable + "`")) {
+                stat.execute();
             } catch (final Exception ex) {
+                Printer.err("dropTemporaryTables: cannot drop, ", ex.getMessage());
+            }
+        }
+        temporaryTables.clear();
+    }
+
+    /**
+     * 取得查詢的SQL敘述。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入要留下的欄位(Project)
+     * @param condition 傳入查詢的條件，可以為null
+     * @param list 傳入存放SQL敘述參數的LinkedList
+     * @param offset 傳入一開始要略過的筆數，小於等於零不略過
+     * @param limit 傳入數量限制，小於等於零不限制
+     * @param orders 傳入結果的排序方法
+     * @param rowIdOrder 傳入rowid的排序方式，不為null時會多查詢rowid並用它做最後的排序
+     * @return 傳回查詢的SQL敘述
+     * @throws Exception 拋出例外
+     */
+    private static String getSelectStatement(final String tableName, final String[] columnNames, final ConditionInterface condition, final LinkedList<Object> list, final int offset, final int limit, final Order[] orders, final OrderType rowIdOrder) throws Exception {
+        final StringBuilder sb = new StringBuilder("SELECT ");
+        if (columnNames == null) {
+            sb.append("*");
+        } else {
+            final int columnNamesLengthDec = columnNames.length - 1;
+            if (columnNamesLengthDec < 0) {
+                sb.append("*");
+            } else {
+                for (int i = 0; i <= columnNamesLengthDec; ++i) {
+                    final String name = columnNames[i];
+                    if (name == null || name.trim().length() == 0) {
+                        throw new Exception("project column name empty");
+                    } else if (name.contains("`")) {
+                        throw new Exception("columnName has illegal character");
+                    }
+                    sb.append("`").append(name).append("`");
+                    if (i != columnNamesLengthDec) {
+                        sb.append(",");
+                    }
+                }
+            }
+        }
+        if (rowIdOrder != null) {
+            sb.append(",`rowid` AS `").append(DB_PAGE_ROWID_COLUMN).append("`");
+        }
+        sb.append(" FROM `").append(tableName).append("`");
+        if (condition != null) {
+            sb.append(" WHERE ").append(condition.toConditionString(list));
+        }
+        if (orders != null) {
+            final int ordersLengthDec = orders.length - 1;
+            if (ordersLengthDec >= 0) {
+                sb.append(" ORDER BY ");
+                for (int i = 0; i <= ordersLengthDec; ++i) {
+                    final Order order = orders[i];
+                    if (order == null) {
+                        throw new Exception("order null");
+                    }
+                    sb.append(order.toOrderString());
+                    if (i != ordersLengthDec) {
+                        sb.append(",");
+                    }
+                }
+                if (rowIdOrder != null) {
+                    sb.append(",`rowid` ").append(rowIdOrder.toString());
+                }
+            }
+        }
+        if (limit > 0) {
+            sb.append(" LIMIT ").append(limit);
+        }
+        if (offset > 0) {
+            if (limit <= 0) {
+                sb.append(" LIMIT -1");
+            }
+            sb.append(" OFFSET ").append(offset);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 將多個條件組合成一個條件。
+     *
+     * @param logicType 傳入邏輯關係類型
+     * @param conditions 傳入條件
+     * @return 傳回組合後的條件，若只有一個條件，直接傳回該條件
+     */
+    private static ConditionInterface combineConditions(final LogicType logicType, final ConditionInterface... conditions) {
+        if (conditions.length == 1) {
+            return conditions[0];
+        }
+        final Conditions combined = new Conditions();
+        combined.setConditions(logicType, conditions);
+        return combined;
+    }
+
+    /**
+     * 取得建立索引的SQL敘述。
+     *
+     * @param tableName 傳入表單名稱
+     * @param indexName 傳入索引名稱
+     * @param unique 傳入索引的值是否唯一
+     * @param where 傳入部分索引的條件，可以為null
+     * @param orders 傳入欄位和欄位的排序方式
+     * @return 傳回建立索引的SQL敘述
+     */
+    private static String getIndexStatement(final String tableName, final String indexName, final boolean unique, final ConditionInterface where, final Order[] orders) {
+        final StringBuilder sb = new StringBuilder("CREATE ");
+        if (unique) {
+            sb.append("UNIQUE ");
+        }
+        sb.append("INDEX IF NOT EXISTS `").append(indexName).append("` ON `").append(tableName).append("` (");
+        final int ordersLengthDec = orders.length - 1;
+        for (int i = 0; i <= ordersLengthDec; ++i) {
+            sb.append(orders[i].toOrderString());
+            if (i != ordersLengthDec) {
+                sb.append(",");
+            }
+        }
+        sb.append(")");
+        if (where != null) {
+            sb.append(" WHERE ").append(toLiteralConditionString(where));
+        }
+        return sb.toString();
+    }
 
+    /**
+     * 取得將參數直接寫入的條件式，用在無法綁定參數的SQL敘述，例如部分索引(Partial Index)的條件。
+     *
+     * @param condition 傳入條件
+     * @return 傳回條件式字串
+     */
+    private static String toLiteralConditionString(final ConditionInterface condition) {
+        final LinkedList<Object> list = new LinkedList<>();
+        final String conditionString = condition.toConditionString(list);
+        final StringBuilder sb = new StringBuilder();
+        final int l = conditionString.length();
+        boolean quoted = false;
+        for (int i = 0; i < l; ++i) {
+            final char c = conditionString.charAt(i);
+            if (c == '`') {
+                quoted = !quoted;
+                sb.append(c);
+            } else if (c == '?' && !quoted && !list.isEmpty()) {
+                final Object obj = list.removeFirst();
+                if (obj == null) {
+                    sb.append("NULL");
+                } else if (obj instanceof Number) {
+                    sb.append(obj.toString());
+                } else if (obj instanceof Boolean) {
+                    sb.append((Boolean) obj ? 1 : 0);
+                } else {
+                    sb.append("'").append(obj.toString().replace("'", "''")).append("'");
+                }
+            } else {
+                sb.append(c);
             }
         }
+        return sb.toString();
     }
 
     /**
@@ -2020,6 +6132,39 @@ public class ContentCenter {
         return tableName.concat(".").concat(columnName);
     }
 
+    /**
+     * 偵測目前的作業系統。在Android上執行，或是只有SQLDroid驅動可用時為ANDROID；sqlite-jdbc驅動可用時為PC。
+     *
+     * @return 傳回作業系統，若為null，表示找不到可用的JDBC驅動
+     */
+    private static OperatingSystems detectOperatingSystem() {
+        final String vendor = System.getProperty("java.vendor", "");
+        final String vm = System.getProperty("java.vm.name", "");
+        final boolean android = vendor.contains("Android") || vm.contains("Dalvik") || vm.contains("Android");
+        if (!android && isClassAvailable(DB_DRIVER_PC)) {
+            return OperatingSystems.PC;
+        }
+        if (isClassAvailable(DB_DRIVER_ANDROID)) {
+            return OperatingSystems.ANDROID;
+        }
+        return null;
+    }
+
+    /**
+     * 判斷類別是否可以被載入。
+     *
+     * @param className 傳入類別名稱
+     * @return 傳回類別是否可以被載入
+     */
+    private static boolean isClassAvailable(final String className) {
+        try {
+            Class.forName(className);
+            return true;
+        } catch (final ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
     /**
      * 取得JDBC的Driver路徑。
      *
@@ -0,0 +1,380 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+/**
+ * 初始化ContentCenter時要套用的資料庫設定(PRAGMA)。值為null的設定會保留SQLite的預設值。
+ *
+ * @author Magic Len
+ * @see ContentCenter#initialContentCenter(java.io.File, org.magiclen.content.center.listener.ContentCenterListener, java.lang.String, org.magiclen.content.center.DatabaseConfiguration)
+ */
+public class DatabaseConfiguration {
+
+    // -----類別列舉-----
+    /**
+     * <p>
+     * 日誌模式(journal_mode)。
+     * </p>
+     *
+     * <ul>
+     * <li>
+     * DELETE：交易結束後刪除日誌檔案。
+     * </li>
+     * <li>
+     * TRUNCATE：交易結束後將日誌檔案的大小設為0。
+     * </li>
+     * <li>
+     * PERSIST：交易結束後保留日誌檔案，只覆寫檔頭。
+     * </li>
+     * <li>
+     * MEMORY：日誌存放在記憶體中。
+     * </li>
+     * <li>
+     * WAL：預寫式日誌(Write-Ahead Logging)，讀取和寫入可以同時進行。
+     * </li>
+     * <li>
+     * OFF：不使用日誌。
+     * </li>
+     * </ul>
+     */
+    public static enum JournalMode {
+
+        DELETE, TRUNCATE, PERSIST, MEMORY, WAL, OFF;
+    }
+
+    /**
+     * <p>
+     * 同步寫入磁碟的程度(synchronous)。
+     * </p>
+     *
+     * <ul>
+     * <li>
+     * OFF：不等待資料寫入磁碟，最快但斷電時可能損毀資料庫。
+     * </li>
+     * <li>
+     * NORMAL：只在重要的時間點等待資料寫入磁碟，搭配WAL使用時不會損毀資料庫。
+     * </li>
+     * <li>
+     * FULL：每次交易都等待資料寫入磁碟。
+     * </li>
+     * <li>
+     * EXTRA：和FULL相同，另外也會等待日誌檔案的刪除寫入磁碟。
+     * </li>
+     * </ul>
+     */
+    public static enum Synchronous {
+
+        OFF, NORMAL, FULL, EXTRA;
+    }
+
+    /**
+     * <p>
+     * 暫存資料的存放位置(temp_store)。
+     * </p>
+     *
+     * <ul>
+     * <li>
+     * DEFAULT：使用編譯SQLite時的預設值。
+     * </li>
+     * <li>
+     * FILE：存放在檔案中。
+     * </li>
+     * <li>
+     * MEMORY：存放在記憶體中。
+     * </li>
+     * </ul>
+     */
+    public static enum TempStore {
+
+        DEFAULT, FILE, MEMORY;
+    }
+
+    /**
+     * <p>
+     * 自動整理資料庫空間的模式(auto_vacuum)，只有在建立新的資料庫或是重組資料庫後才會改變。
+     * </p>
+     *
+     * <ul>
+     * <li>
+     * NONE：不自動整理，刪除資料後的空頁會保留在資料庫檔案中。
+     * </li>
+     * <li>
+     * FULL：每次交易結束時都整理空頁，會增加每次寫入的工作量。
+     * </li>
+     * <li>
+     * INCREMENTAL：只在執行incremental_vacuum時才整理空頁。
+     * </li>
+     * </ul>
+     */
+    public static enum AutoVacuum {
+
+        NONE, FULL, INCREMENTAL;
+    }
+
+    // -----物件變數-----
+    private JournalMode journalMode = null;
+    private Synchronous synchronous = null;
+    private AutoVacuum autoVacuum = null;
+    private TempStore tempStore = null;
+    private Integer cacheSize = null;
+    private Long mmapSize = null;
+    private Integer pageSize = null;
+    private Integer busyTimeout = null;
+
+    // -----類別方法-----
+    /**
+     * 取得重視資料安全的設定。使用WAL並且每次交易都等待資料寫入磁碟。
+     *
+     * @return 傳回資料庫設定
+     */
+    public static DatabaseConfiguration durable() {
+        final DatabaseConfiguration configuration = new DatabaseConfiguration();
+        configuration.setJournalMode(JournalMode.WAL);
+        configuration.setSynchronous(Synchronous.FULL);
+        configuration.setBusyTimeout(5000);
+        return configuration;
+    }
+
+    /**
+     * 取得兼顧資料安全和速度的設定。使用WAL並且只在重要的時間點等待資料寫入磁碟，斷電時可能會遺失最後的交易，但不會損毀資料庫。
+     *
+     * @return 傳回資料庫設定
+     */
+    public static DatabaseConfiguration balanced() {
+        final DatabaseConfiguration configuration = new DatabaseConfiguration();
+        configuration.setJournalMode(JournalMode.WAL);
+        configuration.setSynchronous(Synchronous.NORMAL);
+        configuration.setCacheSize(-8192);
+        configuration.setTempStore(TempStore.MEMORY);
+        configuration.setBusyTimeout(5000);
+        return configuration;
+    }
+
+    /**
+     * 取得重視速度的設定。使用WAL並且不等待資料寫入磁碟，使用較大的快取和記憶體映射(mmap)，斷電時可能會損毀資料庫。
+     *
+     * @return 傳回資料庫設定
+     */
+    public static DatabaseConfiguration throughput() {
+        final DatabaseConfiguration configuration = new DatabaseConfiguration();
+        configuration.setJournalMode(JournalMode.WAL);
+        configuration.setSynchronous(Synchronous.OFF);
+        configuration.setCacheSize(-32768);
+        configuration.setMmapSize(256L * 1024 * 1024);
+        configuration.setTempStore(TempStore.MEMORY);
+        configuration.setBusyTimeout(5000);
+        return configuration;
+    }
+
+    // -----建構子-----
+    /**
+     * 建構物件實體之後使用set開頭的方法來修改設定，或是直接使用預先定義好的設定。
+     */
+    public DatabaseConfiguration() {
+
+    }
+
+    // -----物件方法-----
+    /**
+     * 設定日誌模式。
+     *
+     * @param journalMode 傳入日誌模式，null表示使用預設值
+     * @return 傳回是否設定成功
+     */
+    public boolean setJournalMode(final JournalMode journalMode) {
+        this.journalMode = journalMode;
+        return true;
+    }
+
+    /**
+     * 設定同步寫入磁碟的程度。
+     *
+     * @param synchronous 傳入同步寫入磁碟的程度，null表示使用預設值
+     * @return 傳回是否設定成功
+     */
+    public boolean setSynchronous(final Synchronous synchronous) {
+        this.synchronous = synchronous;
+        return true;
+    }
+
+    /**
+     * 設定自動整理資料庫空間的模式。
+     *
+     * @param autoVacuum 傳入自動整理資料庫空間的模式，null表示使用ContentCenter的預設值INCREMENTAL
+     * @return 傳回是否設定成功
+     */
+    public boolean setAutoVacuum(final AutoVacuum autoVacuum) {
+        this.autoVacuum = autoVacuum;
+        return true;
+    }
+
+    /**
+     * 設定暫存資料的存放位置。
+     *
+     * @param tempStore 傳入暫存資料的存放位置，null表示使用預設值
+     * @return 傳回是否設定成功
+     */
+    public boolean setTempStore(final TempStore tempStore) {
+        this.tempStore = tempStore;
+        return true;
+    }
+
+    /**
+     * 設定快取大小。
+     *
+     * @param cacheSize 傳入快取大小，正數表示頁數，負數表示KiB，null表示使用預設值
+     * @return 傳回是否設定成功
+     */
+    public boolean setCacheSize(final Integer cacheSize) {
+        this.cacheSize = cacheSize;
+        return true;
+    }
+
+    /**
+     * 設定記憶體映射(mmap)的最大位元組數量。
+     *
+     * @param mmapSize 傳入記憶體映射的最大位元組數量，0表示不使用，null表示使用預設值
+     * @return 傳回是否設定成功
+     */
+    public boolean setMmapSize(final Long mmapSize) {
+        if (mmapSize != null && mmapSize < 0) {
+            return false;
+        }
+        this.mmapSize = mmapSize;
+        return true;
+    }
+
+    /**
+     * 設定頁面大小。只有在建立新的資料庫時才會生效。
+     *
+     * @param pageSize 傳入頁面的位元組數量，必須是512到65536之間的2的次方，null表示使用預設值
+     * @return 傳回是否設定成功
+     */
+    public boolean setPageSize(final Integer pageSize) {
+        if (pageSize != null && (pageSize < 512 || pageSize > 65536 || (pageSize & (pageSize - 1)) != 0)) {
+            return false;
+        }
+        this.pageSize = pageSize;
+        return true;
+    }
+
+    /**
+     * 設定資料庫被鎖定時，最多要等待多久(毫秒)。
+     *
+     * @param busyTimeout 傳入等待的毫秒數，null表示使用預設值
+     * @return 傳回是否設定成功
+     */
+    public boolean setBusyTimeout(final Integer busyTimeout) {
+        if (busyTimeout != null && busyTimeout < 0) {
+            return false;
+        }
+        this.busyTimeout = busyTimeout;
+        return true;
+    }
+
+    /**
+     * 取得日誌模式。
+     *
+     * @return 傳回日誌模式，null表示使用預設值
+     */
+    public JournalMode getJournalMode() {
+        return journalMode;
+    }
+
+    /**
+     * 取得同步寫入磁碟的程度。
+     *
+     * @return 傳回同步寫入磁碟的程度，null表示使用預設值
+     */
+    public Synchronous getSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * 取得自動整理資料庫空間的模式。
+     *
+     * @return 傳回自動整理資料庫空間的模式，null表示使用ContentCenter的預設值INCREMENTAL
+     */
+    public AutoVacuum getAutoVacuum() {
+        return autoVacuum;
+    }
+
+    /**
+     * 取得暫存資料的存放位置。
+     *
+     * @return 傳回暫存資料的存放位置，null表示使用預設值
+     */
+    public TempStore getTempStore() {
+        return tempStore;
+    }
+
+    /**
+     * 取得快取大小。
+     *
+     * @return 傳回快取大小，正數表示頁數，負數表示KiB，null表示使用預設值
+     */
+    public Integer getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * 取得記憶體映射(mmap)的最大位元組數量。
+     *
+     * @return 傳回記憶體映射的最大位元組數量，null表示使用預設值
+     */
+    public Long getMmapSize() {
+        return mmapSize;
+    }
+
+    /**
+     * 取得頁面大小。
+     *
+     * @return 傳回頁面的位元組數量，null表示使用預設值
+     */
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * 取得資料庫被鎖定時，最多要等待多久(毫秒)。
+     *
+     * @return 傳回等待的毫秒數，null表示使用預設值
+     */
+    public Integer getBusyTimeout() {
+        return busyTimeout;
+    }
+
+    /**
+     * 取得字串。
+     *
+     * @return 傳回字串。
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("journal_mode=").append(journalMode);
+        sb.append(", synchronous=").append(synchronous);
+        sb.append(", auto_vacuum=").append(autoVacuum);
+        sb.append(", temp_store=").append(tempStore);
+        sb.append(", cache_size=").append(cacheSize);
+        sb.append(", mmap_size=").append(mmapSize);
+        sb.append(", page_size=").append(pageSize);
+        sb.append(", busy_timeout=").append(busyTimeout);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.magiclen.json.JSONObject;
+
+/**
+ * 隱藏欄位的平行還原器。讀取查詢結果時，先把隱藏欄位的原始值放進資料中，每累積一段資料就交給ForkJoinPool還原，讓還原和讀取ResultSet同時進行。資料的順序不會改變。
+ *
+ * @author Magic Len
+ */
+final class HideDecoder {
+
+    // -----類別常數-----
+    /**
+     * 每段交給ForkJoinPool還原的資料筆數，不足一段的資料會在目前的執行緒還原。
+     */
+    static final int CHUNK_ROWS = 256;
+
+    // -----類別變數-----
+    /**
+     * 還原用的ForkJoinPool，第一次需要時才建立。
+     */
+    private static volatile ForkJoinPool pool;
+
+    // -----物件常數-----
+    private final String[] columnNames;
+    private final ArrayList<ForkJoinTask<?>> tasks = new ArrayList<>();
+
+    // -----物件變數-----
+    private JSONObject[] chunk = new JSONObject[CHUNK_ROWS];
+    private int size = 0;
+
+    // -----建構子-----
+    /**
+     * 建構平行還原器。
+     *
+     * @param columnNames 傳入要還原的隱藏欄位名稱
+     */
+    HideDecoder(final String[] columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    // -----類別方法-----
+    /**
+     * 判斷是否可以平行還原。只有一個處理器時，平行還原沒有好處。
+     *
+     * @return 傳回是否可以平行還原
+     */
+    static boolean isAvailable() {
+        return Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    /**
+     * 取得還原用的ForkJoinPool。
+     *
+     * @return 傳回ForkJoinPool
+     */
+    private static ForkJoinPool getPool() {
+        ForkJoinPool p = pool;
+        if (p == null) {
+            synchronized (HideDecoder.class) {
+                p = pool;
+                if (p == null) {
+                    p = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                    pool = p;
+                }
+            }
+        }
+        return p;
+    }
+
+    /**
+     * 還原一段資料的隱藏欄位。
+     *
+     * @param rows 傳入資料
+     * @param size 傳入資料筆數
+     * @param columnNames 傳入隱藏欄位名稱
+     */
+    private static void decode(final JSONObject[] rows, final int size, final String[] columnNames) {
+        for (int i = 0; i < size; ++i) {
+            final JSONObject row = rows[i];
+            for (final String columnName : columnNames) {
+                final Object raw = row.opt(columnName);
+                if (raw instanceof String) {
+                    row.put(columnName, ContentCenter.recoverHideString((String) raw));
+                }
+            }
+        }
+    }
+
+    // -----物件方法-----
+    /**
+     * 加入一筆隱藏欄位還沒還原的資料，累積滿一段時會交給ForkJoinPool還原。
+     *
+     * @param row 傳入資料
+     */
+    void add(final JSONObject row) {
+        chunk[size++] = row;
+        if (size == CHUNK_ROWS) {
+            final JSONObject[] rows = chunk;
+            tasks.add(getPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    decode(rows, CHUNK_ROWS, columnNames);
+                }
+            }));
+            chunk = new JSONObject[CHUNK_ROWS];
+            size = 0;
+        }
+    }
+
+    /**
+     * 還原剩下的資料，並等待所有交給ForkJoinPool的資料還原完成。
+     *
+     * @throws Exception 拋出例外
+     */
+    void finish() throws Exception {
+        decode(chunk, size, columnNames);
+        size = 0;
+        try {
+            for (final ForkJoinTask<?> task : tasks) {
+                task.get();
+            }
+        } catch (final ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            throw cause instanceof Exception ? (Exception) cause : ex;
+        } finally {
+            tasks.clear();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import org.magiclen.json.JSONObject;
+
+/**
+ * 從串流逐筆讀取要匯入的資料，每次只會保留一筆資料在記憶體中。
+ *
+ * @author Magic Len
+ */
+abstract class ImportReader {
+
+    // -----類別常數-----
+    /**
+     * 匯入資料使用的編碼。
+     */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // -----類別類別-----
+    /**
+     * 計算讀取的位元組數量的串流。
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private volatile long count;
+
+        /**
+         * 建構計算讀取位元組數量的串流。
+         *
+         * @param in 傳入要計算的串流
+         */
+        private CountingInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                ++count;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    /**
+     * 讀取NDJSON(每行一個JSON物件)的資料。
+     */
+    private static final class NDJSONReader extends ImportReader {
+
+        /**
+         * 建構NDJSON的讀取者。
+         *
+         * @param in 傳入資料串流
+         * @param columnNames 傳入表單的欄位名稱
+         */
+        private NDJSONReader(final InputStream in, final String[] columnNames) {
+            super(in, columnNames);
+        }
+
+        @Override
+        boolean next(final Object[] values) throws Exception {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                line = line.trim();
+            } while (line.length() == 0);
+            final JSONObject json = new JSONObject(line);
+            for (int i = 0; i < columnNames.length; ++i) {
+                final Object value = json.opt(columnNames[i]);
+                values[i] = JSONObject.NULL.equals(value) ? null : value;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 讀取CSV(RFC 4180)的資料。
+     */
+    private static final class CSVReader extends ImportReader {
+
+        private final int[] fieldIndexes;
+        private final ArrayList<String> fields = new ArrayList<>();
+        private final StringBuilder field = new StringBuilder();
+
+        /**
+         * 建構CSV的讀取者。
+         *
+         * @param in 傳入資料串流
+         * @param columnNames 傳入表單的欄位名稱
+         * @param header 傳入第一行是否為欄位名稱，若為false，欄位依照表單欄位的順序對應
+         * @throws Exception 拋出例外
+         */
+        private CSVReader(final InputStream in, final String[] columnNames, final boolean header) throws Exception {
+            super(in, columnNames);
+            fieldIndexes = new int[columnNames.length];
+            if (header) {
+                if (!readRecord()) {
+                    throw new Exception("CSV header is missing");
+                }
+                final HashMap<String, Integer> hmHeader = new HashMap<>();
+                for (int i = 0; i < fields.size(); ++i) {
+                    hmHeader.put(fields.get(i).trim(), i);
+                }
+                for (int i = 0; i < columnNames.length; ++i) {
+                    final Integer index = hmHeader.get(columnNames[i]);
+                    fieldIndexes[i] = index == null ? -1 : index;
+                }
+            } else {
+                for (int i = 0; i < columnNames.length; ++i) {
+                    fieldIndexes[i] = i;
+                }
+            }
+        }
+
+        @Override
+        boolean next(final Object[] values) throws Exception {
+            do {
+                if (!readRecord()) {
+                    return false;
+                }
+            } while (fields.size() == 1 && fields.get(0).length() == 0); // 略過空行
+            for (int i = 0; i < columnNames.length; ++i) {
+                final int index = fieldIndexes[i];
+                values[i] = index < 0 || index >= fields.size() ? null : fields.get(index);
+            }
+            return true;
+        }
+
+        /**
+         * 讀取一筆紀錄，欄位中可以有用雙引號包起來的逗號、雙引號和換行。
+         *
+         * @return 傳回是否有讀到紀錄
+         * @throws IOException 拋出例外
+         */
+        private boolean readRecord() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean any = false;
+            while (true) {
+                final int c = reader.read();
+                if (c < 0) {
+                    if (!any) {
+                        return false;
+                    }
+                    fields.add(field.toString());
+                    return true;
+                }
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n') {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    fields.add(field.toString());
+                    return true;
+                } else {
+                    field.append((char) c);
+                }
+            }
+        }
+    }
+
+    // -----物件常數-----
+    private final CountingInputStream counter;
+    final BufferedReader reader;
+    final String[] columnNames;
+
+    // -----類別方法-----
+    /**
+     * 建立NDJSON的讀取者，每行要是一個JSON物件，沒有出現的欄位會被當作null。
+     *
+     * @param in 傳入資料串流，使用UTF-8編碼
+     * @param columnNames 傳入表單的欄位名稱
+     * @return 傳回讀取者
+     */
+    static ImportReader ndjson(final InputStream in, final String[] columnNames) {
+        return new NDJSONReader(in, columnNames);
+    }
+
+    /**
+     * 建立CSV的讀取者，空的欄位會被當作空字串。
+     *
+     * @param in 傳入資料串流，使用UTF-8編碼
+     * @param columnNames 傳入表單的欄位名稱
+     * @param header 傳入第一行是否為欄位名稱，若為false，欄位依照表單欄位的順序對應
+     * @return 傳回讀取者
+     * @throws Exception 拋出例外
+     */
+    static ImportReader csv(final InputStream in, final String[] columnNames, final boolean header) throws Exception {
+        return new CSVReader(in, columnNames, header);
+    }
+
+    // -----建構子-----
+    /**
+     * 建構讀取者。
+     *
+     * @param in 傳入資料串流
+     * @param columnNames 傳入表單的欄位名稱
+     */
+    private ImportReader(final InputStream in, final String[] columnNames) {
+        this.counter = new CountingInputStream(in);
+        this.reader = new BufferedReader(new InputStreamReader(counter, UTF_8));
+        this.columnNames = columnNames;
+    }
+
+    // -----抽象物件方法-----
+    /**
+     * 讀取下一筆資料。
+     *
+     * @param values 傳入要存放資料的陣列，順序和表單的欄位名稱相同
+     * @return 傳回是否有讀到資料
+     * @throws Exception 拋出例外
+     */
+    abstract boolean next(final Object[] values) throws Exception;
+
+    // -----物件方法-----
+    /**
+     * 取得已經讀取的位元組數量。
+     *
+     * @return 傳回已經讀取的位元組數量
+     */
+    long getBytes() {
+        return counter.count;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+/**
+ * 索引建議，由ContentCenter觀察實際執行過的查詢條件和排序方式所產生。
+ *
+ * @author Magic Len
+ * @see ContentCenter#adviseIndexes()
+ */
+public class IndexAdvice {
+
+    // -----物件常數-----
+    private final String tableName;
+    private final String[] columnNames;
+    private final long occurrences;
+    private final long totalNanos;
+
+    // -----建構子-----
+    /**
+     * 建構索引建議。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入建議的索引欄位，依照索引的順序排列
+     * @param occurrences 傳入可以使用這個索引的查詢次數
+     * @param totalNanos 傳入這些查詢的總執行時間(奈秒)
+     */
+    IndexAdvice(final String tableName, final String[] columnNames, final long occurrences, final long totalNanos) {
+        this.tableName = tableName;
+        this.columnNames = columnNames;
+        this.occurrences = occurrences;
+        this.totalNanos = totalNanos;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得表單名稱。
+     *
+     * @return 傳回表單名稱
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * 取得建議的索引欄位。
+     *
+     * @return 傳回建議的索引欄位，依照索引的順序排列
+     */
+    public String[] getColumnNames() {
+        return columnNames.clone();
+    }
+
+    /**
+     * 取得建議的索引名稱。
+     *
+     * @return 傳回建議的索引名稱
+     */
+    public String getIndexName() {
+        final StringBuilder sb = new StringBuilder("idx_auto_");
+        sb.append(tableName);
+        for (final String columnName : columnNames) {
+            sb.append("_").append(columnName);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 取得可以使用這個索引的查詢次數。
+     *
+     * @return 傳回查詢次數
+     */
+    public long getOccurrences() {
+        return occurrences;
+    }
+
+    /**
+     * 取得可以使用這個索引的查詢的總執行時間。
+     *
+     * @return 傳回總執行時間(奈秒)
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * 取得可以使用這個索引的查詢的平均執行時間。
+     *
+     * @return 傳回平均執行時間(奈秒)
+     */
+    public long getAverageNanos() {
+        if (occurrences == 0) {
+            return 0;
+        }
+        return totalNanos / occurrences;
+    }
+
+    /**
+     * 取得字串。
+     *
+     * @return 傳回字串。
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(tableName).append(" (");
+        for (int i = 0; i < columnNames.length; ++i) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            sb.append(columnNames[i]);
+        }
+        sb.append("): ").append(occurrences).append(" queries, avg=").append(getAverageNanos()).append("ns");
+        return sb.toString();
+    }
+}
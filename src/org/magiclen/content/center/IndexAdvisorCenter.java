@@ -0,0 +1,248 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.magiclen.content.database.Condition;
+import org.magiclen.content.database.ConditionInterface;
+import org.magiclen.content.database.ConditionType;
+import org.magiclen.content.database.Conditions;
+import org.magiclen.content.database.LogicType;
+import org.magiclen.content.database.Order;
+
+/**
+ * 索引顧問中心，記錄查詢的條件和排序中出現的欄位(查詢形狀)，以及這些查詢的次數和執行時間，用來產生索引建議。
+ *
+ * @author Magic Len
+ * @see IndexAdvice
+ */
+class IndexAdvisorCenter {
+
+    // -----類別常數-----
+    /**
+     * 每個表單最多記錄的查詢形狀數量。
+     */
+    private static final int MAX_SHAPES = 128;
+
+    /**
+     * 建議的索引最多使用的欄位數量。
+     */
+    private static final int MAX_COLUMNS = 4;
+
+    /**
+     * 儲存每個表單的查詢形狀。
+     */
+    private final static ConcurrentHashMap<String, ConcurrentHashMap<String, Shape>> hmShapes = new ConcurrentHashMap<>();
+
+    // -----類別類別-----
+    /**
+     * 查詢形狀，也就是可以使用同一個索引的查詢。
+     */
+    private static final class Shape {
+
+        private final String[] columnNames;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+
+        /**
+         * 建構查詢形狀。
+         *
+         * @param columnNames 傳入索引欄位
+         */
+        private Shape(final String[] columnNames) {
+            this.columnNames = columnNames;
+        }
+    }
+
+    // -----類別方法-----
+    /**
+     * 記錄一次查詢。若ContentCenter的recordMetrics沒有開啟，將不會記錄。
+     *
+     * @param tableName 傳入表單名稱
+     * @param condition 傳入查詢的條件，可以為null
+     * @param orders 傳入結果的排序方法，可以為null
+     * @param startTime 傳入操作開始時，System.nanoTime()的值
+     */
+    static void record(final String tableName, final ConditionInterface condition, final Order[] orders, final long startTime) {
+        if (!ContentCenter.recordMetrics || tableName == null) {
+            return;
+        }
+        final long nanos = System.nanoTime() - startTime;
+        final TreeSet<String> equalities = new TreeSet<>();
+        final LinkedHashSet<String> ranges = new LinkedHashSet<>();
+        if (condition != null) {
+            collect(condition, equalities, ranges);
+        }
+        final LinkedHashSet<String> columns = new LinkedHashSet<>(equalities);
+        if (!ranges.isEmpty()) {
+            for (final String range : ranges) {
+                if (!columns.contains(range)) {
+                    columns.add(range);
+                    break;
+                }
+            }
+        } else if (orders != null) {
+            for (final Order order : orders) {
+                if (order != null && order.getColumnName() != null) {
+                    columns.add(order.getColumnName());
+                }
+            }
+        }
+        if (columns.isEmpty()) {
+            return;
+        }
+        final String[] columnNames = new String[columns.size() < MAX_COLUMNS ? columns.size() : MAX_COLUMNS];
+        final StringBuilder key = new StringBuilder();
+        int i = 0;
+        for (final String column : columns) {
+            if (i == columnNames.length) {
+                break;
+            }
+            columnNames[i++] = column;
+            key.append(column).append("`");
+        }
+
+        ConcurrentHashMap<String, Shape> shapes = hmShapes.get(tableName);
+        if (shapes == null) {
+            final ConcurrentHashMap<String, Shape> newShapes = new ConcurrentHashMap<>();
+            shapes = hmShapes.putIfAbsent(tableName, newShapes);
+            if (shapes == null) {
+                shapes = newShapes;
+            }
+        }
+        final String shapeKey = key.toString();
+        Shape shape = shapes.get(shapeKey);
+        if (shape == null) {
+            if (shapes.size() >= MAX_SHAPES) {
+                return;
+            }
+            final Shape newShape = new Shape(columnNames);
+            shape = shapes.putIfAbsent(shapeKey, newShape);
+            if (shape == null) {
+                shape = newShape;
+            }
+        }
+        shape.count.incrementAndGet();
+        shape.totalNanos.addAndGet(nanos);
+    }
+
+    /**
+     * 找出條件中可以使用索引的欄位。只有使用AND組合的條件才會被考慮。
+     *
+     * @param condition 傳入條件
+     * @param equalities 傳入存放等於比較的欄位的Set
+     * @param ranges 傳入存放範圍比較的欄位的Set
+     */
+    private static void collect(final ConditionInterface condition, final TreeSet<String> equalities, final LinkedHashSet<String> ranges) {
+        if (condition instanceof Conditions) {
+            final Conditions conditions = (Conditions) condition;
+            if (conditions.getLogicType() != LogicType.AND) {
+                return;
+            }
+            for (final ConditionInterface c : conditions.getConditions()) {
+                collect(c, equalities, ranges);
+            }
+        } else if (condition instanceof Condition) {
+            final Condition c = (Condition) condition;
+            if (!c.isColumnLeft() || c.getLeftValue() == null) {
+                return;
+            }
+            final String columnName = c.getLeftValue().toString();
+            final ConditionType type = c.getConditionType();
+            if (type == ConditionType.EQUAL || type == ConditionType.IN) {
+                equalities.add(columnName);
+            } else if (type == ConditionType.BIGGER_THAN || type == ConditionType.SMALLER_THAN || type == ConditionType.EQUAL_OR_BIGGER_THAN || type == ConditionType.EQUAL_OR_SMALLER_THAN || type == ConditionType.BETWEEN) {
+                ranges.add(columnName);
+            }
+        }
+    }
+
+    /**
+     * 取得查詢次數達到門檻的索引建議，依照總執行時間由多到少排列。
+     *
+     * @param minOccurrences 傳入最少的查詢次數
+     * @return 傳回索引建議
+     */
+    static ArrayList<IndexAdvice> getCandidates(final long minOccurrences) {
+        final ArrayList<IndexAdvice> list = new ArrayList<>();
+        for (final Map.Entry<String, ConcurrentHashMap<String, Shape>> entry : hmShapes.entrySet()) {
+            for (final Shape shape : entry.getValue().values()) {
+                final long count = shape.count.get();
+                if (count >= minOccurrences) {
+                    list.add(new IndexAdvice(entry.getKey(), shape.columnNames.clone(), count, shape.totalNanos.get()));
+                }
+            }
+        }
+        Collections.sort(list, new Comparator<IndexAdvice>() {
+            @Override
+            public int compare(final IndexAdvice a, final IndexAdvice b) {
+                return Long.compare(b.getTotalNanos(), a.getTotalNanos());
+            }
+        });
+        return list;
+    }
+
+    /**
+     * 移除某個查詢形狀的紀錄。
+     *
+     * @param tableName 傳入表單名稱
+     * @param columnNames 傳入索引欄位
+     */
+    static void remove(final String tableName, final String[] columnNames) {
+        final ConcurrentHashMap<String, Shape> shapes = hmShapes.get(tableName);
+        if (shapes == null) {
+            return;
+        }
+        final StringBuilder key = new StringBuilder();
+        for (final String column : columnNames) {
+            key.append(column).append("`");
+        }
+        shapes.remove(key.toString());
+    }
+
+    /**
+     * 移除某個表單所有查詢形狀的紀錄。
+     *
+     * @param tableName 傳入表單名稱
+     */
+    static void remove(final String tableName) {
+        hmShapes.remove(tableName);
+    }
+
+    /**
+     * 清除所有查詢形狀的紀錄。
+     */
+    static void reset() {
+        hmShapes.clear();
+    }
+
+    // -----建構子-----
+    /**
+     * 私有建構子，無法直接實體化。
+     */
+    private IndexAdvisorCenter() {
+
+    }
+}
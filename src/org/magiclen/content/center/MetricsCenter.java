@@ -0,0 +1,244 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 統計中心，記錄每個表單的每種操作的執行次數、錯誤次數、資料筆數和延遲直方圖。
+ *
+ * @author Magic Len
+ * @see OperationMetrics
+ */
+class MetricsCenter {
+
+    // -----類別常數-----
+    /**
+     * 儲存每個表單的統計資料，陣列的索引值為操作類型的序數。
+     */
+    private final static ConcurrentHashMap<String, Recorder[]> hmRecorders = new ConcurrentHashMap<>();
+
+    /**
+     * 操作類型的數量。
+     */
+    private final static int OPERATION_TYPES = OperationType.values().length;
+
+    /**
+     * 正在進行中的操作數量。
+     */
+    private final static AtomicInteger activeOperations = new AtomicInteger();
+
+    // -----類別變數-----
+    /**
+     * 最後一次對資料庫操作(同步除外)的時間。
+     */
+    private static volatile long lastActivityTime = System.currentTimeMillis();
+
+    // -----類別類別-----
+    /**
+     * 單一表單、單一操作類型的統計資料。
+     */
+    private static final class Recorder {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(OperationMetrics.HISTOGRAM_BUCKETS);
+
+        /**
+         * 記錄一次操作。
+         *
+         * @param rows 傳入影響或是取得的資料筆數
+         * @param nanos 傳入延遲時間(奈秒)
+         * @param success 傳入是否執行成功
+         */
+        private void record(final long rows, final long nanos, final boolean success) {
+            count.incrementAndGet();
+            if (!success) {
+                errorCount.incrementAndGet();
+            }
+            if (rows > 0) {
+                this.rows.addAndGet(rows);
+            }
+            totalNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+            histogram.incrementAndGet(OperationMetrics.getBucketIndex(nanos));
+        }
+
+        /**
+         * 建立統計資料快照。
+         *
+         * @param tableName 傳入表單名稱
+         * @param operationType 傳入操作類型
+         * @return 傳回統計資料快照
+         */
+        private OperationMetrics snapshot(final String tableName, final OperationType operationType) {
+            final long[] buckets = new long[OperationMetrics.HISTOGRAM_BUCKETS];
+            for (int i = 0; i < buckets.length; ++i) {
+                buckets[i] = histogram.get(i);
+            }
+            return new OperationMetrics(tableName, operationType, count.get(), errorCount.get(), rows.get(), totalNanos.get(), maxNanos.get(), buckets);
+        }
+    }
+
+    // -----類別方法-----
+    /**
+     * 記錄一次操作。若ContentCenter的recordMetrics沒有開啟，將不會記錄。
+     *
+     * @param operationType 傳入操作類型
+     * @param tableName 傳入表單名稱
+     * @param rows 傳入影響或是取得的資料筆數
+     * @param startTime 傳入操作開始時，System.nanoTime()的值
+     * @param success 傳入是否執行成功
+     */
+    static void record(final OperationType operationType, final String tableName, final long rows, final long startTime, final boolean success) {
+        if (operationType != OperationType.SYNC && operationType != OperationType.VACUUM) {
+            lastActivityTime = System.currentTimeMillis();
+        }
+        if (!ContentCenter.recordMetrics || tableName == null) {
+            return;
+        }
+        final long nanos = System.nanoTime() - startTime;
+        Recorder[] recorders = hmRecorders.get(tableName);
+        if (recorders == null) {
+            final Recorder[] newRecorders = new Recorder[OPERATION_TYPES];
+            for (int i = 0; i < OPERATION_TYPES; ++i) {
+                newRecorders[i] = new Recorder();
+            }
+            recorders = hmRecorders.putIfAbsent(tableName, newRecorders);
+            if (recorders == null) {
+                recorders = newRecorders;
+            }
+        }
+        recorders[operationType.ordinal()].record(rows, nanos, success);
+    }
+
+    /**
+     * 將最後一次操作的時間設為現在，讓背景維護工作延後執行。
+     */
+    static void markActivity() {
+        lastActivityTime = System.currentTimeMillis();
+    }
+
+    /**
+     * 開始一個可能長時間進行的操作(例如交易、匯入、匯出、備份)，操作結束前不會被視為閒置。結束時要呼叫endActivity方法。
+     */
+    static void beginActivity() {
+        activeOperations.incrementAndGet();
+        markActivity();
+    }
+
+    /**
+     * 結束beginActivity方法開始的操作。
+     */
+    static void endActivity() {
+        activeOperations.decrementAndGet();
+        markActivity();
+    }
+
+    /**
+     * 判斷資料庫是否閒置，也就是沒有進行中的操作，且最後一次操作已經超過指定的時間。
+     *
+     * @param idleTime 傳入閒置的時間(毫秒)
+     * @return 傳回是否閒置
+     */
+    static boolean isIdle(final long idleTime) {
+        return activeOperations.get() == 0 && System.currentTimeMillis() - lastActivityTime >= idleTime;
+    }
+
+    /**
+     * 取得最後一次對資料庫操作(同步和整理資料庫空間除外)的時間，即使沒有開啟ContentCenter的recordMetrics也會更新。
+     *
+     * @return 傳回最後一次操作的時間(毫秒)
+     */
+    static long getLastActivityTime() {
+        return lastActivityTime;
+    }
+
+    /**
+     * 取得所有表單的統計資料快照，沒有執行過的操作類型不會被列出。
+     *
+     * @return 傳回統計資料快照
+     */
+    static OperationMetrics[] snapshot() {
+        final ArrayList<OperationMetrics> list = new ArrayList<>();
+        for (final String tableName : hmRecorders.keySet()) {
+            snapshot(tableName, list);
+        }
+        return list.toArray(new OperationMetrics[list.size()]);
+    }
+
+    /**
+     * 取得指定表單的統計資料快照，沒有執行過的操作類型不會被列出。
+     *
+     * @param tableName 傳入表單名稱
+     * @return 傳回統計資料快照
+     */
+    static OperationMetrics[] snapshot(final String tableName) {
+        final ArrayList<OperationMetrics> list = new ArrayList<>();
+        snapshot(tableName, list);
+        return list.toArray(new OperationMetrics[list.size()]);
+    }
+
+    /**
+     * 將指定表單的統計資料快照加入至List。
+     *
+     * @param tableName 傳入表單名稱
+     * @param list 傳入要存放快照的List
+     */
+    private static void snapshot(final String tableName, final ArrayList<OperationMetrics> list) {
+        if (tableName == null) {
+            return;
+        }
+        final Recorder[] recorders = hmRecorders.get(tableName);
+        if (recorders == null) {
+            return;
+        }
+        final OperationType[] types = OperationType.values();
+        for (int i = 0; i < OPERATION_TYPES; ++i) {
+            final OperationMetrics metrics = recorders[i].snapshot(tableName, types[i]);
+            if (metrics.getCount() > 0) {
+                list.add(metrics);
+            }
+        }
+    }
+
+    /**
+     * 清除所有的統計資料。
+     */
+    static void reset() {
+        hmRecorders.clear();
+    }
+
+    // -----建構子-----
+    /**
+     * 私有建構子，無法直接實體化。
+     */
+    private MetricsCenter() {
+
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+/**
+ * 某個表單在某種操作類型下的統計資料快照，包含執行次數、錯誤次數、影響的資料筆數和延遲直方圖(Histogram)。
+ *
+ * @author Magic Len
+ * @see ContentCenter#getMetrics()
+ */
+public class OperationMetrics {
+
+    // -----類別常數-----
+    /**
+     * 延遲直方圖的區間數量。第i個區間(i大於0)所統計的延遲時間範圍為[2^(i-1), 2^i)個微秒單位，一個微秒單位為1024奈秒。
+     */
+    public static final int HISTOGRAM_BUCKETS = 32;
+
+    // -----物件常數-----
+    private final String tableName;
+    private final OperationType operationType;
+    private final long count;
+    private final long errorCount;
+    private final long rows;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long[] histogram;
+
+    // -----類別方法-----
+    /**
+     * 計算延遲時間所在的直方圖區間。
+     *
+     * @param nanos 傳入延遲時間(奈秒)
+     * @return 傳回直方圖區間的索引值
+     */
+    static int getBucketIndex(final long nanos) {
+        if (nanos <= 0) {
+            return 0;
+        }
+        final int index = 64 - Long.numberOfLeadingZeros(nanos >>> 10);
+        return index < HISTOGRAM_BUCKETS ? index : HISTOGRAM_BUCKETS - 1;
+    }
+
+    /**
+     * 取得直方圖區間的延遲時間上限。
+     *
+     * @param index 傳入直方圖區間的索引值
+     * @return 傳回延遲時間上限(奈秒)，若索引值不正確，傳回-1
+     */
+    public static long getBucketUpperBoundNanos(final int index) {
+        if (index < 0 || index >= HISTOGRAM_BUCKETS) {
+            return -1;
+        }
+        return 1024L << index;
+    }
+
+    // -----建構子-----
+    /**
+     * 建構統計資料快照。
+     *
+     * @param tableName 傳入表單名稱
+     * @param operationType 傳入操作類型
+     * @param count 傳入執行次數
+     * @param errorCount 傳入錯誤次數
+     * @param rows 傳入影響或是取得的資料筆數
+     * @param totalNanos 傳入總延遲時間(奈秒)
+     * @param maxNanos 傳入最大延遲時間(奈秒)
+     * @param histogram 傳入延遲直方圖
+     */
+    OperationMetrics(final String tableName, final OperationType operationType, final long count, final long errorCount, final long rows, final long totalNanos, final long maxNanos, final long[] histogram) {
+        this.tableName = tableName;
+        this.operationType = operationType;
+        this.count = count;
+        this.errorCount = errorCount;
+        this.rows = rows;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.histogram = histogram;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得表單名稱。
+     *
+     * @return 傳回表單名稱
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * 取得操作類型。
+     *
+     * @return 傳回操作類型
+     */
+    public OperationType getOperationType() {
+        return operationType;
+    }
+
+    /**
+     * 取得執行次數，包含執行失敗的次數。
+     *
+     * @return 傳回執行次數
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 取得執行失敗的次數。
+     *
+     * @return 傳回執行失敗的次數
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * 取得影響或是取得的資料總筆數。
+     *
+     * @return 傳回資料總筆數
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * 取得總延遲時間。
+     *
+     * @return 傳回總延遲時間(奈秒)
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * 取得最大延遲時間。
+     *
+     * @return 傳回最大延遲時間(奈秒)
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * 取得平均延遲時間。
+     *
+     * @return 傳回平均延遲時間(奈秒)
+     */
+    public long getAverageNanos() {
+        if (count == 0) {
+            return 0;
+        }
+        return totalNanos / count;
+    }
+
+    /**
+     * 取得延遲直方圖。
+     *
+     * @return 傳回每個區間的次數
+     */
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    /**
+     * 從延遲直方圖估算百分位數的延遲時間，會傳回該百分位數所在區間的上限。
+     *
+     * @param percentile 傳入百分位數，範圍為0到100
+     * @return 傳回延遲時間(奈秒)，若還沒有任何資料，傳回0
+     */
+    public long getPercentileNanos(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final double p = percentile < 0 ? 0 : (percentile > 100 ? 100 : percentile);
+        final long target = (long) Math.ceil(count * p / 100);
+        long sum = 0;
+        for (int i = 0; i < HISTOGRAM_BUCKETS; ++i) {
+            sum += histogram[i];
+            if (sum >= target) {
+                final long upperBound = getBucketUpperBoundNanos(i);
+                return upperBound < maxNanos ? upperBound : maxNanos;
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * 取得字串。
+     *
+     * @return 傳回字串。
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(tableName).append(" ").append(operationType).append(": count=").append(count).append(", errors=").append(errorCount).append(", rows=").append(rows).append(", avg=").append(getAverageNanos()).append("ns, p99=").append(getPercentileNanos(99)).append("ns, max=").append(maxNanos).append("ns");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+/**
+ * <p>
+ * ContentCenter的操作類型，用來分類統計資料。
+ * </p>
+ *
+ * <ul>
+ * <li>
+ * QUERY：查詢資料。
+ * </li>
+ * <li>
+ * COUNT：查詢資料數量。
+ * </li>
+ * <li>
+ * AGGREGATE：使用聚合函數查詢資料。
+ * </li>
+ * <li>
+ * INSERT：插入資料。
+ * </li>
+ * <li>
+ * MULTI_INSERT：插入多筆資料。
+ * </li>
+ * <li>
+ * UPSERT：插入或更新資料。
+ * </li>
+ * <li>
+ * UPDATE：更新資料。
+ * </li>
+ * <li>
+ * DELETE：刪除資料。
+ * </li>
+ * <li>
+ * SYNC：同步資料。
+ * </li>
+ * <li>
+ * VACUUM：整理資料庫空間。
+ * </li>
+ * <li>
+ * BACKUP：備份資料庫。
+ * </li>
+ * <li>
+ * IMPORT：匯入資料。
+ * </li>
+ * <li>
+ * EXPORT：匯出資料。
+ * </li>
+ * </ul>
+ *
+ * @author Magic Len
+ * @see OperationMetrics
+ */
+public enum OperationType {
+
+    QUERY, COUNT, AGGREGATE, INSERT, MULTI_INSERT, UPSERT, UPDATE, DELETE, SYNC, VACUUM, BACKUP, IMPORT, EXPORT;
+}
@@ -72,6 +72,37 @@ public abstract class Printer {
 	return false;
     }
 
+    /**
+     * 如果ContentCenter的printStatement有開啟，那就串接字串並印出一般訊息。沒有開啟時不會建構字串。
+     *
+     * @param prefix 傳入訊息的前綴
+     * @param s 傳入要接在前綴後的字串
+     * @return 傳回是否成功印出
+     */
+    static boolean print(final String prefix, final String s) {
+	if (ContentCenter.printStatement) {
+	    printer.printStatement(prefix.concat(String.valueOf(s)));
+	    return true;
+	}
+	return false;
+    }
+
+    /**
+     * 如果ContentCenter的printStatement有開啟，那就串接字串並印出一般訊息。沒有開啟時不會建構字串。
+     *
+     * @param methodName 傳入訊息的方法名稱
+     * @param prefix 傳入要接在方法名稱後的前綴
+     * @param s 傳入要接在前綴後的字串
+     * @return 傳回是否成功印出
+     */
+    static boolean print(final String methodName, final String prefix, final String s) {
+	if (ContentCenter.printStatement) {
+	    printer.printStatement(methodName.concat(prefix).concat(String.valueOf(s)));
+	    return true;
+	}
+	return false;
+    }
+
     /**
      * 如果ContentCenter的printError有開啟，那就印出錯誤訊息。
      *
@@ -86,6 +117,37 @@ public abstract class Printer {
 	return false;
     }
 
+    /**
+     * 如果ContentCenter的printError有開啟，那就串接字串並印出錯誤訊息。沒有開啟時不會建構字串。
+     *
+     * @param prefix 傳入訊息的前綴
+     * @param s 傳入要接在前綴後的字串
+     * @return 傳回是否成功印出
+     */
+    static boolean err(final String prefix, final String s) {
+	if (ContentCenter.printError) {
+	    printer.printError(prefix.concat(String.valueOf(s)));
+	    return true;
+	}
+	return false;
+    }
+
+    /**
+     * 如果ContentCenter的printError有開啟，那就串接字串並印出錯誤訊息。沒有開啟時不會建構字串。
+     *
+     * @param methodName 傳入訊息的方法名稱
+     * @param prefix 傳入要接在方法名稱後的前綴
+     * @param s 傳入要接在前綴後的字串
+     * @return 傳回是否成功印出
+     */
+    static boolean err(final String methodName, final String prefix, final String s) {
+	if (ContentCenter.printError) {
+	    printer.printError(methodName.concat(prefix).concat(String.valueOf(s)));
+	    return true;
+	}
+	return false;
+    }
+
     // -----抽象物件方法-----
     /**
      * 印出一般訊息。
@@ -0,0 +1,73 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import org.magiclen.json.JSONArray;
+
+/**
+ * 鍵集分頁(Keyset Pagination)查詢的一頁結果。
+ *
+ * @author Magic Len
+ * @see ContentCenter#queryPage(java.lang.String, java.lang.String[], org.magiclen.content.database.ConditionInterface, int, java.lang.String, org.magiclen.content.database.Order...)
+ */
+public class QueryPage {
+
+    // -----物件常數-----
+    private final JSONArray rows;
+    private final String continuationToken;
+
+    // -----建構子-----
+    /**
+     * 建構一頁查詢結果。
+     *
+     * @param rows 傳入這一頁的資料
+     * @param continuationToken 傳入取得下一頁時要使用的接續標記，null表示沒有下一頁
+     */
+    QueryPage(final JSONArray rows, final String continuationToken) {
+        this.rows = rows;
+        this.continuationToken = continuationToken;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得這一頁的資料。
+     *
+     * @return 傳回這一頁的資料
+     */
+    public JSONArray getRows() {
+        return rows;
+    }
+
+    /**
+     * 取得取得下一頁時要使用的接續標記。
+     *
+     * @return 傳回接續標記，若為null，表示沒有下一頁
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    /**
+     * 判斷是否還有下一頁。
+     *
+     * @return 傳回是否還有下一頁
+     */
+    public boolean hasMore() {
+        return continuationToken != null;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import org.magiclen.content.database.ConditionInterface;
+import org.magiclen.content.database.Order;
+import org.magiclen.content.database.Placeholder;
+import org.magiclen.json.JSONArray;
+import org.magiclen.json.JSONObject;
+
+/**
+ * 查詢樣板(Query Template)，使用ContentCenter的compileQuery方法編譯。SQL敘述和PreparedStatement只會產生一次，執行時只需要傳入Placeholder的值。
+ *
+ * @author Magic Len
+ * @see ContentCenter#compileQuery(java.lang.String, java.lang.String[], org.magiclen.content.database.ConditionInterface, org.magiclen.content.database.Order...)
+ * @see Placeholder
+ */
+public class QueryTemplate {
+
+    // -----物件常數-----
+    private final String tableName;
+    private final String statement;
+    private final PreparedStatement stat;
+    private final Object[] parameters;
+    private final ConditionInterface condition;
+    private final Order[] orders;
+    private final boolean reverse;
+    private final ArrayList<String> temporaryTables;
+
+    // -----物件變數-----
+    private boolean closed = false;
+
+    // -----建構子-----
+    /**
+     * 建構查詢樣板。
+     *
+     * @param tableName 傳入表單名稱
+     * @param statement 傳入SQL敘述
+     * @param stat 傳入編譯好的PreparedStatement
+     * @param parameters 傳入SQL敘述的參數，其中的Placeholder會在執行時被取代
+     * @param condition 傳入查詢的條件
+     * @param orders 傳入結果的排序方法
+     * @param reverse 傳入是否要反向
+     * @param temporaryTables 傳入這個查詢樣板使用的暫存表單，在關閉時會被刪除
+     */
+    QueryTemplate(final String tableName, final String statement, final PreparedStatement stat, final Object[] parameters, final ConditionInterface condition, final Order[] orders, final boolean reverse, final ArrayList<String> temporaryTables) {
+        this.tableName = tableName;
+        this.statement = statement;
+        this.stat = stat;
+        this.parameters = parameters;
+        this.condition = condition;
+        this.orders = orders;
+        this.reverse = reverse;
+        this.temporaryTables = temporaryTables;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得表單名稱。
+     *
+     * @return 傳回表單名稱
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * 取得SQL敘述。
+     *
+     * @return 傳回SQL敘述
+     */
+    public String getStatement() {
+        return statement;
+    }
+
+    /**
+     * 取得所有Placeholder的名稱。
+     *
+     * @return 傳回所有Placeholder的名稱
+     */
+    public String[] getParameterNames() {
+        final LinkedHashSet<String> names = new LinkedHashSet<>();
+        for (final Object parameter : parameters) {
+            if (parameter instanceof Placeholder) {
+                names.add(((Placeholder) parameter).getName());
+            } else if (parameter instanceof BlindIndex.DigestPlaceholder) {
+                names.add(((BlindIndex.DigestPlaceholder) parameter).getPlaceholder().getName());
+            }
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
+    /**
+     * 執行沒有Placeholder的查詢樣板。
+     *
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public JSONArray execute() {
+        return execute(null);
+    }
+
+    /**
+     * 執行查詢樣板。
+     *
+     * @param values 傳入Placeholder的值，Key為Placeholder的名稱
+     * @return 傳回查詢結果，若Array大小為0，表示沒找到結果；若Array為null，表示查詢失敗
+     */
+    public synchronized JSONArray execute(final JSONObject values) {
+        if (closed) {
+            Printer.err("QueryTemplate.execute: closed");
+            return null;
+        }
+        if (!ContentCenter.isAvailable()) {
+            Printer.err("QueryTemplate.execute: not available");
+            return null;
+        }
+        final long startTime = System.nanoTime();
+        try {
+            for (int i = 0; i < parameters.length; ++i) {
+                ContentCenter.bindParameter(stat, i + 1, getValue(parameters[i], values));
+            }
+            final JSONArray array = ContentCenter.readQuery(stat, tableName, reverse);
+            MetricsCenter.record(OperationType.QUERY, tableName, array.length(), startTime, true);
+            if (SlowQueryCenter.isSlow(System.nanoTime() - startTime)) {
+                final LinkedList<Object> list = new LinkedList<>();
+                for (final Object parameter : parameters) {
+                    list.add(getValue(parameter, values));
+                }
+                ContentCenter.checkSlowQuery(OperationType.QUERY, tableName, statement, list, array.length(), startTime);
+            }
+            IndexAdvisorCenter.record(tableName, condition, orders, startTime);
+            return array;
+        } catch (final Exception ex) {
+            MetricsCenter.record(OperationType.QUERY, tableName, 0, startTime, false);
+            Printer.err("QueryTemplate.execute: cannot select, ", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 關閉查詢樣板，釋放PreparedStatement和暫存表單。
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            stat.close();
+        } catch (final Exception ex) {
+            Printer.err("QueryTemplate.close: cannot close, ", ex.getMessage());
+        }
+        if (ContentCenter.isAvailable()) {
+            ContentCenter.dropTemporaryTables(temporaryTables);
+        }
+    }
+
+    /**
+     * 取得參數實際的值。
+     *
+     * @param parameter 傳入參數，可能是Placeholder或要比較盲索引欄位的Placeholder
+     * @param values 傳入Placeholder的值
+     * @return 傳回參數實際的值
+     * @throws Exception 拋出例外
+     */
+    private static Object getValue(final Object parameter, final JSONObject values) throws Exception {
+        if (parameter instanceof BlindIndex.DigestPlaceholder) {
+            final BlindIndex.DigestPlaceholder digestPlaceholder = (BlindIndex.DigestPlaceholder) parameter;
+            return ContentCenter.toBlindIndexParameter(digestPlaceholder.getTableName(), digestPlaceholder.getColumnName(), getValue(digestPlaceholder.getPlaceholder(), values));
+        } else if (!(parameter instanceof Placeholder)) {
+            return parameter;
+        }
+        final Placeholder placeholder = (Placeholder) parameter;
+        final String name = placeholder.getName();
+        if (values == null || !values.has(name)) {
+            throw new Exception("missing value of placeholder ".concat(name));
+        }
+        final Object value = values.get(name);
+        if (value == null || value == JSONObject.NULL) {
+            return null;
+        } else if (placeholder.isFuzzy()) {
+            return "%".concat(value.toString()).concat("%");
+        }
+        return value;
+    }
+}
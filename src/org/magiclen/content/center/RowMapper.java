@@ -0,0 +1,339 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 將查詢結果直接對應到使用者類別的物件，不經過JSONObject。每個類別的欄位對應方式只會分析一次，基本型態的欄位會直接從ResultSet讀取，不會被包裝成物件。
+ *
+ * @author Magic Len
+ * @param <T> 要對應的類別
+ */
+final class RowMapper<T> {
+
+    // -----類別常數-----
+    /**
+     * 儲存每個類別的RowMapper。
+     */
+    private final static ConcurrentHashMap<Class<?>, RowMapper<?>> hmMappers = new ConcurrentHashMap<>();
+
+    /**
+     * 欄位的型態。
+     */
+    private static final int KIND_LONG = 0, KIND_INT = 1, KIND_SHORT = 2, KIND_BYTE = 3, KIND_DOUBLE = 4, KIND_FLOAT = 5, KIND_BOOLEAN = 6, KIND_STRING = 7, KIND_OBJECT = 8;
+
+    // -----物件常數-----
+    private final Constructor<T> constructor;
+    private final HashMap<String, Field> hmFields = new HashMap<>();
+    private final ConcurrentHashMap<String, Setter[]> hmLayouts = new ConcurrentHashMap<>();
+
+    // -----類別類別-----
+    /**
+     * 將ResultSet中一個欄位的值設定到物件的欄位。
+     */
+    private static final class Setter {
+
+        private final int columnIndex;
+        private final Field field;
+        private final int kind;
+        private final boolean hide;
+
+        /**
+         * 建構Setter。
+         *
+         * @param columnIndex 傳入ResultSet中的欄位位置
+         * @param field 傳入物件的欄位
+         * @param hide 傳入是否為隱藏欄位
+         */
+        private Setter(final int columnIndex, final Field field, final boolean hide) {
+            this.columnIndex = columnIndex;
+            this.field = field;
+            this.hide = hide;
+            final Class<?> type = field.getType();
+            if (type == long.class || type == Long.class) {
+                kind = KIND_LONG;
+            } else if (type == int.class || type == Integer.class) {
+                kind = KIND_INT;
+            } else if (type == short.class || type == Short.class) {
+                kind = KIND_SHORT;
+            } else if (type == byte.class || type == Byte.class) {
+                kind = KIND_BYTE;
+            } else if (type == double.class || type == Double.class) {
+                kind = KIND_DOUBLE;
+            } else if (type == float.class || type == Float.class) {
+                kind = KIND_FLOAT;
+            } else if (type == boolean.class || type == Boolean.class) {
+                kind = KIND_BOOLEAN;
+            } else if (type == String.class) {
+                kind = KIND_STRING;
+            } else {
+                kind = KIND_OBJECT;
+            }
+        }
+
+        /**
+         * 將ResultSet中目前這筆資料的值設定到物件的欄位。null值不會被設定，基本型態的欄位會保留預設值。
+         *
+         * @param result 傳入ResultSet
+         * @param obj 傳入物件
+         * @throws Exception 拋出例外
+         */
+        private void set(final ResultSet result, final Object obj) throws Exception {
+            if (hide) {
+                final String s = result.getString(columnIndex);
+                if (s != null && kind == KIND_STRING) {
+                    field.set(obj, ContentCenter.recoverHideString(s));
+                }
+                return;
+            }
+            final boolean primitive = field.getType().isPrimitive();
+            switch (kind) {
+                case KIND_LONG: {
+                    final long v = result.getLong(columnIndex);
+                    if (!result.wasNull()) {
+                        if (primitive) {
+                            field.setLong(obj, v);
+                        } else {
+                            field.set(obj, v);
+                        }
+                    }
+                    break;
+                }
+                case KIND_INT: {
+                    final int v = result.getInt(columnIndex);
+                    if (!result.wasNull()) {
+                        if (primitive) {
+                            field.setInt(obj, v);
+                        } else {
+                            field.set(obj, v);
+                        }
+                    }
+                    break;
+                }
+                case KIND_SHORT: {
+                    final short v = result.getShort(columnIndex);
+                    if (!result.wasNull()) {
+                        if (primitive) {
+                            field.setShort(obj, v);
+                        } else {
+                            field.set(obj, v);
+                        }
+                    }
+                    break;
+                }
+                case KIND_BYTE: {
+                    final byte v = result.getByte(columnIndex);
+                    if (!result.wasNull()) {
+                        if (primitive) {
+                            field.setByte(obj, v);
+                        } else {
+                            field.set(obj, v);
+                        }
+                    }
+                    break;
+                }
+                case KIND_DOUBLE: {
+                    final double v = result.getDouble(columnIndex);
+                    if (!result.wasNull()) {
+                        if (primitive) {
+                            field.setDouble(obj, v);
+                        } else {
+                            field.set(obj, v);
+                        }
+                    }
+                    break;
+                }
+                case KIND_FLOAT: {
+                    final float v = result.getFloat(columnIndex);
+                    if (!result.wasNull()) {
+                        if (primitive) {
+                            field.setFloat(obj, v);
+                        } else {
+                            field.set(obj, v);
+                        }
+                    }
+                    break;
+                }
+                case KIND_BOOLEAN: {
+                    final long v = result.getLong(columnIndex);
+                    if (!result.wasNull()) {
+                        if (primitive) {
+                            field.setBoolean(obj, v != 0);
+                        } else {
+                            field.set(obj, v != 0);
+                        }
+                    }
+                    break;
+                }
+                case KIND_STRING: {
+                    final String v = result.getString(columnIndex);
+                    if (v != null) {
+                        field.set(obj, v);
+                    }
+                    break;
+                }
+                default: {
+                    final Object v = result.getObject(columnIndex);
+                    if (v != null && field.getType().isInstance(v)) {
+                        field.set(obj, v);
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    // -----類別方法-----
+    /**
+     * 取得類別的RowMapper。
+     *
+     * @param <T> 要對應的類別
+     * @param type 傳入要對應的類別
+     * @return 傳回RowMapper
+     * @throws Exception 拋出例外
+     */
+    @SuppressWarnings("unchecked")
+    static <T> RowMapper<T> forClass(final Class<T> type) throws Exception {
+        RowMapper<T> mapper = (RowMapper<T>) hmMappers.get(type);
+        if (mapper == null) {
+            mapper = new RowMapper<>(type);
+            final RowMapper<T> existed = (RowMapper<T>) hmMappers.putIfAbsent(type, mapper);
+            if (existed != null) {
+                mapper = existed;
+            }
+        }
+        return mapper;
+    }
+
+    /**
+     * 將底線分隔的名稱轉成駝峰式(CamelCase)的名稱。
+     *
+     * @param name 傳入底線分隔的名稱
+     * @return 傳回駝峰式的名稱
+     */
+    private static String toCamelCase(final String name) {
+        final StringBuilder sb = new StringBuilder();
+        boolean upper = false;
+        final int l = name.length();
+        for (int i = 0; i < l; ++i) {
+            final char c = name.charAt(i);
+            if (c == '_') {
+                upper = sb.length() > 0;
+            } else if (upper) {
+                sb.append(Character.toUpperCase(c));
+                upper = false;
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // -----建構子-----
+    /**
+     * 分析類別，建構RowMapper。類別必須要有無參數的建構子。
+     *
+     * @param type 傳入要對應的類別
+     * @throws Exception 拋出例外
+     */
+    private RowMapper(final Class<T> type) throws Exception {
+        constructor = type.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        Class<?> c = type;
+        while (c != null && c != Object.class) {
+            for (final Field field : c.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || field.isSynthetic() || hmFields.containsKey(field.getName())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                hmFields.put(field.getName(), field);
+            }
+            c = c.getSuperclass();
+        }
+    }
+
+    // -----物件方法-----
+    /**
+     * 將ResultSet中所有的資料對應成物件。
+     *
+     * @param result 傳入ResultSet
+     * @param tableName 傳入表單名稱
+     * @return 傳回物件
+     * @throws Exception 拋出例外
+     */
+    ArrayList<T> mapAll(final ResultSet result, final String tableName) throws Exception {
+        final Setter[] setters = getSetters(result.getMetaData(), tableName);
+        final ArrayList<T> list = new ArrayList<>();
+        while (result.next()) {
+            final T obj = constructor.newInstance();
+            for (final Setter setter : setters) {
+                setter.set(result, obj);
+            }
+            list.add(obj);
+        }
+        return list;
+    }
+
+    /**
+     * 取得ResultSet欄位和物件欄位的對應，相同表單和欄位的對應只會被產生一次。欄位名稱會先找完全相同的物件欄位，找不到再找駝峰式名稱的物件欄位，都找不到則忽略。盲索引欄位不會被對應。隱藏欄位只能對應到String型態的物件欄位。
+     *
+     * @param rsmd 傳入ResultSet的描述資料
+     * @param tableName 傳入表單名稱
+     * @return 傳回欄位對應
+     * @throws Exception 拋出例外
+     */
+    private Setter[] getSetters(final ResultSetMetaData rsmd, final String tableName) throws Exception {
+        final int l = rsmd.getColumnCount();
+        final StringBuilder sb = new StringBuilder(tableName);
+        final String[] columnNames = new String[l];
+        for (int i = 1; i <= l; ++i) {
+            columnNames[i - 1] = rsmd.getColumnName(i);
+            sb.append("`").append(columnNames[i - 1]);
+        }
+        final String key = sb.toString();
+        Setter[] setters = hmLayouts.get(key);
+        if (setters == null) {
+            final ArrayList<Setter> list = new ArrayList<>();
+            for (int i = 1; i <= l; ++i) {
+                final String columnName = columnNames[i - 1];
+                if (ContentCenter.isBlindIndexColumn(tableName, columnName)) {
+                    continue;
+                }
+                Field field = hmFields.get(columnName);
+                if (field == null) {
+                    field = hmFields.get(toCamelCase(columnName));
+                }
+                if (field != null) {
+                    list.add(new Setter(i, field, ContentCenter.isHideColumn(tableName, columnName)));
+                }
+            }
+            setters = list.toArray(new Setter[list.size()]);
+            hmLayouts.put(key, setters);
+        }
+        return setters;
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import org.magiclen.content.database.ColumnMetadata;
+import org.magiclen.content.database.ColumnType;
+import org.magiclen.content.database.TableMetadata;
+
+/**
+ * 表單結構中心，快取每個表單的欄位順序、型態以及是否為隱藏欄位，讓寫入資料時可以先檢查欄位並轉換型態。
+ *
+ * @author Magic Len
+ */
+class SchemaCenter {
+
+    // -----類別常數-----
+    /**
+     * 盲索引欄位名稱的後綴，盲索引欄位的名稱為隱藏欄位的名稱加上這個後綴。
+     */
+    static final String BLIND_INDEX_SUFFIX = "_magiclen_bi";
+
+    /**
+     * 儲存每個表單的結構。
+     */
+    private final static ConcurrentHashMap<String, TableSchema> hmSchemas = new ConcurrentHashMap<>();
+
+    // -----類別類別-----
+    /**
+     * 表單結構。
+     */
+    static final class TableSchema {
+
+        private final String[] columnNames;
+        private final ColumnType[] columnTypes;
+        private final boolean[] hides;
+        private final int[] blindIndexes;
+        private final boolean hasBlindIndex;
+        private final HashMap<String, Integer> hmIndexes;
+
+        /**
+         * 建構表單結構。
+         *
+         * @param columnNames 傳入依照表單順序排列的欄位名稱
+         * @param columnTypes 傳入欄位型態，null表示不轉換型態
+         * @param hides 傳入是否為隱藏欄位
+         */
+        TableSchema(final String[] columnNames, final ColumnType[] columnTypes, final boolean[] hides) {
+            this.columnNames = columnNames;
+            this.columnTypes = columnTypes;
+            this.hides = hides;
+            this.hmIndexes = new HashMap<>(columnNames.length * 2);
+            for (int i = 0; i < columnNames.length; ++i) {
+                hmIndexes.put(columnNames[i], i);
+            }
+            this.blindIndexes = new int[columnNames.length];
+            boolean hasBlindIndex = false;
+            for (int i = 0; i < columnNames.length; ++i) {
+                blindIndexes[i] = hides[i] ? getColumnIndex(getBlindIndexColumnName(columnNames[i])) : -1;
+                hasBlindIndex |= blindIndexes[i] >= 0;
+            }
+            this.hasBlindIndex = hasBlindIndex;
+        }
+
+        /**
+         * 取得欄位數量。
+         *
+         * @return 傳回欄位數量
+         */
+        int getColumnCount() {
+            return columnNames.length;
+        }
+
+        /**
+         * 取得欄位名稱。
+         *
+         * @param index 傳入欄位索引
+         * @return 傳回欄位名稱
+         */
+        String getColumnName(final int index) {
+            return columnNames[index];
+        }
+
+        /**
+         * 取得欄位型態。
+         *
+         * @param index 傳入欄位索引
+         * @return 傳回欄位型態，若為null，表示不轉換型態
+         */
+        ColumnType getColumnType(final int index) {
+            return columnTypes[index];
+        }
+
+        /**
+         * 判斷欄位是否為隱藏欄位。
+         *
+         * @param index 傳入欄位索引
+         * @return 傳回是否為隱藏欄位
+         */
+        boolean isHide(final int index) {
+            return hides[index];
+        }
+
+        /**
+         * 取得隱藏欄位的盲索引欄位。
+         *
+         * @param index 傳入欄位索引
+         * @return 傳回盲索引欄位的欄位索引，若為-1，表示這個欄位沒有盲索引
+         */
+        int getBlindIndex(final int index) {
+            return blindIndexes[index];
+        }
+
+        /**
+         * 判斷表單是否有任何盲索引。
+         *
+         * @return 傳回表單是否有盲索引
+         */
+        boolean hasBlindIndex() {
+            return hasBlindIndex;
+        }
+
+        /**
+         * 取得欄位索引。
+         *
+         * @param columnName 傳入欄位名稱
+         * @return 傳回欄位索引，若為-1，表示表單沒有這個欄位
+         */
+        int getColumnIndex(final String columnName) {
+            final Integer index = hmIndexes.get(columnName);
+            return index == null ? -1 : index;
+        }
+    }
+
+    // -----類別方法-----
+    /**
+     * 取得快取的表單結構。
+     *
+     * @param tableName 傳入表單名稱
+     * @return 傳回表單結構，若為null，表示還沒有快取
+     */
+    static TableSchema get(final String tableName) {
+        return hmSchemas.get(tableName);
+    }
+
+    /**
+     * 快取表單結構。
+     *
+     * @param tableName 傳入表單名稱
+     * @param schema 傳入表單結構
+     */
+    static void put(final String tableName, final TableSchema schema) {
+        hmSchemas.put(tableName, schema);
+    }
+
+    /**
+     * 用表單的描述資料建立表單結構。
+     *
+     * @param metadata 傳入表單的描述資料
+     * @return 傳回表單結構
+     */
+    static TableSchema create(final TableMetadata metadata) {
+        final String[] names = metadata.getColumnNames();
+        final ArrayList<String> columnNames = new ArrayList<>(names.length);
+        final ArrayList<ColumnType> columnTypes = new ArrayList<>(names.length);
+        final ArrayList<Boolean> hides = new ArrayList<>(names.length);
+        for (final String name : names) {
+            final ColumnMetadata column = metadata.getColumnMetadata(name);
+            columnNames.add(name);
+            columnTypes.add(column.getColumnType());
+            hides.add(column.isHide());
+            if (column.hasBlindIndex()) {
+                columnNames.add(getBlindIndexColumnName(name));
+                columnTypes.add(ColumnType.TEXT);
+                hides.add(false);
+            }
+        }
+        final int l = columnNames.size();
+        final boolean[] hideArray = new boolean[l];
+        for (int i = 0; i < l; ++i) {
+            hideArray[i] = hides.get(i);
+        }
+        return new TableSchema(columnNames.toArray(new String[l]), columnTypes.toArray(new ColumnType[l]), hideArray);
+    }
+
+    /**
+     * 取得隱藏欄位的盲索引欄位名稱。
+     *
+     * @param columnName 傳入隱藏欄位的名稱
+     * @return 傳回盲索引欄位的名稱
+     */
+    static String getBlindIndexColumnName(final String columnName) {
+        return columnName.concat(BLIND_INDEX_SUFFIX);
+    }
+
+    /**
+     * 依照SQLite的型態親和性(Type Affinity)規則，將宣告的型態轉成欄位型態。
+     *
+     * @param declaredType 傳入宣告的型態
+     * @return 傳回欄位型態，若為null，表示不轉換型態
+     */
+    static ColumnType toColumnType(final String declaredType) {
+        if (declaredType == null) {
+            return null;
+        }
+        final String type = declaredType.toUpperCase(Locale.ENGLISH);
+        if (type.contains("INT")) {
+            return ColumnType.INTEGER;
+        } else if (type.contains("CHAR") || type.contains("CLOB") || type.contains("TEXT")) {
+            return ColumnType.TEXT;
+        } else if (type.contains("REAL") || type.contains("FLOA") || type.contains("DOUB")) {
+            return ColumnType.REAL;
+        }
+        return null;
+    }
+
+    /**
+     * 移除表單結構的快取。
+     *
+     * @param tableName 傳入表單名稱
+     */
+    static void remove(final String tableName) {
+        hmSchemas.remove(tableName);
+    }
+
+    /**
+     * 清除所有表單結構的快取。
+     */
+    static void reset() {
+        hmSchemas.clear();
+    }
+
+    // -----建構子-----
+    /**
+     * 私有建構子，無法直接實體化。
+     */
+    private SchemaCenter() {
+
+    }
+}
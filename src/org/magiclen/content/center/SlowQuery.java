@@ -0,0 +1,149 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+/**
+ * 慢查詢的紀錄，包含執行的SQL敘述、參數型態、執行時間、資料筆數和查詢計畫(Query Plan)。為了保護資料，參數的值並不會被記錄下來。
+ *
+ * @author Magic Len
+ * @see ContentCenter#getSlowQueries()
+ */
+public class SlowQuery {
+
+    // -----物件常數-----
+    private final long time;
+    private final OperationType operationType;
+    private final String tableName;
+    private final String statement;
+    private final String[] parameterTypes;
+    private final long elapsedNanos;
+    private final long rows;
+    private final String[] queryPlan;
+
+    // -----建構子-----
+    /**
+     * 建構慢查詢的紀錄。
+     *
+     * @param time 傳入紀錄的時間(毫秒)
+     * @param operationType 傳入操作類型
+     * @param tableName 傳入表單名稱
+     * @param statement 傳入SQL敘述
+     * @param parameterTypes 傳入參數的型態
+     * @param elapsedNanos 傳入執行時間(奈秒)
+     * @param rows 傳入影響或是取得的資料筆數
+     * @param queryPlan 傳入查詢計畫
+     */
+    SlowQuery(final long time, final OperationType operationType, final String tableName, final String statement, final String[] parameterTypes, final long elapsedNanos, final long rows, final String[] queryPlan) {
+        this.time = time;
+        this.operationType = operationType;
+        this.tableName = tableName;
+        this.statement = statement;
+        this.parameterTypes = parameterTypes;
+        this.elapsedNanos = elapsedNanos;
+        this.rows = rows;
+        this.queryPlan = queryPlan;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得紀錄的時間。
+     *
+     * @return 傳回紀錄的時間(毫秒)
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * 取得操作類型。
+     *
+     * @return 傳回操作類型
+     */
+    public OperationType getOperationType() {
+        return operationType;
+    }
+
+    /**
+     * 取得表單名稱。
+     *
+     * @return 傳回表單名稱
+     */
+    public String getTableName() {
+        return tableName;
+    }
+
+    /**
+     * 取得SQL敘述。
+     *
+     * @return 傳回SQL敘述
+     */
+    public String getStatement() {
+        return statement;
+    }
+
+    /**
+     * 取得參數的型態。
+     *
+     * @return 傳回參數的型態
+     */
+    public String[] getParameterTypes() {
+        return parameterTypes.clone();
+    }
+
+    /**
+     * 取得執行時間。
+     *
+     * @return 傳回執行時間(奈秒)
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 取得影響或是取得的資料筆數。
+     *
+     * @return 傳回資料筆數
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * 取得EXPLAIN QUERY PLAN的結果，每個元素為一個步驟。
+     *
+     * @return 傳回查詢計畫，若無法取得，傳回長度為0的陣列
+     */
+    public String[] getQueryPlan() {
+        return queryPlan.clone();
+    }
+
+    /**
+     * 取得字串。
+     *
+     * @return 傳回字串。
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(operationType).append(" ").append(elapsedNanos / 1000000).append("ms ").append(rows).append(" rows: ").append(statement);
+        for (final String step : queryPlan) {
+            sb.append("\n    ").append(step);
+        }
+        return sb.toString();
+    }
+}
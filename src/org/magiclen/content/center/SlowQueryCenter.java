@@ -0,0 +1,155 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center;
+
+/**
+ * 慢查詢中心，使用固定大小的環狀緩衝區(Ring Buffer)儲存最近的慢查詢紀錄。
+ *
+ * @author Magic Len
+ * @see SlowQuery
+ */
+class SlowQueryCenter {
+
+    // -----類別常數-----
+    /**
+     * 預設的緩衝區大小。
+     */
+    static final int DEFAULT_CAPACITY = 64;
+
+    // -----類別變數-----
+    /**
+     * 慢查詢的門檻(奈秒)，小於等於0表示不記錄。
+     */
+    private static volatile long thresholdNanos = 0;
+
+    /**
+     * 環狀緩衝區。
+     */
+    private static SlowQuery[] buffer = new SlowQuery[DEFAULT_CAPACITY];
+
+    /**
+     * 下一筆紀錄要存放的位置。
+     */
+    private static int next = 0;
+
+    /**
+     * 目前的紀錄數量。
+     */
+    private static int size = 0;
+
+    // -----類別方法-----
+    /**
+     * 設定慢查詢的門檻。
+     *
+     * @param thresholdNanos 傳入門檻(奈秒)，小於等於0表示不記錄
+     */
+    static void setThresholdNanos(final long thresholdNanos) {
+        SlowQueryCenter.thresholdNanos = thresholdNanos;
+    }
+
+    /**
+     * 取得慢查詢的門檻。
+     *
+     * @return 傳回門檻(奈秒)
+     */
+    static long getThresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * 判斷執行時間是否超過慢查詢的門檻。
+     *
+     * @param elapsedNanos 傳入執行時間(奈秒)
+     * @return 傳回是否超過門檻
+     */
+    static boolean isSlow(final long elapsedNanos) {
+        final long threshold = thresholdNanos;
+        return threshold > 0 && elapsedNanos >= threshold;
+    }
+
+    /**
+     * 設定緩衝區的大小，會清除目前的紀錄。
+     *
+     * @param capacity 傳入緩衝區的大小
+     * @return 傳回是否設定成功
+     */
+    static synchronized boolean setCapacity(final int capacity) {
+        if (capacity < 1) {
+            return false;
+        }
+        buffer = new SlowQuery[capacity];
+        next = 0;
+        size = 0;
+        return true;
+    }
+
+    /**
+     * 取得緩衝區的大小。
+     *
+     * @return 傳回緩衝區的大小
+     */
+    static synchronized int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * 加入慢查詢紀錄，若緩衝區已滿，會覆蓋最舊的紀錄。
+     *
+     * @param slowQuery 傳入慢查詢紀錄
+     */
+    static synchronized void add(final SlowQuery slowQuery) {
+        buffer[next] = slowQuery;
+        next = (next + 1) % buffer.length;
+        if (size < buffer.length) {
+            ++size;
+        }
+    }
+
+    /**
+     * 取得所有的慢查詢紀錄。
+     *
+     * @return 傳回慢查詢紀錄，由舊到新排列
+     */
+    static synchronized SlowQuery[] getSlowQueries() {
+        final SlowQuery[] slowQueries = new SlowQuery[size];
+        final int start = (next - size + buffer.length) % buffer.length;
+        for (int i = 0; i < size; ++i) {
+            slowQueries[i] = buffer[(start + i) % buffer.length];
+        }
+        return slowQueries;
+    }
+
+    /**
+     * 清除所有的慢查詢紀錄。
+     */
+    static synchronized void clear() {
+        for (int i = 0; i < buffer.length; ++i) {
+            buffer[i] = null;
+        }
+        next = 0;
+        size = 0;
+    }
+
+    // -----建構子-----
+    /**
+     * 私有建構子，無法直接實體化。
+     */
+    private SlowQueryCenter() {
+
+    }
+}
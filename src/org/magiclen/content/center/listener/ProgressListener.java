@@ -0,0 +1,39 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.center.listener;
+
+/**
+ * 長時間操作(例如備份、匯入、匯出)的進度監聽者。
+ *
+ * @author Magic Len
+ */
+public interface ProgressListener {
+
+    //-----------------物件方法-----------------
+    /**
+     * 進度更新時做的工作。可以用資料筆數、位元組數量和經過的時間計算每秒的處理量。
+     *
+     * @param tableName 目前處理的表單名稱
+     * @param rows 已經處理的資料筆數
+     * @param bytes 已經處理的位元組數量
+     * @param elapsedNanos 已經經過的時間(奈秒)
+     * @param finished 是否已經全部完成
+     * @return 傳回是否要繼續，若為false，則取消操作
+     */
+    public boolean onProgress(final String tableName, final long rows, final long bytes, final long elapsedNanos, final boolean finished);
+}
@@ -0,0 +1,145 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.database;
+
+import java.util.Locale;
+
+/**
+ * 聚合函數。
+ *
+ * @author Magic Len
+ */
+public class Aggregate {
+
+    // -----物件變數-----
+    private AggregateType type = null;
+    private String columnName = null;
+    private String alias = null;
+
+    // -----建構子-----
+    /**
+     * 建構物件實體之後使用setAggregate來修改聚合函數內容。
+     */
+    public Aggregate() {
+
+    }
+
+    // -----物件方法-----
+    /**
+     * 設定聚合函數，結果的欄位名稱會是預設的名稱，例如「sum(column)」。
+     *
+     * @param aggregateType 傳入聚合函數的類型
+     * @param columnName 傳入欄位名稱，若類型為COUNT，可以傳入null來計算所有資料的數量
+     * @return 傳回是否設定成功
+     */
+    public boolean setAggregate(final AggregateType aggregateType, final String columnName) {
+	return setAggregate(aggregateType, columnName, null);
+    }
+
+    /**
+     * 設定聚合函數。
+     *
+     * @param aggregateType 傳入聚合函數的類型
+     * @param columnName 傳入欄位名稱，若類型為COUNT，可以傳入null來計算所有資料的數量
+     * @param alias 傳入結果的欄位名稱，若為null則使用預設的名稱
+     * @return 傳回是否設定成功
+     */
+    public boolean setAggregate(final AggregateType aggregateType, final String columnName, final String alias) {
+	if (aggregateType == null || (columnName == null && aggregateType != AggregateType.COUNT) || (columnName != null && (columnName.trim().length() == 0 || columnName.contains("`"))) || (alias != null && (alias.trim().length() == 0 || alias.contains("`")))) {
+	    return false;
+	}
+	this.type = aggregateType;
+	this.columnName = columnName;
+	this.alias = alias;
+	return true;
+    }
+
+    /**
+     * 取得聚合函數的類型。
+     *
+     * @return 傳回聚合函數的類型
+     */
+    public AggregateType getAggregateType() {
+	return type;
+    }
+
+    /**
+     * 取得欄位名稱。
+     *
+     * @return 傳回欄位名稱，若為null，表示計算所有資料的數量
+     */
+    public String getColumnName() {
+	return columnName;
+    }
+
+    /**
+     * 取得結果的欄位名稱。
+     *
+     * @return 傳回結果的欄位名稱
+     */
+    public String getAlias() {
+	if (alias != null) {
+	    return alias;
+	}
+	switch (type) {
+	    case COUNT:
+		return columnName == null ? "count(*)" : "count(" + columnName + ")";
+	    case COUNT_DISTINCT:
+		return "count(DISTINCT " + columnName + ")";
+	    default:
+		return type.toString().toLowerCase(Locale.ENGLISH) + "(" + columnName + ")";
+	}
+    }
+
+    /**
+     * 取得聚合函數。
+     *
+     * @return 傳回聚合函數字串
+     */
+    public String toAggregateString() {
+	final StringBuilder sb = new StringBuilder();
+	switch (type) {
+	    case COUNT:
+		sb.append("count(");
+		break;
+	    case COUNT_DISTINCT:
+		sb.append("count(DISTINCT ");
+		break;
+	    default:
+		sb.append(type.toString().toLowerCase(Locale.ENGLISH)).append("(");
+		break;
+	}
+	if (columnName == null) {
+	    sb.append("*");
+	} else {
+	    sb.append("`").append(columnName).append("`");
+	}
+	sb.append(") AS `").append(getAlias()).append("`");
+	return sb.toString();
+    }
+
+    /**
+     * 取得字串。
+     *
+     * @return 傳回字串。
+     */
+    @Override
+    public String toString() {
+	return toAggregateString();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.database;
+
+/**
+ * <p>
+ * 聚合函數的類型。
+ * </p>
+ * 
+ * <ul>
+ * <li>
+ * COUNT：計算數量，若沒有指定欄位則計算所有資料的數量。
+ * </li>
+ * <li>
+ * COUNT_DISTINCT：計算不重複的值的數量。
+ * </li>
+ * <li>
+ * SUM：總和。
+ * </li>
+ * <li>
+ * AVG：平均。
+ * </li>
+ * <li>
+ * MIN：最小值。
+ * </li>
+ * <li>
+ * MAX：最大值。
+ * </li>
+ * </ul>
+ *
+ * @author Magic Len
+ */
+public enum AggregateType {
+
+    COUNT, COUNT_DISTINCT, SUM, AVG, MIN, MAX;
+}
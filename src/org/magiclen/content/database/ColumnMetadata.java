@@ -28,6 +28,7 @@ public class ColumnMetadata {
     private boolean canNull = true;
     private ColumnType type = null;
     private boolean hide = false;
+    private boolean blindIndex = false;
 
     // -----建構子-----
     /**
@@ -60,6 +61,20 @@ public class ColumnMetadata {
 	return true;
     }
 
+    /**
+     * 設定隱藏欄位是否要建立盲索引(Blind Index)。
+     *
+     * @param blindIndex 傳入是否要建立盲索引
+     * @return 傳回是否設定成功
+     */
+    protected boolean setBlindIndex(final boolean blindIndex) {
+	if (blindIndex && !hide) {
+	    return false;
+	}
+	this.blindIndex = blindIndex;
+	return true;
+    }
+
     /**
      * 設定欄位的資料型態。
      *
@@ -92,6 +107,15 @@ public class ColumnMetadata {
 	return hide;
     }
 
+    /**
+     * 檢查隱藏欄位是否有盲索引(Blind Index)。
+     *
+     * @return 傳回是否有盲索引
+     */
+    public boolean hasBlindIndex() {
+	return blindIndex;
+    }
+
     /**
      * 取得欄位內容的資料型態。
      *
@@ -17,6 +17,8 @@
  */
 package org.magiclen.content.database;
 
+import java.lang.reflect.Array;
+import java.util.Collection;
 import java.util.LinkedList;
 
 /**
@@ -31,6 +33,7 @@ public class Condition implements ConditionInterface {
     private Object l_value = "1";
     private boolean isColumnLeft;
     private Object r_value = 1;
+    private Object[] r_values = null;
     private boolean fuzzy = false;
 
     // -----建構子-----
@@ -72,17 +75,34 @@ public class Condition implements ConditionInterface {
      *
      * @param leftValue 傳入要檢查的欄位名稱或是要比較的值
      * @param isColumnLeft 傳入是否為欄位名稱
-     * @param rightValue 傳入要比較的值
+     * @param rightValue 傳入要比較的值，若比較的類型為IN、NOT_IN或BETWEEN，傳入集合(Collection)或是陣列
      * @param conditionType 傳入比較的類型
      * @param fuzzy 傳入是否模糊判斷(只有TEXT能用)
      * @return 傳回條件是否設定成功
      */
     public boolean setCondition(final Object leftValue, final boolean isColumnLeft, final Object rightValue, final ConditionType conditionType, final boolean fuzzy) {
-	if (conditionType == null || (conditionType == ConditionType.LIKE && rightValue instanceof Number) || (fuzzy && conditionType != ConditionType.LIKE) || (isColumnLeft && (leftValue == null || leftValue.toString().contains("`"))) || (rightValue == null && conditionType != ConditionType.EQUAL && conditionType != ConditionType.NOT_EQUAL)) {
+	if (conditionType == null || ((conditionType == ConditionType.LIKE || conditionType == ConditionType.MATCH) && rightValue instanceof Number) || (conditionType == ConditionType.MATCH && !isColumnLeft) || (fuzzy && conditionType != ConditionType.LIKE) || (isColumnLeft && (leftValue == null || leftValue.toString().contains("`"))) || (rightValue == null && conditionType != ConditionType.EQUAL && conditionType != ConditionType.NOT_EQUAL)) {
 	    return false;
 	}
+	Object[] rightValues = null;
+	switch (conditionType) {
+	    case IN:
+	    case NOT_IN:
+	    case BETWEEN:
+		rightValues = toValues(rightValue);
+		if (rightValues == null || rightValues.length == 0 || (conditionType == ConditionType.BETWEEN && rightValues.length != 2)) {
+		    return false;
+		}
+		for (final Object value : rightValues) {
+		    if (value == null) {
+			return false;
+		    }
+		}
+		break;
+	}
 	l_value = leftValue;
 	r_value = rightValue;
+	r_values = rightValues;
 	this.type = conditionType;
 	this.fuzzy = fuzzy;
 	this.isColumnLeft = isColumnLeft;
@@ -98,6 +118,24 @@ public class Condition implements ConditionInterface {
 	return l_value;
     }
 
+    /**
+     * 判斷左邊的值是否為欄位名稱。
+     *
+     * @return 傳回左邊的值是否為欄位名稱
+     */
+    public boolean isColumnLeft() {
+	return isColumnLeft;
+    }
+
+    /**
+     * 判斷是否模糊判斷。
+     *
+     * @return 傳回是否模糊判斷
+     */
+    public boolean isFuzzy() {
+	return fuzzy;
+    }
+
     /**
      * 取得要比較的值。
      *
@@ -107,6 +145,15 @@ public class Condition implements ConditionInterface {
 	return r_value;
     }
 
+    /**
+     * 取得要比較的多個值，只有在比較的類型為IN、NOT_IN或BETWEEN時才有。
+     *
+     * @return 傳回要比較的多個值，若比較的類型不是IN、NOT_IN或BETWEEN，傳回null
+     */
+    public Object[] getRightValues() {
+	return r_values == null ? null : r_values.clone();
+    }
+
     /**
      * 取得條件比較類型。
      *
@@ -144,7 +191,24 @@ public class Condition implements ConditionInterface {
 	    rightValues.add(l_value);
 	}
 
-	if (r_value == null) {
+	if (r_values != null) {
+	    switch (type) {
+		case BETWEEN:
+		    sb.append(" BETWEEN ? AND ?");
+		    break;
+		case NOT_IN:
+		    sb.append(" NOT IN (");
+		    appendPlaceholders(sb, r_values.length);
+		    break;
+		default:
+		    sb.append(" IN (");
+		    appendPlaceholders(sb, r_values.length);
+		    break;
+	    }
+	    for (final Object value : r_values) {
+		rightValues.add(value);
+	    }
+	} else if (r_value == null) {
 	    sb.append("IS ");
 	    switch (type) {
 		case NOT_EQUAL:
@@ -172,13 +236,18 @@ public class Condition implements ConditionInterface {
 		case LIKE:
 		    sb.append(" LIKE ");
 		    break;
+		case MATCH:
+		    sb.append(" MATCH ");
+		    break;
 		case SMALLER_THAN:
 		    sb.append(" < ");
 		    break;
 	    }
 
 	    sb.append("?");
-	    if (fuzzy) {
+	    if (fuzzy && r_value instanceof Placeholder) {
+		rightValues.add(new Placeholder(((Placeholder) r_value).getName(), true));
+	    } else if (fuzzy) {
 		rightValues.add("%".concat(r_value.toString()).concat("%"));
 	    } else {
 		rightValues.add(r_value);
@@ -186,4 +255,40 @@ public class Condition implements ConditionInterface {
 	}
 	return sb.toString();
     }
+
+    /**
+     * 加入指定數量的參數符號並加上右括號。
+     *
+     * @param sb 傳入要加入參數符號的StringBuilder
+     * @param count 傳入參數的數量
+     */
+    private static void appendPlaceholders(final StringBuilder sb, final int count) {
+	for (int i = 0; i < count; ++i) {
+	    if (i > 0) {
+		sb.append(",");
+	    }
+	    sb.append("?");
+	}
+	sb.append(")");
+    }
+
+    /**
+     * 將集合(Collection)或是陣列轉成物件陣列。
+     *
+     * @param value 傳入集合或是陣列
+     * @return 傳回物件陣列，若傳入的值不是集合或是陣列，傳回null
+     */
+    private static Object[] toValues(final Object value) {
+	if (value instanceof Collection) {
+	    return ((Collection<?>) value).toArray();
+	} else if (value != null && value.getClass().isArray()) {
+	    final int l = Array.getLength(value);
+	    final Object[] values = new Object[l];
+	    for (int i = 0; i < l; ++i) {
+		values[i] = Array.get(value, i);
+	    }
+	    return values;
+	}
+	return null;
+    }
 }
@@ -47,11 +47,23 @@ package org.magiclen.content.database;
  * <li>
  * LIKE：相似於。
  * </li>
+ * <li>
+ * IN：在集合中，要比較的值為集合(Collection)或是陣列。
+ * </li>
+ * <li>
+ * NOT_IN：不在集合中，要比較的值為集合(Collection)或是陣列。
+ * </li>
+ * <li>
+ * BETWEEN：介於兩個值之間(包含兩端)，要比較的值為長度為2的集合(Collection)或是陣列。
+ * </li>
+ * <li>
+ * MATCH：全文檢索，欄位必須是表單的全文檢索欄位，要比較的值為FTS5的查詢字串。若欄位名稱為表單名稱，則檢索所有全文檢索欄位。
+ * </li>
  * </ol>
  *
  * @author Magic Len
  */
 public enum ConditionType {
 
-    BIGGER_THAN, SMALLER_THAN, LIKE, EQUAL, NOT_EQUAL, EQUAL_OR_BIGGER_THAN, EQUAL_OR_SMALLER_THAN;
+    BIGGER_THAN, SMALLER_THAN, LIKE, EQUAL, NOT_EQUAL, EQUAL_OR_BIGGER_THAN, EQUAL_OR_SMALLER_THAN, IN, NOT_IN, BETWEEN, MATCH;
 }
@@ -87,24 +87,21 @@ public class Conditions implements ConditionInterface {
      */
     @Override
     public String toConditionString(final LinkedList<Object> rightValues) {
-	final int l = conditions.size();
-	if (l > 0) {
-	    final StringBuilder sb = new StringBuilder("(");
-
-	    final String[] conConditions = new String[l];
-	    for (int i = 0; i < l; ++i) {
-		final ConditionInterface c = conditions.get(i);
-		conConditions[i] = c.toConditionString(rightValues);
-	    }
-	    sb.append(conConditions[0]);
-	    final String typeString = type.toString();
-	    for (int i = 1; i < l; ++i) {
-		sb.append(" ").append(typeString).append(" ").append(conConditions[i]);
+	if (conditions.isEmpty()) {
+	    return "";
+	}
+	final StringBuilder sb = new StringBuilder("(");
+	final String separator = " ".concat(type.toString()).concat(" ");
+	boolean first = true;
+	for (final ConditionInterface c : conditions) {
+	    if (!first) {
+		sb.append(separator);
 	    }
-	    sb.append(")");
-	    return sb.toString();
+	    sb.append(c.toConditionString(rightValues));
+	    first = false;
 	}
-	return "";
+	sb.append(")");
+	return sb.toString();
     }
 
     /**
@@ -0,0 +1,150 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.database;
+
+import java.util.ArrayList;
+
+/**
+ * 索引的描述資料。
+ *
+ * @author Magic Len
+ */
+public class IndexMetadata {
+
+    // -----物件變數-----
+    private String indexName = null;
+    private boolean unique = false;
+    private ConditionInterface where = null;
+    private final ArrayList<Order> alOrders = new ArrayList<>();
+
+    // -----建構子-----
+    /**
+     * 建構物件實體之後使用add和setter來修改索引描述資料內容。
+     */
+    protected IndexMetadata() {
+
+    }
+
+    // -----物件方法-----
+    /**
+     * 設定索引名稱。
+     *
+     * @param indexName 傳入索引名稱
+     * @return 傳回是否設定成功
+     */
+    protected boolean setIndexName(final String indexName) {
+	if (indexName == null || indexName.trim().length() == 0 || indexName.contains("`")) {
+	    return false;
+	}
+	this.indexName = indexName;
+	return true;
+    }
+
+    /**
+     * 設定索引的值是否唯一。
+     *
+     * @param unique 傳入索引的值是否唯一
+     * @return 傳回是否設定成功
+     */
+    protected boolean setUnique(final boolean unique) {
+	this.unique = unique;
+	return true;
+    }
+
+    /**
+     * 設定部分索引(Partial Index)的條件。
+     *
+     * @param where 傳入條件，null表示索引整個表單
+     * @return 傳回是否設定成功
+     */
+    protected boolean setWhere(final ConditionInterface where) {
+	this.where = where;
+	return true;
+    }
+
+    /**
+     * 加入新的欄位。
+     *
+     * @param order 傳入欄位和欄位的排序方式
+     * @return 傳回欄位是否加入成功
+     */
+    protected boolean addNewColumn(final Order order) {
+	if (order == null || order.getColumnName() == null) {
+	    return false;
+	}
+	for (final Order o : alOrders) {
+	    if (o.getColumnName().equals(order.getColumnName())) {
+		return false;
+	    }
+	}
+	alOrders.add(order);
+	return true;
+    }
+
+    /**
+     * 取得索引名稱。
+     *
+     * @return 傳回索引名稱
+     */
+    public String getIndexName() {
+	return indexName;
+    }
+
+    /**
+     * 判斷索引的值是否唯一。
+     *
+     * @return 傳回索引的值是否唯一
+     */
+    public boolean isUnique() {
+	return unique;
+    }
+
+    /**
+     * 取得部分索引(Partial Index)的條件。
+     *
+     * @return 傳回條件，若為null，表示索引整個表單
+     */
+    public ConditionInterface getWhere() {
+	return where;
+    }
+
+    /**
+     * 取得所有欄位的名稱。
+     *
+     * @return 傳回所有欄位的名稱
+     */
+    public String[] getColumnNames() {
+	final String[] names = new String[alOrders.size()];
+	int i = 0;
+	for (final Order order : alOrders) {
+	    names[i++] = order.getColumnName();
+	}
+	return names;
+    }
+
+    /**
+     * 取得所有欄位和欄位的排序方式。
+     *
+     * @return 傳回所有欄位和欄位的排序方式
+     */
+    public Order[] getOrders() {
+	final Order[] orders = new Order[alOrders.size()];
+	alOrders.toArray(orders);
+	return orders;
+    }
+}
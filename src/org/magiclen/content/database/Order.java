@@ -83,7 +83,7 @@ public class Order {
      * @return 傳回是否要忽略大小寫
      */
     public boolean isNoCase() {
-	return false;
+	return noCase;
     }
 
     /**
@@ -0,0 +1,83 @@
+/*
+ *
+ * Copyright 2015-2017 magiclen.org
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.magiclen.content.database;
+
+/**
+ * 具名的參數，用在查詢樣板(Query Template)的條件中，代替要比較的值，執行查詢時才傳入實際的值。
+ *
+ * @author Magic Len
+ */
+public final class Placeholder {
+
+    // -----物件常數-----
+    private final String name;
+    private final boolean fuzzy;
+
+    // -----建構子-----
+    /**
+     * 建構具名的參數。
+     *
+     * @param name 傳入參數名稱
+     */
+    public Placeholder(final String name) {
+	this(name, false);
+    }
+
+    /**
+     * 建構具名的參數。
+     *
+     * @param name 傳入參數名稱
+     * @param fuzzy 傳入是否模糊判斷
+     */
+    Placeholder(final String name, final boolean fuzzy) {
+	if (name == null || name.length() == 0) {
+	    throw new IllegalArgumentException("name is empty");
+	}
+	this.name = name;
+	this.fuzzy = fuzzy;
+    }
+
+    // -----物件方法-----
+    /**
+     * 取得參數名稱。
+     *
+     * @return 傳回參數名稱
+     */
+    public String getName() {
+	return name;
+    }
+
+    /**
+     * 判斷是否模糊判斷，若是，傳入的值前後會加上%。
+     *
+     * @return 傳回是否模糊判斷
+     */
+    public boolean isFuzzy() {
+	return fuzzy;
+    }
+
+    /**
+     * 取得字串。
+     *
+     * @return 傳回字串。
+     */
+    @Override
+    public String toString() {
+	return ":".concat(name);
+    }
+}
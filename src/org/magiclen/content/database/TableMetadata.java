@@ -31,6 +31,8 @@ public class TableMetadata {
     // -----物件常數-----
     private final HashMap<String, ColumnMetadata> hmColumns = new HashMap<>();
     private final ArrayList<ConstraintMetadata> alConstraints = new ArrayList<>();
+    private final ArrayList<IndexMetadata> alIndexes = new ArrayList<>();
+    private final ArrayList<String> alFullTextColumns = new ArrayList<>();
 
     // -----物件變數-----
     private String primaryKey = null;
@@ -116,6 +118,77 @@ public class TableMetadata {
 	return true;
     }
 
+    /**
+     * 加入索引。
+     *
+     * @param indexName 傳入索引名稱
+     * @param columnName 傳入欄位名稱
+     * @return 傳回索引是否新增成功
+     */
+    public boolean addIndex(final String indexName, final String... columnName) {
+	return addIndex(indexName, false, columnName);
+    }
+
+    /**
+     * 加入索引。
+     *
+     * @param indexName 傳入索引名稱
+     * @param unique 傳入索引的值是否唯一
+     * @param columnName 傳入欄位名稱
+     * @return 傳回索引是否新增成功
+     */
+    public boolean addIndex(final String indexName, final boolean unique, final String... columnName) {
+	if (columnName == null || columnName.length == 0) {
+	    return false;
+	}
+	final Order[] orders = new Order[columnName.length];
+	for (int i = 0; i < columnName.length; i++) {
+	    final Order order = new Order();
+	    if (!order.setOrder(columnName[i])) {
+		return false;
+	    }
+	    orders[i] = order;
+	}
+	return addIndex(indexName, unique, null, orders);
+    }
+
+    /**
+     * 加入索引。欄位可以使用Order來指定遞減(DESC)或是忽略大小寫，並且可以加上條件，使其成為部分索引(Partial Index)。
+     *
+     * @param indexName 傳入索引名稱
+     * @param unique 傳入索引的值是否唯一
+     * @param where 傳入部分索引的條件，null表示索引整個表單
+     * @param orders 傳入欄位和欄位的排序方式
+     * @return 傳回索引是否新增成功
+     */
+    public boolean addIndex(final String indexName, final boolean unique, final ConditionInterface where, final Order... orders) {
+	if (orders == null || orders.length == 0) {
+	    return false;
+	}
+	for (final IndexMetadata index : alIndexes) {
+	    if (index.getIndexName().equals(indexName)) {
+		return false;
+	    }
+	}
+	final IndexMetadata index = new IndexMetadata();
+	if (!index.setIndexName(indexName)) {
+	    return false;
+	}
+	index.setUnique(unique);
+	index.setWhere(where);
+	for (final Order order : orders) {
+	    if (order == null) {
+		return false;
+	    }
+	    final String name = order.getColumnName();
+	    if (name == null || !hmColumns.containsKey(name) || hmColumns.get(name).isHide() || !index.addNewColumn(order)) {
+		return false;
+	    }
+	}
+	alIndexes.add(index);
+	return true;
+    }
+
     /**
      * <p>
      * 設定主要的關鍵欄位。
@@ -143,6 +216,62 @@ public class TableMetadata {
 	return true;
     }
 
+    /**
+     * 替隱藏欄位加上盲索引(Blind Index)。表單會多一個存放欄位內容金鑰雜湊值的欄位和它的索引，讓隱藏欄位可以用EQUAL、NOT_EQUAL、IN和NOT_IN條件查詢，而不需要還原整個表單的資料。
+     *
+     * @param columnName 傳入隱藏欄位的名稱
+     * @return 傳回是否設定成功
+     */
+    public boolean addBlindIndex(final String columnName) {
+	if (columnName == null) {
+	    return false;
+	}
+	final ColumnMetadata column = hmColumns.get(columnName);
+	if (column == null || !column.isHide()) {
+	    return false;
+	}
+	return column.setBlindIndex(true);
+    }
+
+    /**
+     * 設定全文檢索欄位。表單會多一個使用FTS5的全文檢索表單，插入、更新和刪除資料時會自動維護，可以用MATCH條件和ContentCenter的searchFullText方法檢索。表單必須使用INTEGER型態的欄位作為主要的關鍵欄位。
+     *
+     * @param columnName 傳入欄位名稱，必須是TEXT型態且沒有隱藏的欄位
+     * @return 傳回是否設定成功
+     */
+    public boolean setFullTextColumns(final String... columnName) {
+	if (columnName == null) {
+	    return false;
+	}
+	for (final String name : columnName) {
+	    if (name == null) {
+		return false;
+	    }
+	    final ColumnMetadata column = hmColumns.get(name);
+	    if (column == null || column.isHide() || column.getColumnType() != ColumnType.TEXT) {
+		return false;
+	    }
+	}
+	alFullTextColumns.clear();
+	for (final String name : columnName) {
+	    if (!alFullTextColumns.contains(name)) {
+		alFullTextColumns.add(name);
+	    }
+	}
+	return true;
+    }
+
+    /**
+     * 取得全文檢索欄位。
+     *
+     * @return 傳回全文檢索欄位的名稱
+     */
+    public String[] getFullTextColumns() {
+	final String[] columns = new String[alFullTextColumns.size()];
+	alFullTextColumns.toArray(columns);
+	return columns;
+    }
+
     /**
      * 取得主要的關鍵欄位名稱。
      *
@@ -181,6 +310,17 @@ public class TableMetadata {
 	return constraints;
     }
 
+    /**
+     * 取得所有索引的描述資料。
+     *
+     * @return 傳回所有索引的描述資料
+     */
+    public IndexMetadata[] getIndexes() {
+	final IndexMetadata[] indexes = new IndexMetadata[alIndexes.size()];
+	alIndexes.toArray(indexes);
+	return indexes;
+    }
+
     /**
      * 取得指定的欄位描述資料。
      *